@@ -18,7 +18,10 @@ package com.bladecoder.engineeditor.common;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.net.URL;
@@ -28,10 +31,15 @@ import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
 
 import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Pixmap.Format;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.Texture.TextureFilter;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData.Page;
+import com.badlogic.gdx.graphics.glutils.ETC1;
+import com.badlogic.gdx.graphics.glutils.ETC1.ETC1Data;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.tools.texturepacker.TexturePacker;
 import com.badlogic.gdx.tools.texturepacker.TexturePacker.Settings;
@@ -175,6 +183,17 @@ public class ImageUtils {
 
 	public static void createAtlas(String inDir, String outdir, String name, float scale, int maxWidth, int maxHeight,
 			TextureFilter filterMin, TextureFilter filterMag, String outputFormat) throws IOException {
+		createAtlas(inDir, outdir, name, scale, maxWidth, maxHeight, filterMin, filterMag, outputFormat, false);
+	}
+
+	/**
+	 * @param compressed also writes an ETC1 .ktx file for every opaque page. The
+	 *                   engine loads it instead of the png/jpg page when the
+	 *                   device supports ETC1.
+	 */
+	public static void createAtlas(String inDir, String outdir, String name, float scale, int maxWidth, int maxHeight,
+			TextureFilter filterMin, TextureFilter filterMag, String outputFormat, boolean compressed)
+			throws IOException {
 		Settings settings = new Settings();
 
 		settings.pot = false;
@@ -215,11 +234,142 @@ public class ImageUtils {
 			ImageUtils.scaleDirFiles(new File(inDir), inTmpDir, scale);
 		}
 
-		TexturePacker.process(settings, inTmpDir.getAbsolutePath(), outdir,
-				name.endsWith(".atlas") ? name : name + ".atlas");
+		File atlasFile = new File(outdir, name.endsWith(".atlas") ? name : name + ".atlas");
+
+		// the engine would load the old pages instead of the new ones
+		deleteCompressedPages(atlasFile);
+
+		TexturePacker.process(settings, inTmpDir.getAbsolutePath(), outdir, atlasFile.getName());
 
 		if (scale != 1.0f) {
 			DesktopUtils.removeDir(inTmpDir.getAbsolutePath());
 		}
+
+		if (compressed) {
+			if (filterMin.isMipMap())
+				EditorLogger.error("Compressed pages are not generated for mipmap filters: " + atlasFile.getName());
+			else
+				createCompressedPages(atlasFile);
+		}
+	}
+
+	/**
+	 * Writes an ETC1 .ktx file next to every opaque page of the atlas and
+	 * reports the size of the files and the texture memory of both versions.
+	 */
+	public static void createCompressedPages(File atlasFile) throws IOException {
+		FileHandle atlasHandle = new FileHandle(atlasFile);
+		TextureAtlasData data = new TextureAtlasData(atlasHandle, atlasHandle.parent(), false);
+
+		long orgFileSize = 0, ktxFileSize = 0;
+		long orgMemory = 0, ktxMemory = 0;
+
+		for (Page page : data.getPages()) {
+			Pixmap p = new Pixmap(page.textureFile);
+			int w = p.getWidth();
+			int h = p.getHeight();
+
+			orgFileSize += page.textureFile.length();
+			orgMemory += w * h * 4;
+
+			if (!isOpaque(p)) {
+				EditorLogger.msg("Page with transparency, not compressed: " + page.textureFile.name());
+				getCompressedPage(page.textureFile).delete();
+				ktxFileSize += page.textureFile.length();
+				ktxMemory += w * h * 4;
+				p.dispose();
+				continue;
+			}
+
+			// the ETC1 encoder only accepts RGB images
+			Pixmap rgb = new Pixmap(w, h, Format.RGB888);
+			rgb.setBlending(Pixmap.Blending.None);
+			rgb.drawPixmap(p, 0, 0);
+			p.dispose();
+
+			ETC1Data etc1 = ETC1.encodeImage(rgb);
+			rgb.dispose();
+
+			FileHandle ktx = getCompressedPage(page.textureFile);
+			writeKTX(ktx.file(), etc1);
+			etc1.dispose();
+
+			ktxFileSize += ktx.length();
+			ktxMemory += w * h / 2;
+		}
+
+		EditorLogger.msg("ATLAS " + atlasFile.getName() + " FILES: " + orgFileSize / 1024 + "KB -> " + ktxFileSize / 1024
+				+ "KB, TEXTURE MEMORY: " + orgMemory / 1024 + "KB -> " + ktxMemory / 1024 + "KB");
+	}
+
+	/**
+	 * Deletes the .ktx files of the atlas pages, if the atlas exists.
+	 */
+	public static void deleteCompressedPages(File atlasFile) {
+		if (!atlasFile.exists())
+			return;
+
+		FileHandle atlasHandle = new FileHandle(atlasFile);
+
+		try {
+			TextureAtlasData data = new TextureAtlasData(atlasHandle, atlasHandle.parent(), false);
+
+			for (Page page : data.getPages())
+				getCompressedPage(page.textureFile).delete();
+		} catch (Exception e) {
+			EditorLogger.error("Error reading atlas: " + atlasFile.getName() + " " + e.getMessage());
+		}
+	}
+
+	private static FileHandle getCompressedPage(FileHandle page) {
+		return page.sibling(page.nameWithoutExtension() + ".ktx");
+	}
+
+	private static boolean isOpaque(Pixmap p) {
+		if (p.getFormat() != Format.RGBA8888 && p.getFormat() != Format.RGBA4444 && p.getFormat() != Format.Alpha
+				&& p.getFormat() != Format.LuminanceAlpha)
+			return true;
+
+		for (int y = 0; y < p.getHeight(); y++) {
+			for (int x = 0; x < p.getWidth(); x++) {
+				if ((p.getPixel(x, y) & 0xff) != 0xff)
+					return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Writes a KTX file with one mipmap level of ETC1 data.
+	 */
+	private static void writeKTX(File f, ETC1Data etc1) throws IOException {
+		final byte[] identifier = { (byte) 0xAB, 'K', 'T', 'X', ' ', '1', '1', (byte) 0xBB, '\r', '\n', 0x1A,
+				'\n' };
+
+		int size = etc1.compressedData.capacity() - etc1.dataOffset;
+		byte[] bytes = new byte[size];
+		etc1.compressedData.position(etc1.dataOffset);
+		etc1.compressedData.get(bytes);
+		etc1.compressedData.position(0);
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f)))) {
+			out.write(identifier);
+			out.writeInt(0x04030201); // endianness
+			out.writeInt(0); // glType
+			out.writeInt(1); // glTypeSize
+			out.writeInt(0); // glFormat
+			out.writeInt(ETC1.ETC1_RGB8_OES); // glInternalFormat
+			out.writeInt(GL20.GL_RGB); // glBaseInternalFormat
+			out.writeInt(etc1.width);
+			out.writeInt(etc1.height);
+			out.writeInt(0); // pixelDepth
+			out.writeInt(0); // numberOfArrayElements
+			out.writeInt(1); // numberOfFaces
+			out.writeInt(1); // numberOfMipmapLevels
+			out.writeInt(0); // bytesOfKeyValueData
+			out.writeInt(size);
+			out.write(bytes);
+		}
 	}
 }
@@ -112,6 +112,9 @@ public class Project extends PropertyChange {
 
 	public Project() {
 		loadConfig();
+
+		// the editor needs all the scenes of the chapter
+		world.getSerializer().setLazyScenes(false);
 	}
 	
 	public World getWorld() {
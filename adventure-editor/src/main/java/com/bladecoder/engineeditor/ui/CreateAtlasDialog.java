@@ -49,6 +49,7 @@ public class CreateAtlasDialog extends EditDialog {
 	private InputPanel maxWidth;
 	private InputPanel maxHeight;
 	private InputPanel outputFormat;
+	private InputPanel compressed;
 
 	public CreateAtlasDialog(Skin skin) {
 		super("CREATE ATLAS", skin);
@@ -69,6 +70,10 @@ public class CreateAtlasDialog extends EditDialog {
 		outputFormat = InputPanelFactory.createInputPanel(skin, "Output format",
 				"The output format of the image. Note that 'jpg' doesn't support transparency.", OUTPUT_FORMATS, true);
 
+		compressed = InputPanelFactory.createInputPanel(skin, "Compressed pages",
+				"Also generates ETC1 compressed pages (.ktx) for the pages without transparency. They use less memory and load faster in the devices that support them.",
+				Param.Type.BOOLEAN, true, "false");
+
 		addInputPanel(name);
 		addInputPanel(dir);
 		addInputPanel(filterMin);
@@ -76,6 +81,7 @@ public class CreateAtlasDialog extends EditDialog {
 		addInputPanel(maxWidth);
 		addInputPanel(maxHeight);
 		addInputPanel(outputFormat);
+		addInputPanel(compressed);
 
 		String maxWH = Integer.toString(ImageUtils.getRecommendedAtlasSize());
 
@@ -160,7 +166,8 @@ public class CreateAtlasDialog extends EditDialog {
 
 			try {
 				ImageUtils.createAtlas(dir.getText(), outdir + "/" + r, name + ".atlas", scale, (int) (maxW * scale),
-						(int) (maxH * scale), filterMin, filterMag, outputFormat.getText());
+						(int) (maxH * scale), filterMin, filterMag, outputFormat.getText(),
+						Boolean.parseBoolean(compressed.getText()));
 			} catch (IOException e) {
 				EditorLogger.error(e.getMessage());
 				Message.showMsgDialog(getStage(), "Error creating atlas", e.getMessage());
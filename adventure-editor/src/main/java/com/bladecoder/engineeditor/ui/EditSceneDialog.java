@@ -68,6 +68,7 @@ public class EditSceneDialog extends EditModelDialog<World, Scene> {
 	private InputPanel stopWhenLeaving;
 	private InputPanel sceneSize;
 	private InputPanel walkzone;
+	private InputPanel navMesh;
 
 	@SuppressWarnings("unchecked")
 	public EditSceneDialog(Skin skin, World parent, Scene e) {
@@ -106,6 +107,10 @@ public class EditSceneDialog extends EditModelDialog<World, Scene> {
 		
 		walkzone = InputPanelFactory.createInputPanel(skin, "Walkzone", "The initial walkzone.", Type.WALKZONE_ACTOR, false);
 
+		navMesh = InputPanelFactory.createInputPanel(skin, "Nav mesh",
+				"Searchs the paths in a triangulation of the walkzone. Faster for walkzones with lots of vertices.",
+				Param.Type.BOOLEAN, true, "false");
+
 		bgImage = new Image();
 		bgImage.setScaling(Scaling.fit);
 		infoContainer = new Container<Image>(bgImage);
@@ -137,7 +142,7 @@ public class EditSceneDialog extends EditModelDialog<World, Scene> {
 		}
 
 		init(parent, e, new InputPanel[] { id, backgroundAtlas, backgroundRegion, depthVector, state, sceneSize, music,
-				loopMusic, volumeMusic, initialMusicDelay, repeatMusicDelay, stopWhenLeaving, walkzone });
+				loopMusic, volumeMusic, initialMusicDelay, repeatMusicDelay, stopWhenLeaving, walkzone, navMesh });
 	}
 
 	private void showBgImage(String r) {
@@ -247,6 +252,7 @@ public class EditSceneDialog extends EditModelDialog<World, Scene> {
 		e.setSceneSize(Param.parseVector2(sceneSize.getText()));
 		
 		e.setWalkZone(walkzone.getText());
+		e.setNavMesh(Boolean.parseBoolean(navMesh.getText()));
 
 		parent.addScene(e);
 
@@ -292,6 +298,7 @@ public class EditSceneDialog extends EditModelDialog<World, Scene> {
 			sceneSize.setText(Param.toStringParam(e.getSceneSize()));
 		
 		walkzone.setText(e.getWalkZone());
+		navMesh.setText(Boolean.toString(e.isNavMesh()));
 	}
 
 	@Override
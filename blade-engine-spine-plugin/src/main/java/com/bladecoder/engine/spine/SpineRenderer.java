@@ -18,6 +18,7 @@ package com.bladecoder.engine.spine;
 import java.util.HashMap;
 import java.util.Map.Entry;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.Matrix4;
@@ -69,8 +70,23 @@ public class SpineRenderer extends AnimationRenderer {
 	private int currentCount;
 	private Tween.Type currentAnimationType;
 
-	private SkeletonRenderer renderer;
-	private SkeletonBounds bounds;
+	// Skeletons smaller than this height in screen pixels update their world
+	// transform at SMALL_UPDATE_INTERVAL.
+	private final static float SMALL_SCREEN_HEIGHT = 150;
+	private final static float SMALL_UPDATE_INTERVAL = 1 / 15f;
+
+	private static SkeletonRenderer renderer;
+	private static SkeletonBounds bounds;
+
+	// AnimationStateData shared by all the renderers by skeleton filename.
+	private final static HashMap<String, AnimationStateData> stateDataCache = new HashMap<String, AnimationStateData>();
+
+	// the world transform is only updated when the skeleton is drawn
+	private boolean transformPending = false;
+	private float transformTime = 0;
+
+	// the bbox is only calculated when it is needed
+	private boolean bboxPending = false;
 
 	private float width = super.getWidth(), height = super.getHeight();
 
@@ -231,9 +247,21 @@ public class SpineRenderer extends AnimationRenderer {
 	private void updateAnimation(float time) {
 		SkeletonCacheEntry cs = (SkeletonCacheEntry) currentSource;
 
+		// events and complete callbacks are fired in apply(), so it is called
+		// every frame.
 		cs.animation.update(time);
 		cs.animation.apply(cs.skeleton);
+
+		transformPending = true;
+		transformTime += Math.abs(time);
+	}
+
+	private void updateWorldTransform() {
+		SkeletonCacheEntry cs = (SkeletonCacheEntry) currentSource;
+
 		cs.skeleton.updateWorldTransform();
+		transformPending = false;
+		transformTime = 0;
 	}
 
 	private static final Matrix4 tmp = new Matrix4();
@@ -244,6 +272,15 @@ public class SpineRenderer extends AnimationRenderer {
 		SkeletonCacheEntry cs = (SkeletonCacheEntry) currentSource;
 
 		if (cs != null && cs.skeleton != null) {
+			if (transformPending) {
+				// small skeletons are updated at a lower rate
+				float screenHeight = getHeight() * Math.abs(scaleY) * batch.getProjectionMatrix().val[Matrix4.M11]
+						* Gdx.graphics.getHeight() / 2;
+
+				if (screenHeight >= SMALL_SCREEN_HEIGHT || transformTime >= SMALL_UPDATE_INTERVAL)
+					updateWorldTransform();
+			}
+
 			Matrix4 tm = batch.getTransformMatrix();
 			tmp.set(tm);
 
@@ -275,11 +312,13 @@ public class SpineRenderer extends AnimationRenderer {
 
 	@Override
 	public float getWidth() {
+		validateBbox();
 		return width;
 	}
 
 	@Override
 	public float getHeight() {
+		validateBbox();
 		return height;
 	}
 
@@ -417,6 +456,7 @@ public class SpineRenderer extends AnimationRenderer {
 			}
 
 			updateAnimation(0);
+			updateWorldTransform();
 		} catch (Exception e) {
 			EngineLogger.error("SpineRenderer:setCurrentFA " + e.getMessage());
 		}
@@ -435,6 +475,7 @@ public class SpineRenderer extends AnimationRenderer {
 				setSecondaryAnimation(secondaryAnimation);
 
 			updateAnimation(lastAnimationTime);
+			updateWorldTransform();
 			computeBbox();
 
 		} catch (Exception e) {
@@ -444,8 +485,20 @@ public class SpineRenderer extends AnimationRenderer {
 
 	@Override
 	public void computeBbox() {
+		bboxPending = true;
+	}
+
+	@Override
+	public void validateBbox() {
+		if (bboxPending)
+			calcBbox();
+	}
+
+	private void calcBbox() {
 		float minX, minY, maxX, maxY;
 
+		bboxPending = false;
+
 		if (bbox == null)
 			bbox = new Polygon(new float[8]);
 
@@ -459,20 +512,20 @@ public class SpineRenderer extends AnimationRenderer {
 
 			float[] verts = bbox.getVertices();
 
-			verts[0] = -getWidth() / 2;
+			verts[0] = -width / 2;
 			verts[1] = 0f;
-			verts[2] = -getWidth() / 2;
-			verts[3] = getHeight();
-			verts[4] = getWidth() / 2;
-			verts[5] = getHeight();
-			verts[6] = getWidth() / 2;
+			verts[2] = -width / 2;
+			verts[3] = height;
+			verts[4] = width / 2;
+			verts[5] = height;
+			verts[6] = width / 2;
 			verts[7] = 0f;
 			bbox.dirty();
 			return;
 		}
 
 		cs.skeleton.setPosition(0, 0);
-		cs.skeleton.updateWorldTransform();
+		updateWorldTransform();
 		bounds.update(cs.skeleton, true);
 
 		if (bounds.getWidth() > 0 && bounds.getHeight() > 0) {
@@ -568,16 +621,32 @@ public class SpineRenderer extends AnimationRenderer {
 			SkeletonData skeletonData = EngineAssetManager.getInstance().get(getFileName(source), SkeletonData.class);
 
 			entry.skeleton = new Skeleton(skeletonData);
+			entry.animation = new AnimationState(getStateData(getFileName(source), skeletonData));
+			entry.animation.addListener(animationListener);
+		}
+	}
 
-			AnimationStateData stateData = new AnimationStateData(skeletonData); // Defines
-																					// mixing
-																					// between
-																					// animations.
-			stateData.setDefaultMix(0f);
+	/**
+	 * The SkeletonData is shared by the asset manager. The AnimationStateData,
+	 * that defines the mixing between animations, is shared here.
+	 */
+	private static AnimationStateData getStateData(String filename, SkeletonData skeletonData) {
+		AnimationStateData stateData = stateDataCache.get(filename);
 
-			entry.animation = new AnimationState(stateData);
-			entry.animation.addListener(animationListener);
+		if (stateData == null || stateData.getSkeletonData() != skeletonData) {
+			stateData = new AnimationStateData(skeletonData);
+			stateData.setDefaultMix(0f);
+			stateDataCache.put(filename, stateData);
 		}
+
+		return stateData;
+	}
+
+	private static void unloadSkeleton(String filename) {
+		EngineAssetManager.getInstance().unload(filename);
+
+		if (!EngineAssetManager.getInstance().isLoaded(filename))
+			stateDataCache.remove(filename);
 	}
 
 	private void disposeSource(String source) {
@@ -585,8 +654,7 @@ public class SpineRenderer extends AnimationRenderer {
 		SkeletonCacheEntry entry = (SkeletonCacheEntry) sourceCache.get(source);
 
 		if (entry.refCounter == 1) {
-			EngineAssetManager.getInstance()
-					.unload(EngineAssetManager.SPINE_DIR + source + EngineAssetManager.SPINE_EXT);
+			unloadSkeleton(getFileName(source));
 			entry.animation = null;
 			entry.skeleton = null;
 		}
@@ -613,9 +681,11 @@ public class SpineRenderer extends AnimationRenderer {
 
 	@Override
 	public void retrieveAssets() {
-		renderer = new SkeletonRenderer();
-		renderer.setPremultipliedAlpha(false);
-		bounds = new SkeletonBounds();
+		if (renderer == null) {
+			renderer = new SkeletonRenderer();
+			renderer.setPremultipliedAlpha(false);
+			bounds = new SkeletonBounds();
+		}
 
 		for (String key : sourceCache.keySet()) {
 			if (sourceCache.get(key).refCounter > 0)
@@ -646,17 +716,15 @@ public class SpineRenderer extends AnimationRenderer {
 		for (Entry<String, CacheEntry> entry : sourceCache.entrySet()) {
 
 			if (entry.getValue().refCounter > 0) {
-				String filename = EngineAssetManager.SPINE_DIR + entry.getKey() + EngineAssetManager.SPINE_EXT;
+				String filename = getFileName(entry.getKey());
 
 				if (EngineAssetManager.getInstance().isLoaded(filename))
-					EngineAssetManager.getInstance().unload(filename);
+					unloadSkeleton(filename);
 			}
 		}
 
 		sourceCache.clear();
 		currentSource = null;
-		renderer = null;
-		bounds = null;
 	}
 
 	@Override
@@ -91,6 +91,12 @@ public class BladeEngine implements ApplicationListener {
 			Config.load();
 		}
 		
+		// updates per second, 0 to update with the frame delta
+		int fixedTimestep = Config.getProperty(Config.FIXED_TIMESTEP_PROP, 0);
+
+		if (fixedTimestep > 0)
+			world.setFixedTimestep(1f / fixedTimestep);
+
 		try {
 			world.loadWorldDesc();
 		} catch (Exception e) {
@@ -50,6 +50,10 @@ public class GotoAction implements Action {
 	@ActionProperty(required = true, defaultValue = "true")
 	@ActionPropertyDescription("If this param is 'false' the text is showed and the action continues inmediatly")
 	private boolean wait = true;
+
+	@ActionProperty(required = true, defaultValue = "false")
+	@ActionPropertyDescription("Searchs the path in background and avoids other characters while walking. For NPCs walking around.")
+	private boolean crowd = false;
 	
 	private World w;
 	
@@ -91,7 +95,10 @@ public class GotoAction implements Action {
 			y = pos.y * scale;
 		}
 			
-		actor.goTo(new Vector2(x, y), wait ? cb : null, ignoreWalkZone);
+		if (crowd && !ignoreWalkZone)
+			actor.requestGoTo(new Vector2(x, y), wait ? cb : null, true);
+		else
+			actor.goTo(new Vector2(x, y), wait ? cb : null, ignoreWalkZone);
 
 		return wait;
 	}
@@ -7,6 +7,12 @@ import com.bladecoder.engine.model.World;
 public class SceneActorRef {
 	private final String sceneId, actorId;
 
+	// last actor found in a scene. Valid while the scene and the world model
+	// version don't change.
+	transient private BaseActor cachedActor;
+	transient private Scene cachedScene;
+	transient private int cachedVersion;
+
 	public SceneActorRef() {
 		this(null, null);
 	}
@@ -61,7 +67,27 @@ public class SceneActorRef {
 		if(scn == null)
 			scn = w.getCurrentScene();
 		
-		return scn.getActor(actorId, searchInventory);
+		if (cachedActor != null && cachedScene == scn && cachedVersion == w.getModelVersion())
+			return cachedActor;
+		
+		// the player reference can change without changing the model
+		if (Scene.VAR_PLAYER.equals(actorId))
+			return scn.getActor(actorId, searchInventory);
+		
+		BaseActor a = scn.getActor(actorId, false);
+		
+		if (a != null) {
+			cachedActor = a;
+			cachedScene = scn;
+			cachedVersion = w.getModelVersion();
+			
+			return a;
+		}
+		
+		cachedActor = null;
+		cachedScene = null;
+		
+		return searchInventory ? scn.getActor(actorId, true) : null;
 	}
 
 	public BaseActor getActor(World w) {
@@ -22,20 +22,31 @@ import com.bladecoder.engine.model.MusicManager;
 import com.bladecoder.engine.util.InterpolationMode;
 
 /**
- * Tween for Music fade in/out
+ * Tween for Music fade in/out.
+ * 
+ * It can also fade the outgoing music of a crossfade.
  */
 public class MusicVolumeTween extends Tween<MusicManager> {
 	
 	private float startVolume;
 	private float targetVolume;
+
+	// fades the outgoing music instead of the current music
+	private boolean outgoing = false;
 	
 	public MusicVolumeTween() {
 	}
 
 	public void start(MusicManager mm, float tVolume, float duration, InterpolationMode interpolation, ActionCallback cb) {	
+		start(mm, mm.getVolume(), tVolume, duration, interpolation, false, cb);
+	}
+
+	public void start(MusicManager mm, float sVolume, float tVolume, float duration, InterpolationMode interpolation,
+			boolean outgoing, ActionCallback cb) {
 		this.target = mm;
-		
-		startVolume = mm.getVolume();
+		this.outgoing = outgoing;
+
+		startVolume = sVolume;
 		targetVolume = tVolume;
 		
 		setDuration(duration);
@@ -52,7 +63,12 @@ public class MusicVolumeTween extends Tween<MusicManager> {
 
 	@Override
 	public void updateTarget() {
-		target.setVolume(startVolume + getPercent() * (targetVolume - startVolume));
+		float v = startVolume + getPercent() * (targetVolume - startVolume);
+
+		if (outgoing)
+			target.setOutgoingVolume(v);
+		else
+			target.setVolume(v);
 	}
 	
 	@Override
@@ -16,6 +16,7 @@
 package com.bladecoder.engine.anim;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Json;
@@ -24,38 +25,80 @@ import com.badlogic.gdx.utils.JsonValue;
 import com.bladecoder.engine.actions.ActionCallback;
 import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.model.CharacterActor;
+import com.bladecoder.engine.model.InteractiveActor;
+import com.bladecoder.engine.model.Scene;
+import com.bladecoder.engine.model.SceneLayer;
 import com.bladecoder.engine.serialization.ActionCallbackSerializer;
 import com.bladecoder.engine.serialization.BladeJson;
 import com.bladecoder.engine.util.InterpolationMode;
+import com.bladecoder.engine.util.PolygonUtils;
 
 /**
  * Tween for frame animation
  */
 public class WalkTween extends SpritePosTween implements Serializable {
 
-	private ArrayList<Vector2> walkingPath;
+	private final ArrayList<Vector2> walkingPath = new ArrayList<Vector2>();
+
+	// path points not used. Reused when the tween is started again.
+	private final ArrayList<Vector2> freePoints = new ArrayList<Vector2>();
+
 	private int currentStep = 0;
 	private float speed = 0;
 
 	private ActionCallback walkCb;
 
+	// Steering to avoid other characters
+	private boolean avoidance = false;
+	private final Vector2 avoidOffset = new Vector2();
+	private final Vector2 tmp = new Vector2();
+
+	// offset smoothing per frame
+	private static final float AVOID_SMOOTH = 0.15f;
+
 	public WalkTween() {
 	}
 
+	/**
+	 * When set, the character is moved aside from the path to avoid the other
+	 * characters of the scene. The offset is zero at the path points.
+	 */
+	public void setAvoidance(boolean avoidance) {
+		this.avoidance = avoidance;
+	}
+
+	/**
+	 * Starts walking through the path. The path points are copied so the path
+	 * can be reused by the caller.
+	 */
 	public void start(CharacterActor target, ArrayList<Vector2> walkingPath, float speed, ActionCallback cb) {
 		this.target = target;
-		this.walkingPath = walkingPath;
 		this.speed = speed;
 		this.currentStep = 0;
 
-		if (cb != null) {
-			walkCb = cb;
-		}
+		setPath(walkingPath);
+
+		// the tween can be reused
+		reset();
+		setCb(null);
+		walkCb = cb;
+		avoidance = false;
+		avoidOffset.setZero();
 
 		restart();
 		walkToNextStep(target);
 	}
 
+	private void setPath(ArrayList<Vector2> path) {
+		freePoints.addAll(walkingPath);
+		walkingPath.clear();
+
+		for (int i = 0; i < path.size(); i++) {
+			Vector2 p = freePoints.isEmpty() ? new Vector2() : freePoints.remove(freePoints.size() - 1);
+			walkingPath.add(p.set(path.get(i)));
+		}
+	}
+
 	private void walkToNextStep(CharacterActor target) {
 		Vector2 p0 = walkingPath.get(currentStep);
 		Vector2 pf = walkingPath.get(currentStep + 1);
@@ -122,6 +165,84 @@ public class WalkTween extends SpritePosTween implements Serializable {
 
 		if (isComplete())
 			segmentEnded((CharacterActor) target);
+		else if (avoidance)
+			avoid((CharacterActor) target);
+	}
+
+	/**
+	 * Simple separation steering. The other characters closer than the average
+	 * of both half widths push the character perpendicular to the walking
+	 * direction.
+	 */
+	private void avoid(CharacterActor target) {
+		Scene s = target.getScene();
+
+		if (s == null || currentStep >= walkingPath.size() - 1)
+			return;
+
+		float x = target.getX();
+		float y = target.getY();
+		float w = target.getBBox().getBoundingRectangle().width;
+		float maxDist = 0;
+
+		tmp.setZero();
+
+		List<SceneLayer> layers = s.getLayers();
+
+		for (int i = 0; i < layers.size(); i++) {
+			List<InteractiveActor> actors = layers.get(i).getActors();
+
+			for (int j = 0; j < actors.size(); j++) {
+				InteractiveActor a = actors.get(j);
+
+				if (a == target || !(a instanceof CharacterActor) || !a.isVisible())
+					continue;
+
+				float minDist = (w + a.getBBox().getBoundingRectangle().width) / 4;
+				float dx = x - a.getX();
+				float dy = y - a.getY();
+				float d2 = dx * dx + dy * dy;
+
+				if (d2 < minDist * minDist && d2 > 0.0001f) {
+					float d = (float) Math.sqrt(d2);
+
+					tmp.add(dx / d * (minDist - d), dy / d * (minDist - d));
+					maxDist = Math.max(maxDist, minDist);
+				}
+			}
+		}
+
+		Vector2 p0 = walkingPath.get(currentStep);
+		Vector2 pf = walkingPath.get(currentStep + 1);
+
+		// only the perpendicular part, the character doesn't stop or go back
+		float px = -(pf.y - p0.y);
+		float py = pf.x - p0.x;
+		float len = (float) Math.sqrt(px * px + py * py);
+
+		if (len > 0 && maxDist > 0) {
+			float lateral = (tmp.x * px + tmp.y * py) / len;
+
+			// fades near the segment end to arrive to the path points
+			float fade = Math.min(1, pf.dst(x, y) / maxDist);
+
+			tmp.set(px / len * lateral * fade, py / len * lateral * fade);
+		} else {
+			tmp.setZero();
+		}
+
+		avoidOffset.lerp(tmp, AVOID_SMOOTH);
+
+		float nx = x + avoidOffset.x;
+		float ny = y + avoidOffset.y;
+
+		if (s.getWalkZone() != null
+				&& !PolygonUtils.isPointInside(s.getPolygonalNavGraph().getWalkZone(), nx, ny, true)) {
+			avoidOffset.setZero();
+			return;
+		}
+
+		target.setPosition(nx, ny);
 	}
 
 	@Override
@@ -134,6 +255,9 @@ public class WalkTween extends SpritePosTween implements Serializable {
 
 		if(walkCb != null)
 		json.writeValue("walkCb", ActionCallbackSerializer.find(((BladeJson) json).getWorld(), walkCb));
+
+		if (avoidance)
+			json.writeValue("avoidance", avoidance);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -141,11 +265,13 @@ public class WalkTween extends SpritePosTween implements Serializable {
 	public void read(Json json, JsonValue jsonData) {
 		super.read(json, jsonData);
 
-		walkingPath = json.readValue("path", ArrayList.class, Vector2.class, jsonData);
+		setPath(json.readValue("path", ArrayList.class, Vector2.class, jsonData));
 		currentStep = json.readValue("currentStep", Integer.class, jsonData);
 		speed = json.readValue("speed", Float.class, jsonData);
 
 		walkCb = ActionCallbackSerializer.find(((BladeJson) json).getWorld(),
 				json.readValue("walkCb", String.class, jsonData));
+
+		avoidance = json.readValue("avoidance", boolean.class, false, jsonData);
 	}
 }
@@ -77,6 +77,7 @@ public class EngineAssetManager extends AssetManager {
 	public static final String FONT_EXT = ".ttf";
 
 	public static final String CHAPTER_EXT = ".chapter.json";
+	public static final String CHAPTER_INDEX_EXT = ".chapter.index";
 
 	private static final String OGG_EXT = ".ogg";
 	private static final String AAC_EXT = ".m4a";
@@ -120,6 +121,13 @@ public class EngineAssetManager extends AssetManager {
 		resResolver.selectResolution();
 		scale = resResolver.getResolution().portraitWidth / (float) worldWidth;
 
+		// The GL extensions are only available in the GL thread, so the
+		// compressed format is selected here and not when loading the textures.
+		resResolver.setCompressedTextures(Gdx.graphics != null && Gdx.gl != null
+				&& Gdx.graphics.supportsExtension("GL_OES_compressed_ETC1_RGB8_texture"));
+
+		EngineLogger.debug("Compressed ETC1 textures: " + resResolver.isCompressedTextures());
+
 		EngineLogger.debug("Setting ASSETS SCALE: " + scale);
 	}
 
@@ -293,7 +301,8 @@ public class EngineAssetManager extends AssetManager {
 		if (n == null)
 			return;
 
-		if (isLoaded(n))
+		// also removes the music from the loading queue
+		if (contains(n))
 			unload(n);
 	}
 
@@ -324,13 +333,36 @@ public class EngineAssetManager extends AssetManager {
 		return get(n, Sound.class);
 	}
 
+	/**
+	 * @return the sound file to load it out of the asset manager. null if the
+	 *         sound format is not supported.
+	 */
+	public FileHandle getSoundFile(String filename) {
+		String n = checkIOSSoundName(SOUND_DIR + filename);
+
+		if (n == null)
+			return null;
+
+		return getFileHandleResolver().resolve(n);
+	}
+
+	public boolean isSoundLoaded(String filename) {
+		String n = checkIOSSoundName(SOUND_DIR + filename);
+
+		if (n == null)
+			return false;
+
+		return isLoaded(n);
+	}
+
 	public void disposeSound(String filename) {
 		String n = checkIOSSoundName(SOUND_DIR + filename);
 
 		if (n == null)
 			return;
 
-		if (isLoaded(n))
+		// also removes the sound from the loading queue
+		if (contains(n))
 			unload(n);
 	}
 
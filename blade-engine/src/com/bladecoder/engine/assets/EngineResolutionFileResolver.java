@@ -30,6 +30,12 @@ public class EngineResolutionFileResolver implements FileHandleResolver {
 	private Resolution bestDesc;
 	private String fixResolution;
 
+	/**
+	 * When true, the atlas pages with a '.ktx' ETC1 version packed by the editor
+	 * are loaded compressed.
+	 */
+	private boolean compressedTextures = false;
+
 	public EngineResolutionFileResolver(FileHandleResolver baseResolver) {
 		this.baseResolver = baseResolver;
 	}
@@ -41,6 +47,14 @@ public class EngineResolutionFileResolver implements FileHandleResolver {
 		
 		if (!FileUtils.exists(handle))
 			handle = baseResolver.resolve(fileName);
+
+		if (compressedTextures && fileName.startsWith(EngineAssetManager.ATLASES_DIR)
+				&& (fileName.endsWith(".png") || fileName.endsWith(".jpg"))) {
+			FileHandle ktx = handle.sibling(handle.nameWithoutExtension() + ".ktx");
+
+			if (FileUtils.exists(ktx))
+				return ktx;
+		}
 		
 		return handle;
 	}
@@ -143,4 +157,12 @@ public class EngineResolutionFileResolver implements FileHandleResolver {
 		fixResolution = suffix;
 	}
 
+	public boolean isCompressedTextures() {
+		return compressedTextures;
+	}
+
+	public void setCompressedTextures(boolean compressedTextures) {
+		this.compressedTextures = compressedTextures;
+	}
+
 }
@@ -97,6 +97,27 @@ public class InkManager implements VerbRunner, Serializable {
 		}
 	}
 
+	/**
+	 * Loads the story file again keeping the current story state. Used to reload
+	 * the model while playing.
+	 */
+	public void reloadStory() {
+		if (storyName == null)
+			return;
+
+		String state = null;
+
+		if (story != null) {
+			try {
+				state = story.getState().toJson();
+			} catch (Exception e) {
+				EngineLogger.error("Cannot save Ink Story State for: " + storyName + " " + e.getMessage());
+			}
+		}
+
+		loadThreaded(storyName, state);
+	}
+
 	private void loadStoryState(String stateString) {
 		try {
 			long initTime = System.currentTimeMillis();
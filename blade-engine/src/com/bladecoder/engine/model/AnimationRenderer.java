@@ -70,6 +70,14 @@ public abstract class AnimationRenderer implements ActorRenderer {
 
 	public abstract String[] getInternalAnimations(AnimationDesc anim);
 
+	/**
+	 * @return false if the renderer doesn't change when updated. Used to stop
+	 *         rendering when the scene is idle.
+	 */
+	public boolean isAnimating() {
+		return true;
+	}
+
 	public AnimationDesc getCurrentAnimation() {
 		return currentAnimation;
 	}
@@ -142,6 +150,13 @@ public abstract class AnimationRenderer implements ActorRenderer {
 		computeBbox();
 	}
 
+	/**
+	 * Called by SpriteActor.getBBox() before using the bbox. Renderers that
+	 * compute the bbox lazily must update it here.
+	 */
+	public void validateBbox() {
+	}
+
 	protected void computeBbox() {
 		if (bbox == null)
 			return;
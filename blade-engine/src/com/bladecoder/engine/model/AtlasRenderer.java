@@ -77,6 +77,11 @@ public class AtlasRenderer extends AnimationRenderer {
 		}
 	}
 
+	@Override
+	public boolean isAnimating() {
+		return faTween != null;
+	}
+
 	public void setFrame(int i) {
 		currentFrameIndex = i;
 		tex = ((AtlasAnimationDesc) currentAnimation).regions.get(i);
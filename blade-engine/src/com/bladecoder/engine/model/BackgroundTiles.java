@@ -0,0 +1,407 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.loaders.TextureLoader.TextureParameter;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.TextureData.TextureDataType;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData.Page;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData.Region;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * The scene background tiles.
+ * 
+ * The atlas file is parsed but the atlas is not loaded as a whole. Every page
+ * is loaded as a texture when the camera gets near its tiles and unloaded when
+ * the camera goes far, so wide scrolling backgrounds split in several pages
+ * only keep the pages around the camera in memory.
+ * 
+ * The pages near the camera when the scene is loaded are loaded by the asset
+ * manager with the same names and parameters that the atlas loader uses, so
+ * they are shared with the atlas if some actor loads it. The pages needed while
+ * playing are loaded in its own thread and not in the asset manager queue, the
+ * GL thread never waits for them. The tiles of a page not loaded yet are not
+ * drawn.
+ * 
+ * Only the tiles inside the camera view are drawn.
+ * 
+ * @author rgarcia
+ */
+class BackgroundTiles {
+	private final Tile[] tiles;
+	private final PageEntry[] pages;
+	private final float width;
+	private final float height;
+
+	// all the regions, only when all the pages are loaded
+	private Array<AtlasRegion> allRegions;
+
+	// released pages still loading in background. Disposed when loaded.
+	private final Array<AsyncResult<TextureData>> released = new Array<AsyncResult<TextureData>>();
+
+	private static AsyncExecutor pageLoader;
+
+	private static class PageEntry {
+		AssetDescriptor<Texture> desc;
+		Page page;
+
+		// horizontal extent of the background tiles in the page
+		float left = Float.MAX_VALUE;
+		float right = -Float.MAX_VALUE;
+
+		boolean requested;
+		boolean retrieved;
+
+		// loaded by the asset manager
+		boolean managed;
+
+		// loaded in background, out of the asset manager
+		AsyncResult<TextureData> result;
+		Texture texture;
+	}
+
+	private static class Tile {
+		Region data;
+		PageEntry page;
+		float x;
+		float width;
+
+		// null when the page is not loaded
+		AtlasRegion region;
+	}
+
+	BackgroundTiles(String atlas, String regionId) {
+		EngineAssetManager am = EngineAssetManager.getInstance();
+		FileHandle atlasFile = am
+				.getResAsset(EngineAssetManager.ATLASES_DIR + atlas + EngineAssetManager.ATLAS_EXT);
+		TextureAtlasData data = new TextureAtlasData(atlasFile, atlasFile.parent(), false);
+
+		Array<Page> dataPages = data.getPages();
+		pages = new PageEntry[dataPages.size];
+
+		for (int i = 0; i < pages.length; i++) {
+			Page p = dataPages.get(i);
+
+			TextureParameter params = new TextureParameter();
+			params.format = p.format;
+			params.genMipMaps = p.useMipMaps;
+			params.minFilter = p.minFilter;
+			params.magFilter = p.magFilter;
+
+			pages[i] = new PageEntry();
+			pages[i].page = p;
+			pages[i].desc = new AssetDescriptor<Texture>(p.textureFile, Texture.class, params);
+		}
+
+		// the regions are sorted by index
+		Array<Tile> t = new Array<Tile>(Tile.class);
+		float x = 0;
+		float h = 0;
+
+		for (Region r : data.getRegions()) {
+			if (!r.name.equals(regionId))
+				continue;
+
+			Tile tile = new Tile();
+			tile.data = r;
+			tile.page = pages[dataPages.indexOf(r.page, true)];
+			tile.x = x;
+			tile.width = r.rotate ? r.height : r.width;
+
+			tile.page.left = Math.min(tile.page.left, x);
+			tile.page.right = Math.max(tile.page.right, x + tile.width);
+
+			if (t.size == 0)
+				h = r.rotate ? r.width : r.height;
+
+			x += tile.width;
+			t.add(tile);
+		}
+
+		if (t.size == 0)
+			EngineLogger.error("Regions for " + regionId + " not found in atlas " + atlas);
+
+		tiles = t.toArray();
+		width = x;
+		height = h;
+	}
+
+	float getWidth() {
+		return width;
+	}
+
+	float getHeight() {
+		return height;
+	}
+
+	/**
+	 * Requests the pages near the visible range to the asset manager. Called when
+	 * the scene assets are loaded.
+	 */
+	void loadAssets(float left, float right, float margin) {
+		for (PageEntry p : pages) {
+			if (p.right >= p.left && p.left < right + margin && p.right > left - margin && !p.requested) {
+				EngineAssetManager.getInstance().load(p.desc);
+				p.requested = true;
+				p.managed = true;
+			}
+		}
+	}
+
+	/**
+	 * Requests the pages near the visible range and unloads the far ones. The
+	 * pages are requested before they are visible, with the margin, to give time
+	 * to load them.
+	 * 
+	 * @param margin distance to the visible range to request a page. The pages
+	 *               are unloaded at twice this distance.
+	 */
+	void update(float left, float right, float margin) {
+		for (int i = 0; i < released.size; i++) {
+			if (released.get(i).isDone())
+				disposeData(released.removeIndex(i--));
+		}
+
+		for (PageEntry p : pages) {
+			if (p.right < p.left)
+				continue;
+
+			if (p.left < right + margin && p.right > left - margin) {
+				request(p);
+			} else if (p.requested && (p.left > right + margin * 2 || p.right < left - margin * 2)) {
+				release(p);
+			}
+
+			poll(p);
+		}
+	}
+
+	/**
+	 * Retrieves the loaded pages. Called when the scene assets are loaded.
+	 */
+	void retrieveAssets() {
+		for (PageEntry p : pages)
+			poll(p);
+	}
+
+	void draw(SpriteBatch batch, float left, float right) {
+		for (Tile t : tiles) {
+			if (t.x + t.width < left || t.x > right)
+				continue;
+
+			// the page was not preloaded in time, it is drawn when loaded
+			if (t.region == null) {
+				request(t.page);
+				continue;
+			}
+
+			batch.draw(t.region, t.x, 0f);
+		}
+	}
+
+	/**
+	 * Requests all the pages.
+	 * 
+	 * @return the regions of all the tiles or null while the pages are loading.
+	 */
+	Array<AtlasRegion> getRegions() {
+		if (allRegions != null)
+			return allRegions;
+
+		Array<AtlasRegion> regions = new Array<AtlasRegion>(tiles.length);
+
+		for (PageEntry p : pages) {
+			request(p);
+			poll(p);
+		}
+
+		for (Tile t : tiles) {
+			if (t.region == null)
+				return null;
+
+			regions.add(t.region);
+		}
+
+		allRegions = regions;
+
+		return regions;
+	}
+
+	void dispose() {
+		for (PageEntry p : pages)
+			release(p);
+
+		for (AsyncResult<TextureData> r : released)
+			disposeData(r);
+
+		released.clear();
+	}
+
+	/**
+	 * Loads the page in background. The pages already loaded by the asset manager
+	 * are shared.
+	 */
+	private void request(PageEntry p) {
+		if (p.requested)
+			return;
+
+		final EngineAssetManager am = EngineAssetManager.getInstance();
+
+		p.requested = true;
+
+		if (am.isLoaded(p.desc.fileName)) {
+			am.load(p.desc);
+			p.managed = true;
+			return;
+		}
+
+		if (pageLoader == null)
+			pageLoader = new AsyncExecutor(1);
+
+		final FileHandle file = p.desc.file;
+		final Page page = p.page;
+
+		EngineLogger.debug("LOADING BACKGROUND PAGE: " + p.desc.fileName);
+
+		p.result = pageLoader.submit(new AsyncTask<TextureData>() {
+			@Override
+			public TextureData call() throws Exception {
+				TextureData data = TextureData.Factory.loadFromFile(file, page.format, page.useMipMaps);
+
+				if (!data.isPrepared())
+					data.prepare();
+
+				return data;
+			}
+		});
+	}
+
+	/**
+	 * Retrieves the page if it has been loaded. Never waits for it.
+	 */
+	private void poll(PageEntry p) {
+		if (!p.requested || p.retrieved)
+			return;
+
+		if (p.result != null) {
+			if (!p.result.isDone())
+				return;
+
+			AsyncResult<TextureData> r = p.result;
+			p.result = null;
+
+			try {
+				p.texture = new Texture(r.get());
+			} catch (GdxRuntimeException e) {
+				EngineLogger.error("Error loading background page: " + p.desc.fileName, e);
+
+				// not requested again
+				p.retrieved = true;
+				return;
+			}
+
+			retrieve(p, p.texture);
+		} else if (p.managed && EngineAssetManager.getInstance().isLoaded(p.desc.fileName)) {
+			retrieve(p, EngineAssetManager.getInstance().get(p.desc));
+		}
+	}
+
+	private void release(PageEntry p) {
+		if (!p.requested)
+			return;
+
+		for (Tile t : tiles) {
+			if (t.page == p)
+				t.region = null;
+		}
+
+		if (p.result != null) {
+			released.add(p.result);
+			p.result = null;
+		} else if (p.texture != null) {
+			p.texture.dispose();
+			p.texture = null;
+		} else if (p.managed) {
+			EngineAssetManager.getInstance().unload(p.desc.fileName);
+		}
+
+		allRegions = null;
+		p.managed = false;
+		p.requested = false;
+		p.retrieved = false;
+	}
+
+	/**
+	 * Waits for the page data to load and disposes it.
+	 */
+	private static void disposeData(AsyncResult<TextureData> r) {
+		try {
+			TextureData data = r.get();
+
+			if (data.getType() == TextureDataType.Pixmap && data.disposePixmap())
+				data.consumePixmap().dispose();
+		} catch (GdxRuntimeException e) {
+			// not loaded
+		}
+	}
+
+	/**
+	 * Creates the regions of the page tiles like the TextureAtlas does.
+	 */
+	private void retrieve(PageEntry p, Texture texture) {
+		texture.setFilter(p.page.minFilter, p.page.magFilter);
+		texture.setWrap(p.page.uWrap, p.page.vWrap);
+
+		for (Tile t : tiles) {
+			if (t.page != p)
+				continue;
+
+			Region r = t.data;
+
+			AtlasRegion region = new AtlasRegion(texture, r.left, r.top, r.rotate ? r.height : r.width,
+					r.rotate ? r.width : r.height);
+			region.index = r.index;
+			region.name = r.name;
+			region.offsetX = r.offsetX;
+			region.offsetY = r.offsetY;
+			region.originalHeight = r.originalHeight;
+			region.originalWidth = r.originalWidth;
+			region.rotate = r.rotate;
+			region.splits = r.splits;
+			region.pads = r.pads;
+
+			if (r.flip)
+				region.flip(false, true);
+
+			t.region = region;
+		}
+
+		p.retrieved = true;
+	}
+}
@@ -51,6 +51,14 @@ public class CharacterActor extends SpriteActor {
 
 	private HashMap<String, Dialog> dialogs;
 
+	// path used when walking without walkzone. Reused to avoid allocations.
+	private final ArrayList<Vector2> directPath = new ArrayList<>(2);
+
+	public CharacterActor() {
+		directPath.add(new Vector2());
+		directPath.add(new Vector2());
+	}
+
 	public Color getTextColor() {
 		return textColor;
 	}
@@ -177,12 +185,17 @@ public class CharacterActor extends SpriteActor {
 	 *            The action callback
 	 */
 	public void goTo(Vector2 pf, ActionCallback cb, boolean ignoreWalkZone) {
-		EngineLogger.debug(MessageFormat.format("GOTO {0},{1}", pf.x, pf.y));
+		if (EngineLogger.debugMode())
+			EngineLogger.debug(MessageFormat.format("GOTO {0},{1}", pf.x, pf.y));
 
-		Vector2 p0 = new Vector2(bbox.getX(), bbox.getY());
+		if (scene != null)
+			scene.getPathRequests().cancel(this);
+
+		float p0x = bbox.getX();
+		float p0y = bbox.getY();
 
 		// stop previous movement
-		if (tweens.size() > 0) {
+		if (hasTweens()) {
 			removeTween(SpritePosTween.class);
 			stand();
 		}
@@ -190,7 +203,7 @@ public class CharacterActor extends SpriteActor {
 		ArrayList<Vector2> walkingPath = null;
 
 		// Doesn't move if dst is less than 2px
-		if (p0.dst(pf) < 2.0f) {
+		if (pf.dst(p0x, p0y) < 2.0f) {
 			setPosition(pf.x, pf.y);
 
 			// call the callback
@@ -204,14 +217,39 @@ public class CharacterActor extends SpriteActor {
 		}
 
 		if (scene.getWalkZone() != null && !ignoreWalkZone) {
-			walkingPath = scene.getPolygonalNavGraph().findPath(p0.x, p0.y, pf.x, pf.y);
+			walkingPath = scene.getPolygonalNavGraph().findPath(p0x, p0y, pf.x, pf.y);
 		} else {
-			walkingPath = new ArrayList<>(2);
-			walkingPath.add(p0);
-			walkingPath.add(new Vector2(pf));
+			walkingPath = directPath;
+			directPath.get(0).set(p0x, p0y);
+			directPath.get(1).set(pf);
+		}
+
+		walk(walkingPath, cb, false);
+	}
+
+	/**
+	 * Like goTo but the path is searched in background by the scene
+	 * PathRequestService. The character starts walking in the next update. Used
+	 * for NPCs that walk around.
+	 * 
+	 * @param avoidance steer to avoid other characters while walking.
+	 */
+	public void requestGoTo(Vector2 pf, ActionCallback cb, boolean avoidance) {
+		if (scene == null) {
+			goTo(pf, cb, false);
+			return;
 		}
 
-		if (walkingPath == null || walkingPath.size() == 0) {
+		scene.getPathRequests().request(this, pf, cb, avoidance);
+	}
+
+	/**
+	 * Walks through the path.
+	 * 
+	 * @param walkingPath the path is copied, it can be reused by the caller.
+	 */
+	public void walk(ArrayList<Vector2> walkingPath, ActionCallback cb, boolean avoidance) {
+		if (walkingPath == null || walkingPath.size() < 2) {
 			// call the callback even when the path is empty
 			if (cb != null) {
 				ActionCallback tmpcb = cb;
@@ -222,9 +260,10 @@ public class CharacterActor extends SpriteActor {
 			return;
 		}
 
-		WalkTween t = new WalkTween();
+		WalkTween t = obtainTween(WalkTween.class);
 
 		t.start(this, walkingPath, walkingSpeed, cb);
+		t.setAvoidance(avoidance);
 		addTween(t);
 	}
 
@@ -235,14 +274,10 @@ public class CharacterActor extends SpriteActor {
 	 * This is used to fast walk between scenes. Used when double clicking.
 	 */
 	public void fastWalk() {
-		for (Tween<SpriteActor> t : tweens) {
-			if (t instanceof WalkTween) {
-				WalkTween wt = (WalkTween) t;
-				wt.completeNow(this);
-				wt = null;
-				break;
-			}
-		}
+		WalkTween wt = getTween(WalkTween.class);
+
+		if (wt != null)
+			wt.completeNow(this);
 	}
 
 	public HashMap<String, Dialog> getDialogs() {
@@ -52,6 +52,11 @@ public class ImageRenderer extends AnimationRenderer {
 	public void update(float delta) {
 	}
 
+	@Override
+	public boolean isAnimating() {
+		return false;
+	}
+
 	@Override
 	public void draw(SpriteBatch batch, float x, float y, float scaleX, float scaleY, float rotation, Color tint) {
 
@@ -16,6 +16,7 @@
 package com.bladecoder.engine.model;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.Json.Serializable;
@@ -27,6 +28,9 @@ import com.bladecoder.engine.util.EngineLogger;
 
 public class Inventory implements AssetConsumer, Serializable  {
 	private ArrayList<SpriteActor> items;
+
+	// id index of the items, the list keeps the inventory order
+	transient private final HashMap<String, SpriteActor> itemsById = new HashMap<>();
 	
 	private boolean visible = true;
 	transient private boolean disposed= true;
@@ -44,35 +48,30 @@ public class Inventory implements AssetConsumer, Serializable  {
 	}
 
 	public SpriteActor get(String actorId) {
-		for (SpriteActor a : items) {
-			if (a.getId().equals(actorId))
-				return a;
-		}
-
-		return null;
+		return itemsById.get(actorId);
 	}
 
 	public void addItem(SpriteActor actor) {		
-		if(!items.contains(actor)) {
+		if(!itemsById.containsKey(actor.getId())) {
 			items.add(actor);
+			itemsById.put(actor.getId(), actor);
 		} else
 			EngineLogger.error("BaseActor already in inventory: " + actor.getId());
 
 	}
 
 	public void removeItem(SpriteActor item) {
-		items.remove(item);
+		if (items.remove(item) && itemsById.get(item.getId()) == item)
+			itemsById.remove(item.getId());
 	}
 	
 	public SpriteActor removeItem(String item) {
-		for (SpriteActor a : items) {
-			if (a.getId().equals(item)){
-				items.remove(a);
-				return a;
-			}
-		}
+		SpriteActor a = itemsById.remove(item);
+		
+		if (a != null)
+			items.remove(a);
 		
-		return null;
+		return a;
 	}
 	
 	public void update(float delta) {
@@ -90,6 +89,7 @@ public class Inventory implements AssetConsumer, Serializable  {
 		}
 		
 		items.clear();
+		itemsById.clear();
 	}	
 
 	public boolean isVisible() {
@@ -149,6 +149,7 @@ public class Inventory implements AssetConsumer, Serializable  {
 		visible = json.readValue("visible", Boolean.class, jsonData);
 		
 		items.clear();
+		itemsById.clear();
 		
 		JsonValue jsonValueActors = jsonData.get("items");
 		SceneActorRef actorRef;
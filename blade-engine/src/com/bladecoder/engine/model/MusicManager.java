@@ -12,6 +12,7 @@ import com.bladecoder.engine.actions.ActionCallback;
 import com.bladecoder.engine.anim.MusicVolumeTween;
 import com.bladecoder.engine.assets.AssetConsumer;
 import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.util.Config;
 import com.bladecoder.engine.util.EngineLogger;
 import com.bladecoder.engine.util.InterpolationMode;
 
@@ -21,6 +22,13 @@ import com.bladecoder.engine.util.InterpolationMode;
  * Plays a music file, if another music is playing, stops it before playing the
  * new music.
  *
+ * When the music changes, the playing music is moved to an outgoing channel
+ * and keeps playing while the new music is loaded in background. When the new
+ * music is ready, the outgoing music fades out and the new music fades in.
+ * The crossfade time is set in milliseconds with the 'music_crossfade'
+ * property (0 disables it) and the fade curve with the 'music_fade_curve'
+ * property.
+ *
  * @author rgarcia
  */
 public class MusicManager implements Serializable, AssetConsumer {
@@ -37,6 +45,26 @@ public class MusicManager implements Serializable, AssetConsumer {
 	// the global configurable by user volume
 	public static float VOLUME_MULTIPLIER = 1f;
 
+	private static final int DEFAULT_CROSSFADE_MS = 1000;
+
+	private static float crossfadeTime = -1;
+	private static InterpolationMode fadeCurve;
+
+	// outgoing channel of the crossfade
+	transient private Music outgoing = null;
+	transient private MusicDesc outgoingDesc = null;
+	transient private MusicVolumeTween outgoingTween = null;
+	transient private boolean outgoingPaused = false;
+	transient private boolean fadeIn = false;
+
+	// true when the music file has been requested to the asset manager
+	transient private boolean assetRequested = false;
+
+	// silence time between the old and the new music
+	transient private boolean measuringGap = false;
+	transient private long silenceTime = 0;
+	transient private float lastGap = 0;
+
 	private final Task backgroundLoadingTask = new Task() {
 		@Override
 		public void run() {
@@ -54,6 +82,21 @@ public class MusicManager implements Serializable, AssetConsumer {
 				music.play();
 				music.setLooping(desc.isLoop());
 				music.setVolume(desc.getVolume() * VOLUME_MULTIPLIER);
+
+				if (measuringGap) {
+					measuringGap = false;
+					lastGap = outgoing != null ? 0 : (System.nanoTime() - silenceTime) / 1000000f;
+					EngineLogger.debug("MUSIC GAP (ms): " + lastGap);
+				}
+
+				if (fadeIn) {
+					fadeIn = false;
+					float v = desc.getVolume();
+
+					volumeTween = new MusicVolumeTween();
+					volumeTween.start(this, 0, v, getCrossfadeTime(), getFadeCurve(), false, null);
+					music.setVolume(0);
+				}
 			} catch (Exception e) {
 
 				// DEAL WITH OPENAL BUG
@@ -70,6 +113,11 @@ public class MusicManager implements Serializable, AssetConsumer {
 	}
 
 	public void pauseMusic() {
+		if (outgoing != null && outgoing.isPlaying()) {
+			outgoing.pause();
+			outgoingPaused = true;
+		}
+
 		if (music != null && music.isPlaying()) {
 			music.pause();
 			isPaused = true;
@@ -77,6 +125,12 @@ public class MusicManager implements Serializable, AssetConsumer {
 	}
 
 	public void resumeMusic() {
+		// only if it was playing when paused, a finished music is not replayed
+		if (outgoing != null && outgoingPaused && !outgoing.isPlaying())
+			outgoing.play();
+
+		outgoingPaused = false;
+
 		if (music != null && isPaused) {
 			music.play();
 			isPaused = false;
@@ -84,10 +138,103 @@ public class MusicManager implements Serializable, AssetConsumer {
 	}
 
 	public void stopMusic() {
+		disposeOutgoing();
+
 		if (music != null)
 			music.stop();
 	}
 
+	/**
+	 * Milliseconds of silence between the previous music and the last music
+	 * started. 0 if they overlapped.
+	 */
+	public float getLastGap() {
+		return lastGap;
+	}
+
+	private static float getCrossfadeTime() {
+		if (crossfadeTime < 0)
+			crossfadeTime = Config.getProperty(Config.MUSIC_CROSSFADE_PROP, DEFAULT_CROSSFADE_MS) / 1000f;
+
+		return crossfadeTime;
+	}
+
+	private static InterpolationMode getFadeCurve() {
+		if (fadeCurve == null) {
+			String curve = Config.getProperty(Config.MUSIC_FADE_CURVE_PROP, InterpolationMode.FADE.name());
+
+			try {
+				fadeCurve = InterpolationMode.valueOf(curve.toUpperCase());
+			} catch (IllegalArgumentException e) {
+				EngineLogger.error("Music fade curve not found: " + curve);
+				fadeCurve = InterpolationMode.FADE;
+			}
+		}
+
+		return fadeCurve;
+	}
+
+	/**
+	 * Moves the current music to the outgoing channel if it can be crossfaded
+	 * with the new music. Else, stops it.
+	 */
+	private void changeMusic(MusicDesc newDesc, boolean fadeToSilence) {
+		volumeTween = null;
+		currentMusicDelay = 0;
+		fadeIn = false;
+
+		// the outgoing music has the same Music instance
+		if (outgoingDesc != null && newDesc != null && newDesc.getFilename().equals(outgoingDesc.getFilename()))
+			disposeOutgoing();
+
+		if (desc == null) {
+			// the outgoing music is still fading out
+			fadeIn = outgoing != null;
+			measuringGap = outgoing != null;
+			return;
+		}
+
+		boolean playing = music != null && music.isPlaying();
+		boolean sameFile = newDesc != null && newDesc.getFilename().equals(desc.getFilename());
+
+		if (playing && !sameFile && getCrossfadeTime() > 0 && (newDesc != null || fadeToSilence)) {
+			disposeOutgoing();
+
+			outgoing = music;
+			outgoingDesc = desc;
+			music = null;
+			desc = null;
+			assetRequested = false;
+			fadeIn = true;
+		} else {
+			stopMusic();
+			disposeMusic();
+			silenceTime = System.nanoTime();
+		}
+
+		measuringGap = playing;
+	}
+
+	public void setOutgoingVolume(float volume) {
+		if (outgoing != null)
+			outgoing.setVolume(volume * VOLUME_MULTIPLIER);
+	}
+
+	private void disposeOutgoing() {
+		if (outgoing != null) {
+			outgoing.stop();
+
+			EngineLogger.debug("DISPOSING OUTGOING MUSIC: " + outgoingDesc.getFilename());
+			EngineAssetManager.getInstance().disposeMusic(outgoingDesc.getFilename());
+
+			outgoing = null;
+			outgoingDesc = null;
+			outgoingTween = null;
+			outgoingPaused = false;
+			silenceTime = System.nanoTime();
+		}
+	}
+
 	public void setMusic(MusicDesc d) {
 		if (desc != null && d != null && d.getFilename() != null && d.getFilename().equals(desc.getFilename())) {
 
@@ -96,22 +243,15 @@ public class MusicManager implements Serializable, AssetConsumer {
 		}
 
 		EngineLogger.debug(">>>SETTING MUSIC.");
-		stopMusic();
-		volumeTween = null;
-		currentMusicDelay = 0;
+		changeMusic(d, false);
 
 		if (d != null) {
-			if (desc != null) {
-				dispose();
-			}
-
 			desc = new MusicDesc(d);
 
 			// Load the music file in background to avoid
 			// blocking the UI
 			loadTask();
 		} else {
-			dispose();
 			desc = null;
 		}
 	}
@@ -128,7 +268,7 @@ public class MusicManager implements Serializable, AssetConsumer {
 			desc.setVolume(volume);
 
 		if (music != null && music.isPlaying())
-			music.setVolume(volume);
+			music.setVolume(volume * VOLUME_MULTIPLIER);
 	}
 
 	public float getVolume() {
@@ -144,11 +284,7 @@ public class MusicManager implements Serializable, AssetConsumer {
 				&& (newMusicDesc == null || newMusicDesc.getFilename().equals(desc.getFilename())))
 			return;
 
-		if (desc != null) {
-			currentMusicDelay = 0f;
-			stopMusic();
-			dispose();
-		}
+		changeMusic(newMusicDesc, true);
 
 		if (newMusicDesc != null) {
 			desc = new MusicDesc(newMusicDesc);
@@ -157,7 +293,37 @@ public class MusicManager implements Serializable, AssetConsumer {
 		}
 	}
 
+	/**
+	 * @return true if there is no fade or delay running. The delays are counted
+	 *         in update() so a stopped or not looping music is not idle.
+	 */
+	public boolean isIdle() {
+		if (outgoing != null || volumeTween != null)
+			return false;
+
+		if (music == null)
+			return desc == null;
+
+		return music.isPlaying() && desc.isLoop();
+	}
+
 	public void update(float delta) {
+		// crossfade update
+		if (outgoing != null) {
+			// starts to fade out when the new music is ready
+			if (outgoingTween == null && (music != null || desc == null)) {
+				outgoingTween = new MusicVolumeTween();
+				outgoingTween.start(this, outgoingDesc.getVolume(), 0, getCrossfadeTime(), getFadeCurve(), true, null);
+			}
+
+			if (outgoingTween != null) {
+				outgoingTween.update(delta);
+
+				if (outgoingTween != null && outgoingTween.isComplete())
+					disposeOutgoing();
+			}
+		}
+
 		// music delay update
 		if (music != null) {
 			if (!music.isPlaying()) {
@@ -193,20 +359,27 @@ public class MusicManager implements Serializable, AssetConsumer {
 
 	@Override
 	public void dispose() {
-		if (music != null) {
+		disposeOutgoing();
+		disposeMusic();
+	}
+
+	private void disposeMusic() {
+		if (music != null || assetRequested) {
 			EngineLogger.debug("DISPOSING MUSIC: " + desc.getFilename());
 			EngineAssetManager.getInstance().disposeMusic(desc.getFilename());
 			music = null;
 			desc = null;
 			volumeTween = null;
+			assetRequested = false;
 		}
 	}
 
 	@Override
 	public void loadAssets() {
-		if (music == null && desc != null) {
+		if (music == null && desc != null && !assetRequested) {
 			EngineLogger.debug("LOADING MUSIC: " + desc.getFilename());
 			EngineAssetManager.getInstance().loadMusic(desc.getFilename());
+			assetRequested = true;
 		}
 	}
 
@@ -15,25 +15,69 @@
  ******************************************************************************/
 package com.bladecoder.engine.model;
 
+import java.util.HashMap;
+
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool.PooledEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEmitter;
+import com.badlogic.gdx.graphics.g2d.ParticleEmitter.ScaledNumericValue;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.collision.BoundingBox;
 import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
 import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.serialization.BladeJson;
 import com.bladecoder.engine.serialization.BladeJson.Mode;
+import com.bladecoder.engine.util.Config;
 import com.bladecoder.engine.util.RectangleRenderer;
 
+/**
+ * Renders a particle effect.
+ * 
+ * The effects are obtained from a pool shared by all the actors using the same
+ * effect file. The number of particles in the game is limited by a budget:
+ * when it is exceeded, the emission of all the effects is scaled down. The
+ * simulation is paused while the effect is off-camera.
+ * 
+ * @author rgarcia
+ */
 public class ParticleRenderer implements ActorRenderer {
 
 	private final static float DEFAULT_DIM = 100;
 
-	private final ParticleEffect effect = new ParticleEffect();
+	private final static int DEFAULT_PARTICLE_BUDGET = 2000;
+	private final static float MIN_EMISSION_SCALE = 0.1f;
+	private final static float EMISSION_RECOVER_STEP = 0.05f;
+
+	// the effect bounds used for culling are updated at this interval
+	private final static float CULL_CHECK_INTERVAL = 0.25f;
+	private final static float WARMUP_STEP = 0.1f;
+
+	private final static HashMap<String, PoolEntry> pools = new HashMap<String, PoolEntry>();
+
+	private static int particleBudget = -1;
+	private static long budgetFrameId = -1;
+	private static int frameParticles = 0;
+	private static float emissionScale = 1;
+
+	private PooledEffect effect;
+	private PoolEntry poolEntry;
+	private float appliedEmissionScale = 1;
+
+	private boolean culled = false;
+	private float pausedTime = 0;
+	private float cullCheckTime = 0;
+	private final Rectangle effectBounds = new Rectangle();
+	private boolean effectBoundsValid = false;
 
 	private float lastAnimationTime = 0;
 
@@ -56,7 +100,10 @@ public class ParticleRenderer implements ActorRenderer {
 
 	public void reset() {
 		tmpPosX = tmpPosY = 0;
-		effect.reset();
+		pausedTime = 0;
+
+		if (effect != null)
+			effect.reset();
 	}
 
 	@Override
@@ -71,6 +118,23 @@ public class ParticleRenderer implements ActorRenderer {
 
 	@Override
 	public void update(float delta) {
+		lastAnimationTime += delta;
+
+		if (effect == null)
+			return;
+
+		cullCheckTime -= delta;
+
+		if (culled) {
+			pausedTime += delta;
+			return;
+		}
+
+		updateBudget();
+
+		if (appliedEmissionScale != emissionScale)
+			scaleEmission(emissionScale);
+
 		try {
 			effect.update(delta);
 		} catch (Exception e) {
@@ -78,24 +142,148 @@ public class ParticleRenderer implements ActorRenderer {
 		}
 	}
 
+	/**
+	 * Calculates the emission scale from the particles drawn in the last frame.
+	 * The update can be called several times per frame with the fixed timestep,
+	 * the particles are counted when drawn.
+	 */
+	private static void updateBudget() {
+		long frameId = Gdx.graphics.getFrameId();
+
+		if (frameId == budgetFrameId)
+			return;
+
+		if (particleBudget == -1)
+			particleBudget = Config.getProperty(Config.PARTICLE_BUDGET_PROP, DEFAULT_PARTICLE_BUDGET);
+
+		if (particleBudget > 0 && budgetFrameId != -1) {
+			if (frameParticles > particleBudget) {
+				emissionScale = Math.max(MIN_EMISSION_SCALE, emissionScale * particleBudget / frameParticles);
+			} else if (emissionScale < 1 && frameParticles < particleBudget * 0.9f) {
+				emissionScale = Math.min(1, emissionScale + EMISSION_RECOVER_STEP);
+			}
+		}
+
+		budgetFrameId = frameId;
+		frameParticles = 0;
+	}
+
+	private void scaleEmission(float scale) {
+		Array<ParticleEmitter> emitters = effect.getEmitters();
+		Array<ParticleEmitter> templates = poolEntry.template.getEmitters();
+
+		for (int i = 0; i < emitters.size; i++) {
+			ScaledNumericValue e = emitters.get(i).getEmission();
+			ScaledNumericValue t = templates.get(i).getEmission();
+
+			e.setHigh(t.getHighMin() * scale, t.getHighMax() * scale);
+			e.setLow(t.getLowMin() * scale, t.getLowMax() * scale);
+		}
+
+		appliedEmissionScale = scale;
+	}
+
+	/**
+	 * Replays the time that the effect was paused. Continuous effects only
+	 * replay the life of the particles, in coarse steps.
+	 */
+	private void warmUp(float time) {
+		Array<ParticleEmitter> emitters = effect.getEmitters();
+		boolean continuous = true;
+		float maxLife = 0;
+
+		for (int i = 0; i < emitters.size; i++) {
+			ParticleEmitter e = emitters.get(i);
+
+			continuous &= e.isContinuous();
+			maxLife = Math.max(maxLife, (e.getLife().getHighMax() + e.getLifeOffset().getHighMax()) / 1000f);
+		}
+
+		if (continuous)
+			time = Math.min(time, maxLife);
+
+		try {
+			while (time > 0 && !effect.isComplete()) {
+				float step = Math.min(time, WARMUP_STEP);
+				effect.update(step);
+				time -= step;
+			}
+		} catch (Exception e) {
+			// avoid crashing if atlas is not found
+		}
+
+		cullCheckTime = 0;
+	}
+
+	private boolean isCulled(SpriteBatch batch, float scaleX, float scaleY) {
+		if (cullCheckTime <= 0) {
+			BoundingBox bb = effect.getBoundingBox();
+
+			effectBoundsValid = bb.isValid();
+
+			if (effectBoundsValid)
+				effectBounds.set(bb.min.x, bb.min.y, bb.getWidth(), bb.getHeight());
+
+			cullCheckTime = CULL_CHECK_INTERVAL;
+		}
+
+		// no particles, the effect can emit in any moment
+		if (!effectBoundsValid)
+			return false;
+
+		float[] m = batch.getProjectionMatrix().val;
+		float left = (-1 - m[Matrix4.M03]) / m[Matrix4.M00];
+		float right = (1 - m[Matrix4.M03]) / m[Matrix4.M00];
+		float bottom = (-1 - m[Matrix4.M13]) / m[Matrix4.M11];
+		float top = (1 - m[Matrix4.M13]) / m[Matrix4.M11];
+
+		float x0 = effectBounds.x * scaleX;
+		float x1 = (effectBounds.x + effectBounds.width) * scaleX;
+		float y0 = effectBounds.y * scaleY;
+		float y1 = (effectBounds.y + effectBounds.height) * scaleY;
+
+		return Math.max(x0, x1) < Math.min(left, right) || Math.min(x0, x1) > Math.max(left, right)
+				|| Math.max(y0, y1) < Math.min(bottom, top) || Math.min(y0, y1) > Math.max(bottom, top);
+	}
+
 	@Override
 	public void draw(SpriteBatch batch, float x, float y, float scaleX, float scaleY, float rotation, Color tint) {
 
 		float finalScaleX = EngineAssetManager.getInstance().getScale() * scaleX;
 		float finalScaleY = EngineAssetManager.getInstance().getScale() * scaleY;
 
-		if (effect.getEmitters().size > 0) {
-
-			Matrix4 tm = batch.getTransformMatrix();
-			tmp.set(tm);
+		if (effect != null && effect.getEmitters().size > 0) {
 
+			// the position is set before culling, a moved effect can be visible
 			if (tmpPosX != x / finalScaleX || tmpPosY != y / finalScaleY) {
 				tmpPosX = x / finalScaleX;
 				tmpPosY = y / finalScaleY;
 
 				effect.setPosition(tmpPosX, tmpPosY);
+				cullCheckTime = 0;
 			}
 
+			// only culls not rotated effects
+			culled = rotation == 0 && isCulled(batch, finalScaleX, finalScaleY);
+
+			if (culled)
+				return;
+
+			if (pausedTime > 0) {
+				warmUp(pausedTime);
+				pausedTime = 0;
+			}
+
+			updateBudget();
+
+			Array<ParticleEmitter> emitters = effect.getEmitters();
+
+			for (int i = 0; i < emitters.size; i++)
+				frameParticles += emitters.get(i).getActiveCount();
+
+			Matrix4 tm = batch.getTransformMatrix();
+			tmp.set(tm);
+
 			tm.rotate(0, 0, 1, rotation).scale(finalScaleX, finalScaleY, 1);
 
 			batch.setTransformMatrix(tm);
@@ -184,17 +372,68 @@ public class ParticleRenderer implements ActorRenderer {
 
 		atlasTex = EngineAssetManager.getInstance().getTextureAtlas(getAtlasName());
 
-		effect.load(EngineAssetManager.getInstance().getParticle(getParticleName()), atlasTex);
+		freeEffect();
+
+		String key = atlasName + "/" + particleName;
+		poolEntry = pools.get(key);
+
+		// the atlas was reloaded, the sprites of the pooled effects are not valid
+		if (poolEntry != null && poolEntry.atlas != atlasTex) {
+			poolEntry.pool.clear();
+			poolEntry = null;
+		}
+
+		if (poolEntry == null) {
+			poolEntry = new PoolEntry();
+			poolEntry.key = key;
+			poolEntry.atlas = atlasTex;
+			poolEntry.template = new ParticleEffect();
+			poolEntry.template.load(EngineAssetManager.getInstance().getParticle(getParticleName()), atlasTex);
+			poolEntry.pool = new ParticleEffectPool(poolEntry.template, 1, Integer.MAX_VALUE);
+			pools.put(key, poolEntry);
+		}
+
+		poolEntry.refCounter++;
+
+		effect = poolEntry.pool.obtain();
 		effect.start();
+		appliedEmissionScale = 1;
+
 		// reset tmp to force repositioning
 		tmpPosX = Float.MAX_VALUE;
-		effect.update(lastAnimationTime);
+		culled = false;
+		pausedTime = 0;
+		warmUp(lastAnimationTime);
 
 		computeBbox();
 	}
 
+	private void freeEffect() {
+		if (effect == null)
+			return;
+
+		// the pooled effects are shared, restore the emission before freeing it
+		if (appliedEmissionScale != 1)
+			scaleEmission(1);
+
+		effect.free();
+		effect = null;
+
+		poolEntry.refCounter--;
+
+		if (poolEntry.refCounter <= 0) {
+			poolEntry.pool.clear();
+
+			if (pools.get(poolEntry.key) == poolEntry)
+				pools.remove(poolEntry.key);
+		}
+
+		poolEntry = null;
+	}
+
 	@Override
 	public void dispose() {
+		freeEffect();
 		EngineAssetManager.getInstance().disposeAtlas(getAtlasName());
 	}
 
@@ -222,4 +461,12 @@ public class ParticleRenderer implements ActorRenderer {
 			lastAnimationTime = json.readValue("lastAnimationTime", Float.class, jsonData);
 		}
 	}
-}
\ No newline at end of file
+
+	private static class PoolEntry {
+		String key;
+		ParticleEffect template;
+		ParticleEffectPool pool;
+		TextureAtlas atlas;
+		int refCounter;
+	}
+}
@@ -0,0 +1,367 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A model property path parsed into a chain of accessors. Used by
+ * World.setModelProp() and World.getModelProp().
+ * 
+ * The path has the same syntax that the ObjectWrapper, ex:
+ * 'scenes[lobby].actors[door].visible'. Every step is a bean property or a
+ * key of a map or list. The getters and setters are resolved by the runtime
+ * class of the target and cached.
+ * 
+ * When the path only goes through maps, like the scenes and the actors maps,
+ * the target object is also cached until the world model version changes.
+ * 
+ * @author rgarcia
+ */
+class PropertyPath {
+	private final Step[] steps;
+	private final boolean cacheTarget;
+
+	private Object cachedTarget;
+	private int cachedVersion;
+
+	private PropertyPath(Step[] steps) {
+		this.steps = steps;
+
+		// only the steps through maps can be cached, the map contents changes are
+		// tracked by the model version.
+		boolean cacheable = true;
+
+		for (int i = 0; i < steps.length - 1; i++) {
+			if (steps[i] instanceof PropertyStep && (i + 1 >= steps.length - 1 || !(steps[i + 1] instanceof KeyStep)))
+				cacheable = false;
+		}
+
+		cacheTarget = cacheable;
+	}
+
+	/**
+	 * @return the compiled path or null if the syntax is not supported.
+	 */
+	static PropertyPath compile(String path) {
+		ArrayList<Step> steps = new ArrayList<Step>();
+		int i = 0;
+		int len = path.length();
+
+		while (i < len) {
+			char c = path.charAt(i);
+
+			if (c == '[') {
+				int end = path.indexOf(']', i);
+
+				if (end == -1)
+					return null;
+
+				String key = path.substring(i + 1, end).trim();
+
+				if (key.length() >= 2 && (key.charAt(0) == '\'' || key.charAt(0) == '"')
+						&& key.charAt(key.length() - 1) == key.charAt(0))
+					key = key.substring(1, key.length() - 1);
+
+				steps.add(new KeyStep(key));
+				i = end + 1;
+			} else if (c == '.') {
+				if (steps.isEmpty())
+					return null;
+
+				i++;
+			} else {
+				int end = i;
+
+				while (end < len && path.charAt(end) != '.' && path.charAt(end) != '[')
+					end++;
+
+				String name = path.substring(i, end).trim();
+
+				if (name.isEmpty() || name.indexOf(']') != -1)
+					return null;
+
+				steps.add(new PropertyStep(name));
+				i = end;
+			}
+		}
+
+		if (steps.isEmpty())
+			return null;
+
+		// the scenes are resolved by the world, they can be not loaded yet
+		if (steps.size() >= 2 && steps.get(0) instanceof PropertyStep
+				&& ((PropertyStep) steps.get(0)).name.equals("scenes") && steps.get(1) instanceof KeyStep) {
+			steps.set(1, new SceneStep(((KeyStep) steps.get(1)).key));
+			steps.remove(0);
+		}
+
+		return new PropertyPath(steps.toArray(new Step[steps.size()]));
+	}
+
+	Object getValue(World w) {
+		return steps[steps.length - 1].get(getTarget(w));
+	}
+
+	/**
+	 * @return false if the value can not be converted to the property type.
+	 */
+	boolean setValue(World w, String value) {
+		return steps[steps.length - 1].set(getTarget(w), value);
+	}
+
+	private Object getTarget(World w) {
+		if (cacheTarget && cachedTarget != null && cachedVersion == w.getModelVersion())
+			return cachedTarget;
+
+		Object o = w;
+
+		for (int i = 0; i < steps.length - 1; i++) {
+			o = steps[i].get(o);
+
+			if (o == null)
+				throw new IllegalArgumentException("Null value in model property path: " + steps[i]);
+		}
+
+		if (cacheTarget) {
+			cachedTarget = o;
+			cachedVersion = w.getModelVersion();
+		}
+
+		return o;
+	}
+
+	private static Object convert(String value, Class<?> type) {
+		if (value == null || type == String.class || type == Object.class)
+			return value;
+
+		if (type == boolean.class || type == Boolean.class)
+			return Boolean.parseBoolean(value);
+
+		if (type == int.class || type == Integer.class)
+			return Integer.parseInt(value);
+
+		if (type == float.class || type == Float.class)
+			return Float.parseFloat(value);
+
+		if (type == double.class || type == Double.class)
+			return Double.parseDouble(value);
+
+		if (type == long.class || type == Long.class)
+			return Long.parseLong(value);
+
+		if (type == short.class || type == Short.class)
+			return Short.parseShort(value);
+
+		if (type == byte.class || type == Byte.class)
+			return Byte.parseByte(value);
+
+		if (type.isEnum()) {
+			for (Object e : type.getEnumConstants()) {
+				if (((Enum<?>) e).name().equals(value))
+					return e;
+			}
+
+			throw new IllegalArgumentException("Enum value not found: " + value + " in " + type.getSimpleName());
+		}
+
+		return null;
+	}
+
+	private static abstract class Step {
+		abstract Object get(Object target);
+
+		abstract boolean set(Object target, String value);
+	}
+
+	private static class PropertyStep extends Step {
+		final String name;
+
+		// accessors for the last target class
+		Class<?> targetClass;
+		Method getter;
+		Method setter;
+		Field field;
+
+		PropertyStep(String name) {
+			this.name = name;
+		}
+
+		private void resolve(Class<?> c) {
+			if (c == targetClass)
+				return;
+
+			String cap = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+
+			getter = null;
+			setter = null;
+			field = null;
+
+			for (Method m : c.getMethods()) {
+				if (Modifier.isStatic(m.getModifiers()))
+					continue;
+
+				String n = m.getName();
+
+				if (m.getParameterTypes().length == 0 && m.getReturnType() != void.class
+						&& (n.equals("get" + cap) || (n.equals("is" + cap) && getter == null)))
+					getter = m;
+				else if (m.getParameterTypes().length == 1 && n.equals("set" + cap) && setter == null)
+					setter = m;
+			}
+
+			try {
+				Field f = c.getField(name);
+
+				if (!Modifier.isStatic(f.getModifiers()))
+					field = f;
+			} catch (NoSuchFieldException e) {
+			}
+
+			targetClass = c;
+		}
+
+		@Override
+		Object get(Object target) {
+			resolve(target.getClass());
+
+			try {
+				if (getter != null)
+					return getter.invoke(target);
+
+				if (field != null)
+					return field.get(target);
+			} catch (IllegalAccessException e) {
+				throw new IllegalArgumentException("Error getting model property: " + name, e);
+			} catch (InvocationTargetException e) {
+				throw new IllegalArgumentException("Error getting model property: " + name, e.getCause());
+			}
+
+			throw new IllegalArgumentException(
+					"Model property not found: " + name + " in " + target.getClass().getSimpleName());
+		}
+
+		@Override
+		boolean set(Object target, String value) {
+			resolve(target.getClass());
+
+			try {
+				if (setter != null) {
+					Object v = convert(value, setter.getParameterTypes()[0]);
+
+					if (v == null && value != null)
+						return false;
+
+					setter.invoke(target, v);
+					return true;
+				}
+
+				if (field != null && !Modifier.isFinal(field.getModifiers())) {
+					Object v = convert(value, field.getType());
+
+					if (v == null && value != null)
+						return false;
+
+					field.set(target, v);
+					return true;
+				}
+			} catch (IllegalAccessException e) {
+				throw new IllegalArgumentException("Error setting model property: " + name, e);
+			} catch (InvocationTargetException e) {
+				throw new IllegalArgumentException("Error setting model property: " + name, e.getCause());
+			}
+
+			throw new IllegalArgumentException(
+					"Model property not found: " + name + " in " + target.getClass().getSimpleName());
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	/**
+	 * 'scenes[id]' from the world. The scene is loaded from the chapter if needed.
+	 */
+	private static class SceneStep extends Step {
+		final String id;
+
+		SceneStep(String id) {
+			this.id = id;
+		}
+
+		@Override
+		Object get(Object target) {
+			return ((World) target).getScene(id);
+		}
+
+		@Override
+		boolean set(Object target, String value) {
+			return false;
+		}
+
+		@Override
+		public String toString() {
+			return "scenes[" + id + "]";
+		}
+	}
+
+	private static class KeyStep extends Step {
+		final String key;
+
+		KeyStep(String key) {
+			this.key = key;
+		}
+
+		@Override
+		Object get(Object target) {
+			if (target instanceof Map)
+				return ((Map<?, ?>) target).get(key);
+
+			if (target instanceof List)
+				return ((List<?>) target).get(Integer.parseInt(key));
+
+			if (target.getClass().isArray())
+				return java.lang.reflect.Array.get(target, Integer.parseInt(key));
+
+			throw new IllegalArgumentException("Not a map or list: [" + key + "]");
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		boolean set(Object target, String value) {
+			// only maps of strings, like the world custom properties
+			if (target instanceof Map) {
+				((Map<String, String>) target).put(key, value);
+				return true;
+			}
+
+			return false;
+		}
+
+		@Override
+		public String toString() {
+			return "[" + key + "]";
+		}
+	}
+}
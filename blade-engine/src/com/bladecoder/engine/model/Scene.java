@@ -38,6 +38,7 @@ import com.bladecoder.engine.anim.Timers;
 import com.bladecoder.engine.assets.AssetConsumer;
 import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.polygonalpathfinder.NavNodePolygonal;
+import com.bladecoder.engine.polygonalpathfinder.PathRequestService;
 import com.bladecoder.engine.polygonalpathfinder.PolygonalNavGraph;
 import com.bladecoder.engine.serialization.BladeJson;
 import com.bladecoder.engine.serialization.BladeJson.Mode;
@@ -67,12 +68,17 @@ public class Scene implements Serializable, AssetConsumer {
 
 	private SceneCamera camera = new SceneCamera();
 
-	private Array<AtlasRegion> background;
+	// camera position at the start of the last fixed step, to interpolate it
+	transient private float prevCameraX, prevCameraY;
+	transient private int prevCameraStep = -1;
+
+	transient private BackgroundTiles background;
 	private String backgroundAtlas;
 	private String backgroundRegionId;
 
 	/** For polygonal PathFinding */
 	private final PolygonalNavGraph polygonalNavGraph = new PolygonalNavGraph();
+	private final PathRequestService pathRequests = new PathRequestService(this);
 
 	/**
 	 * depth vector. X: the actor 'y' position for a 0.0 scale, Y: the actor 'y'
@@ -108,6 +114,9 @@ public class Scene implements Serializable, AssetConsumer {
 	/** The current walkzone actor */
 	private String walkZone;
 
+	/** Search the paths in a nav mesh instead of the visibility graph */
+	private boolean navMesh = false;
+
 	public Scene(World w) {
 		this.w = w;
 
@@ -205,6 +214,10 @@ public class Scene implements Serializable, AssetConsumer {
 	}
 
 	public void update(float delta) {
+		prevCameraX = camera.position.x;
+		prevCameraY = camera.position.y;
+		prevCameraStep = w.getStepCount();
+
 		camera.update(delta);
 
 		if (followActor != null) {
@@ -213,6 +226,8 @@ public class Scene implements Serializable, AssetConsumer {
 
 		timers.update(delta);
 		textManager.update(delta);
+		soundManager.update(delta);
+		pathRequests.update();
 
 		for (BaseActor a : actors.values()) {
 			// stops if scene has changed, ex. a Leave has been done in some actor update.
@@ -228,20 +243,43 @@ public class Scene implements Serializable, AssetConsumer {
 			layer.update();
 	}
 
+	/**
+	 * @return true if nothing changes when the scene is updated.
+	 */
+	public boolean isIdle() {
+		if (camera.isAnimating() || !timers.isEmpty() || !textManager.isIdle() || !pathRequests.isIdle()
+				|| !soundManager.isIdle() || !textManager.getVoiceManager().isIdle())
+			return false;
+
+		for (BaseActor a : actors.values()) {
+			if (a instanceof SpriteActor && !((SpriteActor) a).isIdle())
+				return false;
+		}
+
+		return true;
+	}
+
 	public void draw(SpriteBatch batch) {
+		float alpha = w.getStepAlpha();
+		boolean interpolate = alpha < 1 && prevCameraStep == w.getStepCount();
+		float cameraX = camera.position.x;
+		float cameraY = camera.position.y;
+
+		if (interpolate) {
+			camera.position.x = prevCameraX + (cameraX - prevCameraX) * alpha;
+			camera.position.y = prevCameraY + (cameraY - prevCameraY) * alpha;
+		}
 
 		if (background != null) {
+			float viewWidth = camera.viewportWidth * camera.zoom;
+			float left = camera.position.x - viewWidth / 2;
+
+			background.update(left, left + viewWidth, viewWidth);
+
 			batch.disableBlending();
 			batch.setProjectionMatrix(camera.calculateParallaxMatrix(1, 1));
 			batch.begin();
-
-			float x = 0;
-
-			for (AtlasRegion tile : background) {
-				batch.draw(tile, x, 0f);
-				x += tile.getRegionWidth();
-			}
-
+			background.draw(batch, left, left + viewWidth);
 			batch.end();
 			batch.enableBlending();
 		}
@@ -255,6 +293,12 @@ public class Scene implements Serializable, AssetConsumer {
 			layer.draw(batch);
 			batch.end();
 		}
+
+		if (interpolate) {
+			camera.position.x = cameraX;
+			camera.position.y = cameraY;
+			camera.update();
+		}
 	}
 
 	public void drawBBoxLines(ShapeRenderer renderer) {
@@ -288,12 +332,21 @@ public class Scene implements Serializable, AssetConsumer {
 			renderer.setColor(WALKZONE_COLOR);
 			renderer.polygon(polygonalNavGraph.getWalkZone().getTransformedVertices());
 
-			// DRAW LINEs OF SIGHT
 			renderer.setColor(Color.WHITE);
-			ArrayList<NavNodePolygonal> nodes = polygonalNavGraph.getGraphNodes();
-			for (NavNodePolygonal n : nodes) {
-				for (NavNodePolygonal n2 : n.neighbors) {
-					renderer.line(n.x, n.y, n2.x, n2.y);
+
+			if (polygonalNavGraph.isNavMeshMode()) {
+				// DRAW NAV MESH TRIANGLES
+				float t[] = polygonalNavGraph.getNavMesh().getTriangles();
+
+				for (int i = 0; i < t.length; i += 6)
+					renderer.triangle(t[i], t[i + 1], t[i + 2], t[i + 3], t[i + 4], t[i + 5]);
+			} else {
+				// DRAW LINEs OF SIGHT
+				ArrayList<NavNodePolygonal> nodes = polygonalNavGraph.getGraphNodes();
+				for (NavNodePolygonal n : nodes) {
+					for (NavNodePolygonal n2 : n.neighbors) {
+						renderer.line(n.x, n.y, n2.x, n2.y);
+					}
 				}
 			}
 		}
@@ -325,6 +378,7 @@ public class Scene implements Serializable, AssetConsumer {
 
 	public void addActor(BaseActor actor) {
 		BaseActor prev = actors.put(actor.getId(), actor);
+		w.modelChanged();
 
 		if (prev != null) {
 			EngineLogger.error("Actor '" + actor.getId() + "' already exists in scene '" + id + "'.");
@@ -504,6 +558,14 @@ public class Scene implements Serializable, AssetConsumer {
 		this.walkZone = walkZone;
 	}
 
+	public boolean isNavMesh() {
+		return navMesh;
+	}
+
+	public void setNavMesh(boolean navMesh) {
+		this.navMesh = navMesh;
+	}
+
 	public Vector2 getDepthVector() {
 		return depthVector;
 	}
@@ -541,6 +603,8 @@ public class Scene implements Serializable, AssetConsumer {
 			return;
 		}
 
+		w.modelChanged();
+
 		if (a instanceof InteractiveActor) {
 			InteractiveActor ia = (InteractiveActor) a;
 			SceneLayer layer = getLayer(ia.getLayer());
@@ -554,8 +618,14 @@ public class Scene implements Serializable, AssetConsumer {
 
 	}
 
+	/**
+	 * Requests all the background pages, they are only unloaded when the scene
+	 * is disposed. The scene loads the pages near the camera when drawing.
+	 * 
+	 * @return the background tiles or null while the pages are loading.
+	 */
 	public Array<AtlasRegion> getBackground() {
-		return background;
+		return background == null ? null : background.getRegions();
 	}
 
 	public SceneCamera getCamera() {
@@ -586,6 +656,7 @@ public class Scene implements Serializable, AssetConsumer {
 
 	public void calcWalkzone() {
 		if (walkZone != null) {
+			polygonalNavGraph.setNavMeshMode(navMesh);
 			polygonalNavGraph.createInitialGraph(actors.get(walkZone), actors.values());
 		}
 	}
@@ -596,8 +667,18 @@ public class Scene implements Serializable, AssetConsumer {
 		soundManager.loadAssets();
 		textManager.getVoiceManager().loadAssets();
 
+		if (background != null) {
+			background.dispose();
+			background = null;
+		}
+
 		if (backgroundAtlas != null && !backgroundAtlas.isEmpty()) {
-			EngineAssetManager.getInstance().loadAtlas(backgroundAtlas);
+			background = new BackgroundTiles(backgroundAtlas, backgroundRegionId);
+
+			float viewWidth = camera.viewportWidth * camera.zoom;
+			float left = camera.position.x - viewWidth / 2;
+
+			background.loadAssets(left, left + viewWidth, viewWidth);
 		}
 
 		for (BaseActor a : actors.values()) {
@@ -613,21 +694,13 @@ public class Scene implements Serializable, AssetConsumer {
 	public void retrieveAssets() {
 
 		// RETRIEVE BACKGROUND
-		if (backgroundAtlas != null && !backgroundAtlas.isEmpty()) {
-			background = EngineAssetManager.getInstance().getRegions(backgroundAtlas, backgroundRegionId);
-
-			int width = 0;
-
-			for (int i = 0; i < background.size; i++) {
-				width += background.get(i).getRegionWidth();
-			}
-
-			int height = background.get(0).getRegionHeight();
+		if (background != null) {
+			background.retrieveAssets();
 
 			// Sets the scrolling dimensions. It must be done here because
 			// the background must be loaded to calculate the bbox
 			if (sceneSize == null)
-				camera.setScrollingDimensions(width, height);
+				camera.setScrollingDimensions(background.getWidth(), background.getHeight());
 
 			// if(followActor != null)
 			// camera.updatePos(followActor);
@@ -654,8 +727,9 @@ public class Scene implements Serializable, AssetConsumer {
 	@Override
 	public void dispose() {
 
-		if (backgroundAtlas != null && !backgroundAtlas.isEmpty()) {
-			EngineAssetManager.getInstance().disposeAtlas(backgroundAtlas);
+		if (background != null) {
+			background.dispose();
+			background = null;
 		}
 
 		// orderedActors.clear();
@@ -667,6 +741,7 @@ public class Scene implements Serializable, AssetConsumer {
 
 		soundManager.dispose();
 		getTextManager().getVoiceManager().dispose();
+		pathRequests.dispose();
 	}
 
 	public Vector2 getSceneSize() {
@@ -687,6 +762,10 @@ public class Scene implements Serializable, AssetConsumer {
 		return polygonalNavGraph;
 	}
 
+	public PathRequestService getPathRequests() {
+		return pathRequests;
+	}
+
 	@Override
 	public void write(Json json) {
 		BladeJson bjson = (BladeJson) json;
@@ -710,6 +789,9 @@ public class Scene implements Serializable, AssetConsumer {
 			if (sceneSize != null)
 				json.writeValue("sceneSize", sceneSize);
 
+			if (navMesh)
+				json.writeValue("navMesh", navMesh);
+
 		} else {
 			SceneActorRef actorRef;
 
@@ -800,6 +882,8 @@ public class Scene implements Serializable, AssetConsumer {
 
 			sceneSize = json.readValue("sceneSize", Vector2.class, jsonData);
 
+			navMesh = json.readValue("navMesh", boolean.class, false, jsonData);
+
 		} else {
 			JsonValue jsonValueActors = jsonData.get("actors");
 			SceneActorRef actorRef;
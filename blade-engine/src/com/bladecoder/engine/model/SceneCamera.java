@@ -97,6 +97,10 @@ public class SceneCamera extends OrthographicCamera implements Serializable  {
 		}
 	}	
 
+	public boolean isAnimating() {
+		return cameraTween != null;
+	}
+
 	public void setPosition(float x, float y) {
 
 		float maxleft = viewportWidth / 2 * zoom;
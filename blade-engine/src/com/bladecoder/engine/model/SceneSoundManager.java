@@ -1,25 +1,54 @@
 package com.bladecoder.engine.model;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map.Entry;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.Json.Serializable;
 import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
 import com.bladecoder.engine.assets.AssetConsumer;
 import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.util.Config;
 import com.bladecoder.engine.util.EngineLogger;
 
 /**
  * Manages scene sounds.
  * 
+ * The sounds not loaded with the scene are loaded in background when played.
+ * The sound is played when loaded or skipped if it takes more than
+ * PLAY_TIMEOUT seconds. Looping sounds are never skipped.
+ * 
+ * The background sounds are loaded in its own thread and not in the asset
+ * manager queue, so the scene, music and voices loading never wait for them.
+ * 
  * @author rgarcia
  */
 public class SceneSoundManager implements Serializable, AssetConsumer {
 
+	/** Max. time in seconds to wait for a not loaded sound before skipping it */
+	public static final float PLAY_TIMEOUT = 0.5f;
+
 	private HashMap<String, LoadedSound> loadedSounds = new HashMap<String, LoadedSound>(0);
 	private final World w;
+
+	// Sounds used in the scene that are not preloaded. They are loaded in
+	// background after the scene is loaded.
+	private final ArrayList<SoundDesc> prefetchSounds = new ArrayList<SoundDesc>(0);
+
+	// number of sounds loading in background
+	private int loading = 0;
+
+	// true when the scene sounds have been retrieved from the asset manager
+	private boolean retrieved = false;
+
+	private static AsyncExecutor soundLoader;
 	
 	// the global configurable by user volume
 	public static float VOLUME_MULTIPLIER = 1f;
@@ -29,26 +58,34 @@ public class SceneSoundManager implements Serializable, AssetConsumer {
 	}
 
 	public void addSoundToLoad(SoundDesc s) {
-		loadedSounds.put(s.getId(), new LoadedSound(s));
+		// already added, keeps the loaded sound
+		if (!loadedSounds.containsKey(s.getId()))
+			loadedSounds.put(s.getId(), new LoadedSound(s));
+	}
+
+	/**
+	 * Adds a sound used in the scene but not marked to preload. It will be loaded
+	 * in background when the scene is ready.
+	 */
+	public void addSoundToPrefetch(SoundDesc s) {
+		if (!prefetchSounds.contains(s))
+			prefetchSounds.add(s);
 	}
 
 	public void playSound(String id) {
 
 		LoadedSound s = loadedSounds.get(id);
 
+		// added after the scene was loaded, when reloading the model
+		if (s != null && s.sound == null && !s.loading && !s.background && retrieved)
+			s = null;
+
 		if (s == null) {
-			// Not loaded, load and add to the loaded list.
+			// Not loaded, load in background and add to the loaded list.
 			SoundDesc sd = w.getSounds().get(id);
 
-			if (sd != null) {
-				addSoundToLoad(sd);
-				s = loadedSounds.get(id);
-
-				EngineLogger.debug("LOADING SOUND: " + s.desc.getId() + " - " + s.desc.getFilename());
-				EngineAssetManager.getInstance().loadSound(s.desc.getFilename());
-				EngineAssetManager.getInstance().finishLoading();
-				s.sound = EngineAssetManager.getInstance().getSound(s.desc.getFilename());
-			}
+			if (sd != null)
+				s = loadInBackground(sd);
 		}
 
 		if (s != null && s.sound != null) {
@@ -58,11 +95,90 @@ public class SceneSoundManager implements Serializable, AssetConsumer {
 				s.sound.play(s.desc.getVolume() * VOLUME_MULTIPLIER, s.desc.getPitch(), s.desc.getPan());
 
 			s.playing = true;
+		} else if (s != null && s.loading) {
+			// played when loaded
+			s.waitTime = 0;
 		} else {
 			EngineLogger.error("Sound Not Found: " + id);
 		}
 	}
 
+	private LoadedSound loadInBackground(SoundDesc sd) {
+		LoadedSound s = new LoadedSound(sd);
+		loadedSounds.put(sd.getId(), s);
+
+		EngineLogger.debug("LOADING SOUND: " + sd.getId() + " - " + sd.getFilename());
+
+		final FileHandle file = EngineAssetManager.getInstance().getSoundFile(sd.getFilename());
+
+		if (file == null)
+			return s;
+
+		if (soundLoader == null)
+			soundLoader = new AsyncExecutor(1);
+
+		s.result = soundLoader.submit(new AsyncTask<Sound>() {
+			@Override
+			public Sound call() throws Exception {
+				return Gdx.audio.newSound(file);
+			}
+		});
+
+		s.loading = true;
+		loading++;
+
+		return s;
+	}
+
+	/**
+	 * @return true if no sound is loading in background.
+	 */
+	public boolean isIdle() {
+		return loading == 0;
+	}
+
+	/**
+	 * Retrieves the sounds loaded in background and plays the ones waiting.
+	 */
+	public void update(float delta) {
+		if (loading == 0)
+			return;
+
+		for (LoadedSound s : loadedSounds.values()) {
+			if (!s.loading)
+				continue;
+
+			if (s.result.isDone()) {
+				s.loading = false;
+				loading--;
+				retrieveBackgroundSound(s);
+
+				if (s.sound != null && s.waitTime >= 0) {
+					s.waitTime = -1;
+					playSound(s.desc.getId());
+				}
+			} else if (s.waitTime >= 0) {
+				s.waitTime += delta;
+
+				if (s.waitTime > PLAY_TIMEOUT && !s.desc.getLoop()) {
+					EngineLogger.debug("SOUND NOT LOADED IN TIME, SKIPPING: " + s.desc.getId());
+					s.waitTime = -1;
+				}
+			}
+		}
+	}
+
+	private void retrieveBackgroundSound(LoadedSound s) {
+		try {
+			s.sound = s.result.get();
+			s.background = true;
+		} catch (Exception e) {
+			EngineLogger.error("Error loading sound: " + s.desc.getFilename(), e);
+		}
+
+		s.result = null;
+	}
+
 	/**
 	 * Deletes the current sound played by the actor.
 	 * 
@@ -83,8 +199,11 @@ public class SceneSoundManager implements Serializable, AssetConsumer {
 		LoadedSound s = loadedSounds.get(id);
 
 		if (s != null) {
-			s.sound.stop();
+			if (s.sound != null)
+				s.sound.stop();
+
 			s.playing = false;
+			s.waitTime = -1;
 		} else {
 			EngineLogger.debug("Sound Not Found: " + id);
 		}
@@ -116,11 +235,28 @@ public class SceneSoundManager implements Serializable, AssetConsumer {
 		for (LoadedSound s : loadedSounds.values()) {
 			// EngineLogger.debug("DISPOSING SOUND: " + s.desc.getId() + " - " +
 			// s.desc.getFilename());
-			if (s.playing)
+			if (s.playing && s.sound != null)
 				s.sound.stop();
 
-			EngineAssetManager.getInstance().disposeSound(s.desc.getFilename());
+			if (s.result != null)
+				retrieveBackgroundSound(s);
+
+			if (s.background) {
+				if (s.sound != null)
+					s.sound.dispose();
+
+				s.background = false;
+			} else {
+				EngineAssetManager.getInstance().disposeSound(s.desc.getFilename());
+			}
+
+			s.sound = null;
+			s.loading = false;
+			s.waitTime = -1;
 		}
+
+		loading = 0;
+		retrieved = false;
 	}
 
 	@Override
@@ -129,12 +265,19 @@ public class SceneSoundManager implements Serializable, AssetConsumer {
 			// EngineLogger.debug("LOADING SOUND: " + s.desc.getId() + " - " +
 			// s.desc.getFilename());
 			EngineAssetManager.getInstance().loadSound(s.desc.getFilename());
+			s.loading = false;
 		}
+
+		loading = 0;
 	}
 
 	@Override
 	public void retrieveAssets() {
 		for (LoadedSound s : loadedSounds.values()) {
+			// played while loading the scene, it is loading in background
+			if (s.loading || s.background)
+				continue;
+
 			s.sound = EngineAssetManager.getInstance().getSound(s.desc.getFilename());
 
 			// restore playing looping
@@ -146,6 +289,15 @@ public class SceneSoundManager implements Serializable, AssetConsumer {
 			}
 
 		}
+
+		retrieved = true;
+
+		if (Config.getProperty(Config.PREFETCH_SOUNDS_PROP, true)) {
+			for (SoundDesc sd : prefetchSounds) {
+				if (!loadedSounds.containsKey(sd.getId()))
+					loadInBackground(sd);
+			}
+		}
 	}
 
 	@Override
@@ -174,6 +326,15 @@ public class SceneSoundManager implements Serializable, AssetConsumer {
 		// flag to restore the sound when looping.
 		boolean playing = false;
 
+		transient boolean loading = false;
+
+		// loaded in background, out of the asset manager
+		transient boolean background = false;
+		transient AsyncResult<Sound> result;
+
+		// time waiting to be played while loading. -1 if not waiting.
+		transient float waitTime = -1;
+
 		public LoadedSound(SoundDesc s) {
 			desc = s;
 		}
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import java.nio.IntBuffer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.ScreenUtils;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncTask;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Takes the savegame screenshots.
+ * 
+ * The scene is drawn in a frame buffer with the screenshot size that is kept
+ * between screenshots. Only the small frame buffer is read in the GL thread.
+ * The PNG is encoded and written in a worker thread. The rows are flipped by
+ * the encoder while writing them, so there is no extra copy of the pixels.
+ * 
+ * The file is written with a temporal name and renamed when complete, so an
+ * incomplete screenshot is never read. Screenshots are deleted in the same
+ * thread, so a pending write never restores a removed screenshot.
+ * 
+ * @author rgarcia
+ */
+class ScreenshotCapture {
+	private static final IntBuffer VIEWPORT = BufferUtils.newIntBuffer(16);
+
+	private static FrameBuffer fbo;
+	private static AsyncExecutor executor;
+
+	// only used from the executor thread
+	private static PixmapIO.PNG png;
+
+	static void capture(World world, final FileHandle file, int w, int h) {
+		if (fbo == null || fbo.getWidth() != w || fbo.getHeight() != h) {
+			if (fbo != null)
+				fbo.dispose();
+
+			fbo = new FrameBuffer(Format.RGB565, w, h, false);
+		}
+
+		Gdx.gl20.glGetIntegerv(GL20.GL_VIEWPORT, VIEWPORT);
+
+		fbo.begin();
+		Gdx.gl.glClearColor(0, 0, 0, 1);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+		world.draw();
+		final Pixmap pixmap = ScreenUtils.getFrameBufferPixmap(0, 0, w, h);
+
+		// restore viewport
+		fbo.end(VIEWPORT.get(0), VIEWPORT.get(1), VIEWPORT.get(2), VIEWPORT.get(3));
+
+		if (executor == null)
+			executor = new AsyncExecutor(1);
+
+		executor.submit(new AsyncTask<Void>() {
+			@Override
+			public Void call() throws Exception {
+				try {
+					if (png == null)
+						png = new PixmapIO.PNG(pixmap.getWidth() * pixmap.getHeight() * 4);
+
+					// the GL rows are bottom to top
+					png.setFlipY(true);
+
+					FileHandle tmp = file.sibling(file.name() + ".tmp");
+					png.write(tmp, pixmap);
+					tmp.moveTo(file);
+				} catch (Exception e) {
+					EngineLogger.error("Error writing screenshot " + file.name(), e);
+				} finally {
+					pixmap.dispose();
+				}
+
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Deletes a screenshot after the pending writes.
+	 */
+	static void delete(final FileHandle file) {
+		if (executor == null) {
+			file.delete();
+			return;
+		}
+
+		executor.submit(new AsyncTask<Void>() {
+			@Override
+			public Void call() throws Exception {
+				file.delete();
+				file.sibling(file.name() + ".tmp").delete();
+
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Waits for the pending screenshots and frees the frame buffer.
+	 */
+	static void dispose() {
+		if (executor != null) {
+			executor.dispose();
+			executor = null;
+		}
+
+		if (png != null) {
+			png.dispose();
+			png = null;
+		}
+
+		if (fbo != null) {
+			fbo.dispose();
+			fbo = null;
+		}
+	}
+}
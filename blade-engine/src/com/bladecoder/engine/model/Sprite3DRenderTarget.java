@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.BufferUtils;
+
+/**
+ * Frame buffer shared by all the 3D sprites.
+ *
+ * Every 3D sprite has a region in the frame buffer and it is drawn from there
+ * like a normal sprite, so the 3D sprites don't break the sprite batch. The
+ * model is only rendered again when its animation frame changes. The pending
+ * renders are done together the first time that a 3D sprite is drawn in the
+ * frame.
+ *
+ * The regions are packed in rows. When a sprite doesn't fit, all the regions
+ * are packed again and, if it still doesn't fit, the sprite is drawn directly
+ * to the screen.
+ *
+ * @author rgarcia
+ */
+class Sprite3DRenderTarget {
+	private static final int MAX_SIZE = 2048;
+
+	private static final IntBuffer INT_RESULTS = BufferUtils.newIntBuffer(16);
+	private static final Rectangle VIEWPORT = new Rectangle();
+
+	private static FrameBuffer fb;
+	private static int size;
+
+	private static final ArrayList<Sprite3DRenderer> renderers = new ArrayList<Sprite3DRenderer>();
+	private static final ArrayList<Sprite3DRenderer> pending = new ArrayList<Sprite3DRenderer>();
+
+	// current row of the packing
+	private static int rowX, rowY, rowHeight;
+
+	/**
+	 * Assigns a region to the renderer.
+	 *
+	 * @return false if there is no space for the renderer.
+	 */
+	static boolean add(Sprite3DRenderer r) {
+		if (fb == null) {
+			Gdx.gl.glGetIntegerv(GL20.GL_MAX_TEXTURE_SIZE, INT_RESULTS);
+			size = Math.min(MAX_SIZE, INT_RESULTS.get(0));
+			fb = new FrameBuffer(Format.RGBA8888, size, size, true);
+		}
+
+		if (!renderers.contains(r))
+			renderers.add(r);
+
+		if (pack(r))
+			return true;
+
+		// pack all the regions again to remove the holes of the disposed
+		// renderers. The renderers that don't fit are drawn to the screen.
+		rowX = rowY = rowHeight = 0;
+		pending.clear();
+
+		for (int i = 0; i < renderers.size(); i++) {
+			Sprite3DRenderer r2 = renderers.get(i);
+
+			if (!pack(r2)) {
+				r2.setTargetRegion(null);
+				renderers.remove(i--);
+			}
+		}
+
+		return r.getTargetRegion() != null;
+	}
+
+	private static boolean pack(Sprite3DRenderer r) {
+		int w = (int) r.getWidth();
+		int h = (int) r.getHeight();
+
+		if (rowX + w > size) {
+			rowY += rowHeight;
+			rowX = 0;
+			rowHeight = 0;
+		}
+
+		if (w > size || rowY + h > size)
+			return false;
+
+		TextureRegion region = r.getTargetRegion();
+
+		if (region == null)
+			region = new TextureRegion();
+
+		region.setTexture(fb.getColorBufferTexture());
+		region.setRegion(rowX, rowY, w, h);
+		region.flip(false, true);
+		r.setTargetRegion(region);
+
+		rowX += w;
+		rowHeight = Math.max(rowHeight, h);
+
+		request(r);
+
+		return true;
+	}
+
+	static void remove(Sprite3DRenderer r) {
+		renderers.remove(r);
+		pending.remove(r);
+
+		if (renderers.isEmpty())
+			rowX = rowY = rowHeight = 0;
+	}
+
+	/**
+	 * Renders the model in the next flush.
+	 */
+	static void request(Sprite3DRenderer r) {
+		if (!pending.contains(r))
+			pending.add(r);
+	}
+
+	/**
+	 * Renders the pending models into the frame buffer.
+	 */
+	static void flush(SpriteBatch batch) {
+		if (pending.isEmpty())
+			return;
+
+		boolean drawing = batch.isDrawing();
+
+		if (drawing)
+			batch.end();
+
+		Gdx.gl.glGetIntegerv(GL20.GL_VIEWPORT, INT_RESULTS);
+		VIEWPORT.set(INT_RESULTS.get(0), INT_RESULTS.get(1), INT_RESULTS.get(2), INT_RESULTS.get(3));
+
+		boolean bound = false;
+
+		for (int i = 0; i < pending.size(); i++) {
+			Sprite3DRenderer r = pending.get(i);
+
+			// the shadow map is generated in its own frame buffer
+			if (r.isRenderShadow()) {
+				if (bound) {
+					end();
+					bound = false;
+				}
+
+				r.genShadowMap();
+			}
+
+			if (!bound) {
+				fb.begin();
+				bound = true;
+			}
+
+			TextureRegion region = r.getTargetRegion();
+			// the region is flipped
+			int x = region.getRegionX();
+			int w = region.getRegionWidth();
+			int h = -region.getRegionHeight();
+			int y = region.getRegionY() - h;
+
+			Gdx.gl.glViewport(x, y, w, h);
+			Gdx.gl.glEnable(GL20.GL_SCISSOR_TEST);
+			Gdx.gl.glScissor(x, y, w, h);
+			Gdx.gl.glClearColor(0, 0, 0, 0);
+			Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
+			Gdx.gl.glDisable(GL20.GL_SCISSOR_TEST);
+
+			r.drawModel();
+		}
+
+		if (bound)
+			end();
+
+		pending.clear();
+
+		if (drawing)
+			batch.begin();
+	}
+
+	private static void end() {
+		fb.end((int) VIEWPORT.x, (int) VIEWPORT.y, (int) VIEWPORT.width, (int) VIEWPORT.height);
+	}
+
+	static void dispose() {
+		renderers.clear();
+		pending.clear();
+		rowX = rowY = rowHeight = 0;
+
+		if (fb != null) {
+			fb.dispose();
+			fb = null;
+		}
+	}
+}
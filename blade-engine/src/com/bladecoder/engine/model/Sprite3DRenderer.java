@@ -21,7 +21,6 @@ import java.util.HashMap;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
-import com.badlogic.gdx.graphics.GL30;
 import com.badlogic.gdx.graphics.PerspectiveCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
@@ -33,13 +32,11 @@ import com.badlogic.gdx.graphics.g3d.environment.DirectionalShadowLight;
 import com.badlogic.gdx.graphics.g3d.environment.PointLight;
 import com.badlogic.gdx.graphics.g3d.model.Animation;
 import com.badlogic.gdx.graphics.g3d.model.Node;
-import com.badlogic.gdx.graphics.g3d.shaders.DefaultShader.Config;
+import com.badlogic.gdx.graphics.g3d.shaders.DefaultShader;
 import com.badlogic.gdx.graphics.g3d.utils.AnimationController;
 import com.badlogic.gdx.graphics.g3d.utils.AnimationController.AnimationListener;
 import com.badlogic.gdx.graphics.g3d.utils.DefaultShaderProvider;
 import com.badlogic.gdx.graphics.g3d.utils.DepthShaderProvider;
-import com.badlogic.gdx.graphics.glutils.FrameBuffer;
-import com.badlogic.gdx.graphics.glutils.GLFrameBuffer;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
@@ -55,6 +52,7 @@ import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.serialization.ActionCallbackSerializer;
 import com.bladecoder.engine.serialization.BladeJson;
 import com.bladecoder.engine.serialization.BladeJson.Mode;
+import com.bladecoder.engine.util.Config;
 import com.bladecoder.engine.util.EngineLogger;
 import com.bladecoder.engine.util.Utils3D;
 
@@ -64,8 +62,8 @@ public class Sprite3DRenderer extends AnimationRenderer {
 	private static final String FRAGMENT_SHADER = "com/bladecoder/engine/shading/cel.fragment.glsl";
 	private static final String FLOOR_FRAGMENT_SHADER = "com/bladecoder/engine/shading/floor.fragment.glsl";
 	private static final String VERTEX_SHADER = "com/bladecoder/engine/shading/cel.vertex.glsl";
-	private final static boolean USE_FBO = false;
 	private final static int MAX_BONES = 40;
+	private final static int DEFAULT_FPS = 30;
 
 	private static final Rectangle VIEWPORT = new Rectangle();
 	private final static IntBuffer VIEWPORT_RESULTS = BufferUtils.newIntBuffer(16);
@@ -73,13 +71,18 @@ public class Sprite3DRenderer extends AnimationRenderer {
 	private int currentCount;
 	private Tween.Type currentAnimationType;
 
+	// region in the shared render target, null if drawn directly to the screen
 	private TextureRegion tex;
 
+	// time since the last render in the render target
+	private float frameTime = 0;
+
+	// min. time between renders of an animation, from the 'render3d_fps' config
+	private static float frameInterval = 0;
+
 	private Environment environment;
 	private Environment shadowEnvironment;
 
-	private FrameBuffer fb = null;
-
 	private int width = 200, height = 200;
 
 	private Vector3 cameraPos;
@@ -95,11 +98,9 @@ public class Sprite3DRenderer extends AnimationRenderer {
 	private static ModelBatch shadowBatch;
 	private static ModelBatch floorBatch;
 
-	// TODO Move shadowLight to static for memory eficiency.
-	// This implies that the shadow must be calculated in the draw method and
-	// not in the update
-	private final DirectionalShadowLight shadowLight = (DirectionalShadowLight) new DirectionalShadowLight(1024, 1024,
-			30f, 30f, 1f, 100f).set(1f, 1f, 1f, 0.01f, -1f, 0.01f);
+	// Shared by all the renderers. The shadow map is generated just before
+	// rendering every model.
+	private static DirectionalShadowLight shadowLight;
 
 	PointLight celLight;
 
@@ -141,26 +142,32 @@ public class Sprite3DRenderer extends AnimationRenderer {
 		return result;
 	}
 
-	/**
-	 * Render the 3D model into the texture
-	 */
-	private void renderTex() {
-		updateViewport();
+	TextureRegion getTargetRegion() {
+		return tex;
+	}
 
-		fb.begin();
+	void setTargetRegion(TextureRegion region) {
+		tex = region;
+	}
 
-		Gdx.gl.glClearColor(0, 0, 0, 0);
-		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
+	boolean isRenderShadow() {
+		return renderShadow && currentSource != null;
+	}
 
-		drawModel();
+	/**
+	 * The model will be rendered again in the render target before drawing.
+	 */
+	private void invalidate() {
+		frameTime = 0;
 
-		fb.end((int) VIEWPORT.x, (int) VIEWPORT.y, (int) VIEWPORT.width, (int) VIEWPORT.height);
+		if (tex != null)
+			Sprite3DRenderTarget.request(this);
 	}
 
 	/**
 	 * Generates the Shadow Map
 	 */
-	private void genShadowMap() {
+	void genShadowMap() {
 		updateViewport();
 
 		ModelCacheEntry cs = (ModelCacheEntry) currentSource;
@@ -175,7 +182,7 @@ public class Sprite3DRenderer extends AnimationRenderer {
 				(int) VIEWPORT.height);
 	}
 
-	private void drawModel() {
+	void drawModel() {
 		if (currentSource != null) {
 
 			ModelCacheEntry cs = (ModelCacheEntry) currentSource;
@@ -350,6 +357,7 @@ public class Sprite3DRenderer extends AnimationRenderer {
 		}
 
 		lastAnimationTime = 0;
+		invalidate();
 		float speed = currentAnimation.duration;
 
 		if (currentAnimationType == Tween.Type.REVERSE || currentAnimationType == Tween.Type.REVERSE_REPEAT)
@@ -442,11 +450,20 @@ public class Sprite3DRenderer extends AnimationRenderer {
 	private void lookat(float angle) {
 		((ModelCacheEntry) currentSource).modelInstance.transform.setToRotation(Vector3.Y, angle);
 		modelRotation = angle;
+		invalidate();
 	}
 
 	public void setSpriteSize(Vector2 size) {
 		this.width = (int) size.x;
 		this.height = (int) size.y;
+
+		// get a region with the new size
+		if (tex != null) {
+			Sprite3DRenderTarget.remove(this);
+
+			if (!Sprite3DRenderTarget.add(this))
+				tex = null;
+		}
 	}
 
 	@Override
@@ -456,13 +473,11 @@ public class Sprite3DRenderer extends AnimationRenderer {
 		if (cs != null && cs.controller.current != null && cs.controller.current.loopCount != 0) {
 			cs.controller.update(delta);
 			lastAnimationTime += delta;
+			frameTime += delta;
 
-			// GENERATE SHADOW MAP
-			if (renderShadow)
-				genShadowMap();
-
-			if (USE_FBO)
-				renderTex();
+			// the model is rendered at the configured frame rate
+			if (frameTime >= frameInterval)
+				invalidate();
 		}
 	}
 
@@ -483,7 +498,10 @@ public class Sprite3DRenderer extends AnimationRenderer {
 
 		x = x - getWidth() / 2 * scaleX;
 
-		if (USE_FBO) {
+		if (tex != null) {
+			// renders the pending models of all the renderers
+			Sprite3DRenderTarget.flush(batch);
+
 			if (tint != null)
 				batch.setColor(tint);
 
@@ -494,6 +512,11 @@ public class Sprite3DRenderer extends AnimationRenderer {
 		} else {
 			float p0x, p0y, pfx, pfy;
 
+			batch.end();
+
+			if (isRenderShadow())
+				genShadowMap();
+
 			updateViewport();
 
 			// get screen coords for x and y
@@ -510,8 +533,6 @@ public class Sprite3DRenderer extends AnimationRenderer {
 			pfx = VIEWPORT.width * (tmp.x + 1) / 2;
 			pfy = VIEWPORT.height * (tmp.y + 1) / 2;
 
-			batch.end();
-
 			Gdx.gl20.glViewport((int) (p0x + VIEWPORT.x), (int) (p0y + VIEWPORT.y), (int) (pfx - p0x),
 					(int) (pfy - p0y));
 
@@ -550,6 +571,10 @@ public class Sprite3DRenderer extends AnimationRenderer {
 		environment.add(celLight);
 
 		if (renderShadow) {
+			if (shadowLight == null)
+				shadowLight = (DirectionalShadowLight) new DirectionalShadowLight(1024, 1024, 30f, 30f, 1f, 100f)
+						.set(1f, 1f, 1f, 0.01f, -1f, 0.01f);
+
 			shadowEnvironment = new Environment();
 			shadowEnvironment.add(shadowLight);
 			shadowEnvironment.shadowMap = shadowLight;
@@ -566,8 +591,8 @@ public class Sprite3DRenderer extends AnimationRenderer {
 	}
 
 	public static void createBatchs() {
-		Config modelConfigShader = new Config(Gdx.files.classpath(VERTEX_SHADER).readString(),
-				Gdx.files.classpath(FRAGMENT_SHADER).readString());
+		DefaultShader.Config modelConfigShader = new DefaultShader.Config(
+				Gdx.files.classpath(VERTEX_SHADER).readString(), Gdx.files.classpath(FRAGMENT_SHADER).readString());
 
 		modelConfigShader.numBones = MAX_BONES;
 		modelConfigShader.numDirectionalLights = 0;
@@ -579,6 +604,9 @@ public class Sprite3DRenderer extends AnimationRenderer {
 		shadowBatch = new ModelBatch(new DepthShaderProvider());
 		floorBatch = new ModelBatch(new DefaultShaderProvider(Gdx.files.classpath(VERTEX_SHADER),
 				Gdx.files.classpath(FLOOR_FRAGMENT_SHADER)));
+
+		int fps = Config.getProperty(Config.RENDER3D_FPS_PROP, DEFAULT_FPS);
+		frameInterval = fps > 0 ? 1f / fps : 0;
 	}
 
 	private void loadSource(String source) {
@@ -675,20 +703,10 @@ public class Sprite3DRenderer extends AnimationRenderer {
 				lookat(modelRotation);
 		}
 
-		if (currentSource != null && renderShadow)
-			genShadowMap();
-
-		if (USE_FBO) {
-			GLFrameBuffer.FrameBufferBuilder frameBufferBuilder = new GLFrameBuffer.FrameBufferBuilder(width, height);
-
-			frameBufferBuilder.addColorTextureAttachment(GL30.GL_RGBA8, GL30.GL_RGBA, GL30.GL_UNSIGNED_BYTE);
-			fb = frameBufferBuilder.build();
-
-			tex = new TextureRegion(fb.getColorBufferTexture());
-			tex.flip(false, true);
+		if (!Sprite3DRenderTarget.add(this))
+			tex = null;
 
-			renderTex();
-		}
+		invalidate();
 
 		computeBbox();
 	}
@@ -705,8 +723,8 @@ public class Sprite3DRenderer extends AnimationRenderer {
 		environment = null;
 		shadowEnvironment = null;
 
-		if (USE_FBO)
-			fb.dispose();
+		Sprite3DRenderTarget.remove(this);
+		tex = null;
 	}
 
 	public static void disposeBatchs() {
@@ -719,6 +737,13 @@ public class Sprite3DRenderer extends AnimationRenderer {
 		floorBatch.dispose();
 
 		modelBatch = shadowBatch = floorBatch = null;
+
+		if (shadowLight != null) {
+			shadowLight.dispose();
+			shadowLight = null;
+		}
+
+		Sprite3DRenderTarget.dispose();
 	}
 
 	@Override
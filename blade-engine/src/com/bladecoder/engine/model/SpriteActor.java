@@ -19,11 +19,19 @@ import java.util.ArrayList;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Polygon;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
 import com.bladecoder.engine.actions.ActionCallback;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
 import com.bladecoder.engine.anim.AnimationDesc;
+import com.bladecoder.engine.anim.SpriteAlphaTween;
+import com.bladecoder.engine.anim.SpritePosTween;
+import com.bladecoder.engine.anim.SpriteRotateTween;
+import com.bladecoder.engine.anim.SpriteScaleTween;
+import com.bladecoder.engine.anim.SpriteTintTween;
 import com.bladecoder.engine.anim.Tween;
 import com.bladecoder.engine.anim.Tween.Type;
 import com.bladecoder.engine.anim.WalkTween;
@@ -37,7 +45,30 @@ public class SpriteActor extends InteractiveActor implements AssetConsumer {
 
 	protected ActorRenderer renderer;
 
-	protected ArrayList<Tween<SpriteActor>> tweens = new ArrayList<>(0);
+	// Tween slots. Only one tween of every type can be running.
+	private static final int WALK_SLOT = 0;
+	private static final int POS_SLOT = 1;
+	private static final int ALPHA_SLOT = 2;
+	private static final int ROTATE_SLOT = 3;
+	private static final int SCALE_SLOT = 4;
+	private static final int TINT_SLOT = 5;
+	private static final int NUM_SLOTS = 6;
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	protected final Tween<SpriteActor>[] tweens = new Tween[NUM_SLOTS];
+
+	// Removed tweens. They are reused after the update because they can be
+	// removed while running.
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private final Tween<SpriteActor>[] removedTweens = new Tween[NUM_SLOTS];
+
+	// Finished tweens ready to reuse
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private final Tween<SpriteActor>[] freeTweens = new Tween[NUM_SLOTS];
+
+	// Running tweens of the custom types, without slot. Only one of every type.
+	private final ArrayList<Tween<SpriteActor>> otherTweens = new ArrayList<>(0);
+	transient private final ArrayList<Tween<SpriteActor>> tmpTweens = new ArrayList<>(0);
 
 	private float rot = 0.0f;
 	private float scaleX = 1.0f;
@@ -50,6 +81,10 @@ public class SpriteActor extends InteractiveActor implements AssetConsumer {
 
 	private String playingSound;
 
+	// position at the start of the last fixed step, to interpolate it
+	transient private float prevX, prevY;
+	transient private int prevStep = -1;
+
 	public void setRenderer(ActorRenderer r) {
 		renderer = r;
 	}
@@ -94,6 +129,18 @@ public class SpriteActor extends InteractiveActor implements AssetConsumer {
 			renderer.updateBboxFromRenderer(null);
 	}
 
+	/**
+	 * The renderers can compute the bbox lazily, it is validated here so all the
+	 * callers get the bbox of the current animation frame.
+	 */
+	@Override
+	public Polygon getBBox() {
+		if (bboxFromRenderer && renderer instanceof AnimationRenderer)
+			((AnimationRenderer) renderer).validateBbox();
+
+		return super.getBBox();
+	}
+
 	public float getWidth() {
 		return renderer.getWidth() * scaleX;
 	}
@@ -149,29 +196,99 @@ public class SpriteActor extends InteractiveActor implements AssetConsumer {
 
 	@Override
 	public void update(float delta) {
+		if (scene != null) {
+			prevX = getX();
+			prevY = getY();
+			prevStep = scene.getWorld().getStepCount();
+		}
+
 		super.update(delta);
 
 		if (visible) {
 			renderer.update(delta);
 
-			for (int i = 0; i < tweens.size(); i++) {
-				Tween<SpriteActor> t = tweens.get(i);
+			for (int i = 0; i < NUM_SLOTS; i++) {
+				Tween<SpriteActor> t = tweens[i];
+
+				if (t == null)
+					continue;
 
 				t.update(delta);
 
 				// Needs extra checks before remove because the update can remove the tween
-				if (t.isComplete() && i < tweens.size() && tweens.get(i) == t) {
-					tweens.remove(i);
-					i--;
+				if (t.isComplete() && tweens[i] == t) {
+					tweens[i] = null;
+					removedTweens[i] = t;
 				}
 			}
+
+			if (!otherTweens.isEmpty()) {
+				// the update can add or remove tweens
+				tmpTweens.addAll(otherTweens);
+
+				for (int i = 0; i < tmpTweens.size(); i++) {
+					Tween<SpriteActor> t = tmpTweens.get(i);
+
+					if (!otherTweens.contains(t))
+						continue;
+
+					t.update(delta);
+
+					if (t.isComplete())
+						otherTweens.remove(t);
+				}
+
+				tmpTweens.clear();
+			}
+		}
+
+		for (int i = 0; i < NUM_SLOTS; i++) {
+			if (removedTweens[i] != null) {
+				freeTweens[i] = removedTweens[i];
+				removedTweens[i] = null;
+			}
 		}
 	}
 
+	/**
+	 * @return true if the actor doesn't change when updated: there are no tweens
+	 *         running and the renderer is not animating.
+	 */
+	public boolean isIdle() {
+		if (!visible)
+			return true;
+
+		for (int i = 0; i < NUM_SLOTS; i++) {
+			if (tweens[i] != null)
+				return false;
+		}
+
+		if (!otherTweens.isEmpty())
+			return false;
+
+		if (renderer instanceof AnimationRenderer)
+			return !((AnimationRenderer) renderer).isAnimating();
+
+		return renderer instanceof TextRenderer;
+	}
+
 	public void draw(SpriteBatch batch) {
 		if (isVisible()) {
 			if (scaleX != 0 && scaleY != 0) {
-				renderer.draw(batch, getX(), getY(), scaleX, scaleY, rot, tint);
+				float x = getX();
+				float y = getY();
+
+				if (scene != null) {
+					World w = scene.getWorld();
+					float alpha = w.getStepAlpha();
+
+					if (alpha < 1 && prevStep == w.getStepCount()) {
+						x = prevX + (x - prevX) * alpha;
+						y = prevY + (y - prevY) * alpha;
+					}
+				}
+
+				renderer.draw(batch, x, y, scaleX, scaleY, rot, tint);
 			}
 		}
 	}
@@ -198,13 +315,88 @@ public class SpriteActor extends InteractiveActor implements AssetConsumer {
 	}
 
 	public void removeTween(Class<?> clazz) {
-		for (int i = 0; i < tweens.size(); i++) {
-			Tween<SpriteActor> t = tweens.get(i);
+		for (int i = 0; i < NUM_SLOTS; i++) {
+			Tween<SpriteActor> t = tweens[i];
+
 			if (clazz.isInstance(t)) {
-				tweens.remove(i);
-				i--;
+				tweens[i] = null;
+				removedTweens[i] = t;
+			}
+		}
+
+		for (int i = otherTweens.size() - 1; i >= 0; i--) {
+			if (clazz.isInstance(otherTweens.get(i)))
+				otherTweens.remove(i);
+		}
+	}
+
+	public boolean hasTweens() {
+		for (int i = 0; i < NUM_SLOTS; i++) {
+			if (tweens[i] != null)
+				return true;
+		}
+
+		return !otherTweens.isEmpty();
+	}
+
+	/**
+	 * @return the running tween of the type or null.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Tween<SpriteActor>> T getTween(Class<T> clazz) {
+		int slot = getSlot(clazz);
+
+		if (slot == -1) {
+			for (int i = 0; i < otherTweens.size(); i++) {
+				if (otherTweens.get(i).getClass() == clazz)
+					return (T) otherTweens.get(i);
 			}
+
+			return null;
 		}
+
+		Tween<SpriteActor> t = tweens[slot];
+
+		return t != null && t.getClass() == clazz ? (T) t : null;
+	}
+
+	/**
+	 * Returns a finished tween to start it again or creates a new one. Avoids
+	 * allocations for actors that start the same tween frequently, like walking.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Tween<SpriteActor>> T obtainTween(Class<T> clazz) {
+		int slot = getSlot(clazz);
+		Tween<SpriteActor> t = slot == -1 ? null : freeTweens[slot];
+
+		if (t != null && t.getClass() == clazz) {
+			freeTweens[slot] = null;
+			return (T) t;
+		}
+
+		try {
+			return ClassReflection.newInstance(clazz);
+		} catch (ReflectionException e) {
+			throw new IllegalArgumentException("Cannot create tween: " + clazz.getName(), e);
+		}
+	}
+
+	private static int getSlot(Class<?> clazz) {
+		if (clazz == WalkTween.class)
+			return WALK_SLOT;
+		else if (clazz == SpritePosTween.class)
+			return POS_SLOT;
+		else if (clazz == SpriteAlphaTween.class)
+			return ALPHA_SLOT;
+		else if (clazz == SpriteRotateTween.class)
+			return ROTATE_SLOT;
+		else if (clazz == SpriteScaleTween.class)
+			return SCALE_SLOT;
+		else if (clazz == SpriteTintTween.class)
+			return TINT_SLOT;
+
+		// custom tween
+		return -1;
 	}
 
 	/**
@@ -271,8 +463,22 @@ public class SpriteActor extends InteractiveActor implements AssetConsumer {
 
 	public void addTween(Tween<SpriteActor> tween) {
 		removeTween(tween.getClass());
-		
-		tweens.add(tween);
+
+		int slot = getSlot(tween.getClass());
+
+		if (slot == -1) {
+			otherTweens.add(tween);
+			return;
+		}
+
+		// a removed tween can be added again
+		if (removedTweens[slot] == tween)
+			removedTweens[slot] = null;
+
+		if (freeTweens[slot] == tween)
+			freeTweens[slot] = null;
+
+		tweens[slot] = tween;
 	}
 
 	@Override
@@ -328,7 +534,16 @@ public class SpriteActor extends InteractiveActor implements AssetConsumer {
 			json.writeValue("renderer", renderer, null);
 		} else {
 			json.writeValue("renderer", renderer);
-			json.writeValue("tweens", tweens, ArrayList.class, Tween.class);
+			ArrayList<Tween<SpriteActor>> t = new ArrayList<>(0);
+
+			for (int i = 0; i < NUM_SLOTS; i++) {
+				if (tweens[i] != null)
+					t.add(tweens[i]);
+			}
+
+			t.addAll(otherTweens);
+
+			json.writeValue("tweens", t, ArrayList.class, Tween.class);
 			json.writeValue("playingSound", playingSound);
 		}
 
@@ -352,15 +567,27 @@ public class SpriteActor extends InteractiveActor implements AssetConsumer {
 		if (bjson.getMode() == Mode.MODEL) {
 			renderer = json.readValue("renderer", ActorRenderer.class, jsonData);
 		} else {
-			tweens = json.readValue("tweens", ArrayList.class, Tween.class, jsonData);
+			ArrayList<Tween<SpriteActor>> t = json.readValue("tweens", ArrayList.class, Tween.class, jsonData);
 
-			if(tweens == null) {
+			if(t == null) {
 				EngineLogger.debug("Couldn't load state of actor: " + id);
 				return;
 			}
-				
-			for (Tween<SpriteActor> t : tweens)
-				t.setTarget(this);
+
+			for (int i = 0; i < NUM_SLOTS; i++)
+				tweens[i] = null;
+
+			otherTweens.clear();
+
+			for (Tween<SpriteActor> tween : t) {
+				tween.setTarget(this);
+				int slot = getSlot(tween.getClass());
+
+				if (slot == -1)
+					otherTweens.add(tween);
+				else
+					tweens[slot] = tween;
+			}
 
 			renderer.read(json, jsonData.get("renderer"));
 
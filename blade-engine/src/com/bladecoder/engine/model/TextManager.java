@@ -16,7 +16,9 @@
 package com.bladecoder.engine.model;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Queue;
 
 import com.badlogic.gdx.graphics.Color;
@@ -48,6 +50,19 @@ public class TextManager implements Serializable {
 
 	public static final boolean AUTO_HIDE_TEXTS = Config.getProperty(Config.AUTO_HIDE_TEXTS, true);
 
+	private static final int MAX_PARSED_TEXTS = 32;
+
+	// the last parsed texts. Repeated texts are not parsed again.
+	private static final LinkedHashMap<String, ParsedLine[]> parsedTexts = new LinkedHashMap<String, ParsedLine[]>(16,
+			0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, ParsedLine[]> eldest) {
+			return size() > MAX_PARSED_TEXTS;
+		}
+	};
+
 	private float inScreenTime;
 	private Text currentText = null;
 	private final VoiceManager voiceManager = new VoiceManager(this);
@@ -65,15 +80,57 @@ public class TextManager implements Serializable {
 		this.scene = s;
 	}
 
+	/**
+	 * Cuts the string in lines and parses the embedded duration or voice id of
+	 * each line.
+	 */
+	private static ParsedLine[] parse(String str) {
+		ParsedLine[] lines = parsedTexts.get(str);
+
+		if (lines != null)
+			return lines;
+
+		String[] text = str.replace("\\n", "\n").split("\n\n");
+		lines = new ParsedLine[text.length];
+
+		for (int i = 0; i < text.length; i++) {
+			String cutStr = text[i];
+
+			// search for embedded duration in the string ex:
+			// "2#two seconds subtitle"
+			float duration = 0;
+			String lineVoiceId = null;
+			String finalStr = cutStr;
+
+			int idx = cutStr.indexOf('#');
+			if (idx != -1) {
+				String prefix = cutStr.substring(0, idx);
+
+				if (prefix.charAt(0) == 'v') {
+					lineVoiceId = prefix.substring(1).trim();
+				} else {
+					duration = Float.parseFloat(prefix);
+				}
+
+				finalStr = cutStr.substring(idx + 1);
+			}
+
+			lines[i] = new ParsedLine(finalStr, duration, lineVoiceId);
+		}
+
+		parsedTexts.put(str, lines);
+
+		return lines;
+	}
+
 	public void addText(String str, float x, float y, boolean queue, Text.Type type, Color color, String font,
 			String actorId, String voiceId, String talkAnimation, ActionCallback cb) {
 
 		if (str.charAt(0) == I18N.PREFIX)
 			str = I18N.getString(str.substring(1));
 
-		String s = str.replace("\\n", "\n");
-
 		if (type == Text.Type.UI && scene.getWorld().getListener() != null) {
+			String s = str.replace("\\n", "\n");
 
 			Text t = new Text(s, x, y, 0, type, color, font, actorId, voiceId, talkAnimation, null);
 
@@ -88,40 +145,21 @@ public class TextManager implements Serializable {
 			return;
 		}
 
-		String[] text = s.split("\n\n");
+		ParsedLine[] text = parse(str);
 
 		int nQueued = fifo.size();
 
-		String lineVoiceId = voiceId;
-
 		for (int i = 0; i < text.length; i++) {
-			String cutStr = text[i];
-
-			// search for embedded duration in the string ex:
-			// "2#two seconds subtitle"
-			float duration = 0;
-			String finalStr = cutStr;
-
-			int idx = cutStr.indexOf('#');
-			if (idx != -1) {
-				String prefix = cutStr.substring(0, idx);
-
-				if (prefix.charAt(0) == 'v') {
-					lineVoiceId = prefix.substring(1).trim();
-				} else {
-					duration = Float.parseFloat(prefix);
-				}
+			// the voice id param is only for the first line
+			String lineVoiceId = text[i].voiceId;
 
-				finalStr = cutStr.substring(idx + 1);
-			}
+			if (lineVoiceId == null && i == 0)
+				lineVoiceId = voiceId;
 
 			Text sub;
 
-			sub = new Text(finalStr, x, y, duration, type, color, font, actorId, lineVoiceId, talkAnimation,
-					i == text.length - 1 ? cb : null);
-
-			// resets voice id for the next line
-			lineVoiceId = null;
+			sub = new Text(text[i].str, x, y, text[i].duration, type, color, font, actorId, lineVoiceId,
+					talkAnimation, i == text.length - 1 ? cb : null);
 
 			fifo.add(sub);
 		}
@@ -135,6 +173,8 @@ public class TextManager implements Serializable {
 			} else {
 				setCurrentText(fifo.poll());
 			}
+		} else {
+			voiceManager.prefetch(fifo);
 		}
 
 	}
@@ -179,11 +219,14 @@ public class TextManager implements Serializable {
 			voiceManager.stop();
 		}
 
+		voiceManager.prefetch(fifo);
+
 		if (scene.getWorld().getListener() != null)
 			scene.getWorld().getListener().text(t);
 	}
 
 	public void update(float delta) {
+		voiceManager.update();
 
 		if (currentText == null) {
 			return;
@@ -196,6 +239,10 @@ public class TextManager implements Serializable {
 		}
 	}
 
+	public boolean isIdle() {
+		return currentText == null;
+	}
+
 	public void next() {
 		if (currentText != null) {
 			Text t = currentText;
@@ -251,4 +298,16 @@ public class TextManager implements Serializable {
 		if (jsonValue != null)
 			voiceManager.read(json, jsonValue);
 	}
+
+	private static final class ParsedLine {
+		final String str;
+		final float duration;
+		final String voiceId;
+
+		ParsedLine(String str, float duration, String voiceId) {
+			this.str = str;
+			this.duration = duration;
+			this.voiceId = voiceId;
+		}
+	}
 }
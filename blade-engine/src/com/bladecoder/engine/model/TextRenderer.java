@@ -18,6 +18,7 @@ package com.bladecoder.engine.model;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture.TextureFilter;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader.FreeTypeFontLoaderParameter;
@@ -31,6 +32,7 @@ import com.bladecoder.engine.i18n.I18N;
 import com.bladecoder.engine.serialization.BladeJson;
 import com.bladecoder.engine.serialization.BladeJson.Mode;
 import com.bladecoder.engine.util.RectangleRenderer;
+import com.bladecoder.engine.util.TextLayoutCache;
 
 public class TextRenderer implements ActorRenderer {
 
@@ -39,7 +41,11 @@ public class TextRenderer implements ActorRenderer {
 	private Polygon bbox;
 
 	private BitmapFont font;
-	private final GlyphLayout layout = new GlyphLayout();
+
+	// the layout is shared with the TextLayoutCache and the vertices of the text
+	// are kept in the fontCache. The tint only changes the vertex colors.
+	private GlyphLayout layout;
+	private BitmapFontCache fontCache;
 
 	private int fontSize = 10;
 	private String text;
@@ -89,21 +95,9 @@ public class TextRenderer implements ActorRenderer {
 
 			if (tint != null && !tint.equals(color)) {
 				color.set(tint);
-
-				String tt = text;
-
-				if (tt.charAt(0) == I18N.PREFIX)
-					tt = I18N.getString(tt.substring(1));
-
-				if (editorTranslatedText != null)
-					tt = editorTranslatedText;
-
-				layout.setText(font, tt, color, 0, textAlign, false);
+				fontCache.tint(color);
 			}
 
-			Matrix4 tm = batch.getTransformMatrix();
-			tmp.set(tm);
-
 			float originX = dx;
 			float originY = layout.height + dy;
 
@@ -112,13 +106,25 @@ public class TextRenderer implements ActorRenderer {
 			else if (textAlign == Align.center)
 				originX += getWidth() / 2;
 
-			tm.translate(x, y, 0).rotate(0, 0, 1, rotation).scale(scaleX, scaleY, 1).translate(originX, originY, 0);
+			if (rotation == 0 && scaleX == 1 && scaleY == 1) {
+				// static text, the cached vertices are only translated when the
+				// position changes. No need to change the batch transform.
+				fontCache.setPosition(x + originX, y + originY);
+				fontCache.draw(batch);
+			} else {
+				Matrix4 tm = batch.getTransformMatrix();
+				tmp.set(tm);
 
-			batch.setTransformMatrix(tm);
+				tm.translate(x, y, 0).rotate(0, 0, 1, rotation).scale(scaleX, scaleY, 1).translate(originX, originY,
+						0);
 
-			font.draw(batch, layout, 0, 0);
+				batch.setTransformMatrix(tm);
 
-			batch.setTransformMatrix(tmp);
+				fontCache.setPosition(0, 0);
+				fontCache.draw(batch);
+
+				batch.setTransformMatrix(tmp);
+			}
 		} else {
 			RectangleRenderer.draw(batch, x + dx * scaleX, y + dy * scaleY, getWidth() * scaleX, getHeight() * scaleY,
 					Color.RED);
@@ -323,17 +329,27 @@ public class TextRenderer implements ActorRenderer {
 		if (editorTranslatedText != null)
 			tt = editorTranslatedText;
 
-		layout.setText(font, tt, color, 0, textAlign, false);
+		layout = TextLayoutCache.get(font, tt, Color.WHITE, 0, textAlign, false);
+
+		fontCache = new BitmapFontCache(font, font.usesIntegerPositions());
+		fontCache.setText(layout, 0, 0);
+		fontCache.tint(color);
 
 		computeBbox();
 	}
 
 	@Override
 	public void dispose() {
-		if (EngineAssetManager.getInstance().isLoaded(fontName + getFontSize() + ".ttf"))
+		if (EngineAssetManager.getInstance().isLoaded(fontName + getFontSize() + ".ttf")) {
 			EngineAssetManager.getInstance().unload(fontName + getFontSize() + ".ttf");
 
+			if (!EngineAssetManager.getInstance().isLoaded(fontName + getFontSize() + ".ttf"))
+				TextLayoutCache.remove(font);
+		}
+
 		font = null;
+		layout = null;
+		fontCache = null;
 	}
 
 	@Override
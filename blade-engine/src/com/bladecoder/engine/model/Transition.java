@@ -92,6 +92,13 @@ public class Transition implements Serializable {
 		this.cb = cb;
 	}
 
+	/**
+	 * @return true if the transition doesn't change when updated.
+	 */
+	public boolean isIdle() {
+		return cb == null && (type == Type.NONE || (type == Type.FADE_OUT && isFinish()));
+	}
+
 	public boolean isFinish() {
 		return (currentTime > time || type == Type.NONE);
 	}
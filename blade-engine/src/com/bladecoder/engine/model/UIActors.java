@@ -1,6 +1,8 @@
 package com.bladecoder.engine.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 
 import com.badlogic.gdx.graphics.Camera;
@@ -15,7 +17,11 @@ import com.bladecoder.engine.actions.SceneActorRef;
 import com.bladecoder.engine.assets.AssetConsumer;
 
 public class UIActors implements AssetConsumer, Serializable {
-	private ArrayList<InteractiveActor> actors = new ArrayList<>(0);
+	private final ArrayList<InteractiveActor> actors = new ArrayList<>(0);
+	private final List<InteractiveActor> actorsView = Collections.unmodifiableList(actors);
+
+	// id index of the actors, the list keeps the draw order
+	private final HashMap<String, InteractiveActor> actorsById = new HashMap<>();
 
 	transient private boolean disposed = true;
 	private final SceneCamera cam = new SceneCamera();
@@ -30,33 +36,33 @@ public class UIActors implements AssetConsumer, Serializable {
 	}
 
 	public void addActor(InteractiveActor a) {
+		InteractiveActor prev = actorsById.put(a.getId(), a);
+
+		if (prev != null)
+			actors.remove(prev);
+
 		actors.add(a);
 	}
 
 	public InteractiveActor removeActor(String id) {
-		for (int i = 0; i < actors.size(); i++) {
-			InteractiveActor a = actors.get(i);
+		InteractiveActor a = actorsById.remove(id);
 
-			if (a.getId().equals(id)) {
-				actors.remove(i);
-				return a;
-			}
-		}
+		if (a != null)
+			actors.remove(a);
 
-		return null;
+		return a;
 	}
 
 	public InteractiveActor get(String actorId) {
-		for (InteractiveActor a : actors) {
-			if (a.getId().equals(actorId))
-				return a;
-		}
-
-		return null;
+		return actorsById.get(actorId);
 	}
 
+	/**
+	 * @return the actors in draw order. The list can not be modified, use
+	 *         addActor() and removeActor().
+	 */
 	public List<InteractiveActor> getActors() {
-		return actors;
+		return actorsView;
 	}
 
 	public void update(float delta) {
@@ -148,6 +154,7 @@ public class UIActors implements AssetConsumer, Serializable {
 	public void read(Json json, JsonValue jsonData) {
 
 		actors.clear();
+		actorsById.clear();
 
 		JsonValue jsonValueActors = jsonData.get("actors");
 		SceneActorRef actorRef;
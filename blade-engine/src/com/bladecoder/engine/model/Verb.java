@@ -23,6 +23,7 @@ import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.SerializationException;
 import com.bladecoder.engine.actions.Action;
 import com.bladecoder.engine.actions.ActionCallback;
+import com.bladecoder.engine.actions.BaseCallbackAction;
 import com.bladecoder.engine.serialization.ActionCallbackSerializer;
 import com.bladecoder.engine.serialization.BladeJson;
 import com.bladecoder.engine.serialization.BladeJson.Mode;
@@ -173,6 +174,25 @@ public class Verb implements VerbRunner, Serializable {
 		return ip >= actions.size() || ip < 0;
 	}
 
+	/**
+	 * @return false if the verb is not running and its actions have no state. In
+	 *         that case, the verb is not saved and the model verb is used when
+	 *         loading.
+	 */
+	public boolean hasRuntimeState() {
+		if (!isFinished() || cb != null || currentTarget != null)
+			return true;
+
+		// the callback actions only save the verb callback and it is only set
+		// while the verb is running
+		for (Action a : actions) {
+			if (a instanceof Serializable && !(a instanceof BaseCallbackAction))
+				return true;
+		}
+
+		return false;
+	}
+
 	@Override
 	public void resume() {
 		ip++;
@@ -187,6 +207,20 @@ public class Verb implements VerbRunner, Serializable {
 		this.ip = ip;
 	}
 
+	/**
+	 * Sets the model state: not running and without callbacks.
+	 */
+	public void reset() {
+		ip = -1;
+		cb = null;
+		currentTarget = null;
+
+		for (Action a : actions) {
+			if (a instanceof BaseCallbackAction)
+				((BaseCallbackAction) a).setVerbCb(null);
+		}
+	}
+
 	public void cancel() {
 		ip = actions.size() + 1;
 
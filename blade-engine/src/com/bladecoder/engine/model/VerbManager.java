@@ -17,6 +17,7 @@ package com.bladecoder.engine.model;
 
 import java.text.MessageFormat;
 import java.util.HashMap;
+import java.util.Map;
 
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.Json.Serializable;
@@ -133,7 +134,21 @@ public class VerbManager implements Serializable {
 
 	@Override
 	public void write(Json json) {
-		json.writeValue("verbs", verbs, verbs.getClass(), Verb.class);
+		BladeJson bjson = (BladeJson) json;
+		if (bjson.getMode() == Mode.MODEL) {
+			json.writeValue("verbs", verbs, verbs.getClass(), Verb.class);
+		} else {
+			// Only the running verbs or with action state. The rest are equal to
+			// the model.
+			json.writeObjectStart("verbs");
+
+			for (Map.Entry<String, Verb> e : verbs.entrySet()) {
+				if (e.getValue().hasRuntimeState())
+					json.writeValue(e.getKey(), e.getValue(), Verb.class);
+			}
+
+			json.writeObjectEnd();
+		}
 	}
 
 	@SuppressWarnings("unchecked")
@@ -146,15 +161,20 @@ public class VerbManager implements Serializable {
 			
 			verbs = json.readValue("verbs", HashMap.class, Verb.class, jsonData);
 		} else {
-			for (String v : verbs.keySet()) {
-				Verb verb = verbs.get(v);
+			JsonValue jsonVerbs = jsonData.get("verbs");
+
+			// the verbs not saved are not running and have the model state
+			for (Verb v : verbs.values())
+				v.reset();
 
-				JsonValue jsonValue = jsonData.get("verbs").get(v);
+			for (JsonValue jsonValue = jsonVerbs == null ? null : jsonVerbs.child; jsonValue != null;
+					jsonValue = jsonValue.next) {
+				Verb verb = verbs.get(jsonValue.name);
 
-				if (jsonValue != null)
+				if (verb != null)
 					verb.read(json, jsonValue);
 				else
-					EngineLogger.debug("LOAD WARNING: Verb not found in saved game: " + jsonData.name + "." + v);
+					EngineLogger.debug("LOAD WARNING: Verb not found in model: " + jsonData.name + "." + jsonValue.name);
 			}
 		}
 	}
@@ -1,13 +1,24 @@
 package com.bladecoder.engine.model;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.audio.Music.OnCompletionListener;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.Json.Serializable;
 import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.Timer;
 import com.badlogic.gdx.utils.Timer.Task;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
 import com.bladecoder.engine.assets.AssetConsumer;
 import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.util.EngineLogger;
@@ -18,11 +29,20 @@ import com.bladecoder.engine.util.EngineLogger;
  * Plays a voice file, if another voice is playing, stops it before playing the
  * new voice.
  *
+ * The voices of the next texts in the TextManager queue are prefetched in
+ * background, so consecutive voiced texts play without gaps.
+ *
+ * The voices are loaded in its own thread and not in the asset manager queue,
+ * so a voice only waits for its own file.
+ *
  * @author rgarcia
  */
 public class VoiceManager implements Serializable, AssetConsumer {
 	transient private Music voice = null;
 
+	// the current voice while loading
+	transient private AsyncResult<Music> loadingVoice = null;
+
 	String fileName = null;
 
 	private boolean isPlayingSer = false;
@@ -30,30 +50,39 @@ public class VoiceManager implements Serializable, AssetConsumer {
 
 	// the music volume
 	private float volume = 1.0f;
-	
+
 	// the global configurable by user volume
 	public static float VOLUME_MULTIPLIER = 1f;
 
+	// number of voices of the queued texts to load in advance
+	private static final int PREFETCH_VOICES = 2;
+
+	private static AsyncExecutor voiceLoader;
+
+	// the prefetched voice files, in the queue order
+	transient private final LinkedHashMap<String, AsyncResult<Music>> prefetched = new LinkedHashMap<String, AsyncResult<Music>>(
+			PREFETCH_VOICES);
+	transient private final ArrayList<String> tmpUpcoming = new ArrayList<String>(PREFETCH_VOICES);
+
+	// released prefetched voices still loading. Disposed when loaded.
+	transient private final ArrayList<AsyncResult<Music>> released = new ArrayList<AsyncResult<Music>>();
+
 	transient private boolean isPaused = false;
 	transient private TextManager textManager = null;
 
+	// true if the voice is played when loaded in background
+	transient private boolean playWhenLoaded = false;
+
 	private final Task backgroundLoadingTask = new Task() {
 		@Override
 		public void run() {
-			try {
-				if (!EngineAssetManager.getInstance().isLoading()) {
-					cancel();
-					retrieveAssets();
-
-					if (voice != null)
-						voice.play();
-				}
+			if (loadingVoice == null || loadingVoice.isDone()) {
+				cancel();
 
-			} catch (GdxRuntimeException e) {
-				EngineLogger.error(e.getMessage());
-				voice = null;
-				fileName = null;
-				textManager.next();
+				if (playWhenLoaded)
+					retrieveAndPlay();
+				else
+					retrieveAssets();
 			}
 		}
 	};
@@ -77,10 +106,8 @@ public class VoiceManager implements Serializable, AssetConsumer {
 	}
 
 	public void stop() {
-		if (voice != null) {
-			voice.stop();
-
-			dispose();
+		if (voice != null || loadingVoice != null) {
+			disposeVoice();
 		}
 	}
 
@@ -90,12 +117,117 @@ public class VoiceManager implements Serializable, AssetConsumer {
 		this.fileName = fileName;
 
 		if (fileName != null) {
+			// the prefetched voice is used as the current voice
+			loadingVoice = prefetched.remove(fileName);
+
+			if (loadingVoice == null)
+				loadAssets();
+
 			// Load and play the voice file in background to avoid
 			// blocking the UI
-			loadAssets();
-			
-			backgroundLoadingTask.cancel();
-			Timer.schedule(backgroundLoadingTask, 0, 0);
+			playWhenLoaded = true;
+			retrieveAndPlay();
+		}
+	}
+
+	private void retrieveAndPlay() {
+		retrieveAssets();
+
+		if (voice != null) {
+			playWhenLoaded = false;
+			voice.play();
+		}
+	}
+
+	/**
+	 * Loads in background the voices of the first texts in the queue and
+	 * releases the prefetched voices that are not in the queue anymore.
+	 */
+	public void prefetch(Queue<Text> queue) {
+		tmpUpcoming.clear();
+
+		Iterator<Text> it = queue.iterator();
+
+		while (it.hasNext() && tmpUpcoming.size() < PREFETCH_VOICES) {
+			String v = it.next().voiceId;
+
+			if (v != null && !v.equals(fileName) && !tmpUpcoming.contains(v))
+				tmpUpcoming.add(v);
+		}
+
+		// release the voices that are not needed
+		Iterator<Map.Entry<String, AsyncResult<Music>>> pit = prefetched.entrySet().iterator();
+
+		while (pit.hasNext()) {
+			Map.Entry<String, AsyncResult<Music>> e = pit.next();
+
+			if (!tmpUpcoming.contains(e.getKey())) {
+				EngineLogger.debug("RELEASING PREFETCHED VOICE: " + e.getKey());
+				released.add(e.getValue());
+				pit.remove();
+			}
+		}
+
+		for (int i = 0; i < tmpUpcoming.size(); i++) {
+			String v = tmpUpcoming.get(i);
+
+			if (!prefetched.containsKey(v)) {
+				EngineLogger.debug("PREFETCHING VOICE: " + v);
+				prefetched.put(v, load(v));
+			}
+		}
+	}
+
+	/**
+	 * Disposes the released voices that have finished loading.
+	 */
+	public void update() {
+		for (int i = 0; i < released.size(); i++) {
+			if (released.get(i).isDone())
+				dispose(released.remove(i--));
+		}
+	}
+
+	/**
+	 * @return true if no voice is loading in background.
+	 */
+	public boolean isIdle() {
+		if (backgroundLoadingTask.isScheduled())
+			return false;
+
+		for (AsyncResult<Music> r : prefetched.values()) {
+			if (!r.isDone())
+				return false;
+		}
+
+		return true;
+	}
+
+	private static AsyncResult<Music> load(String fileName) {
+		final FileHandle file = EngineAssetManager.getInstance().getAsset(EngineAssetManager.VOICE_DIR + fileName);
+
+		if (voiceLoader == null)
+			voiceLoader = new AsyncExecutor(1);
+
+		return voiceLoader.submit(new AsyncTask<Music>() {
+			@Override
+			public Music call() throws Exception {
+				return Gdx.audio.newMusic(file);
+			}
+		});
+	}
+
+	/**
+	 * Waits for the voice to load and disposes it.
+	 */
+	private static void dispose(AsyncResult<Music> result) {
+		try {
+			Music m = result.get();
+
+			if (m != null)
+				m.dispose();
+		} catch (GdxRuntimeException e) {
+			// not loaded
 		}
 	}
 
@@ -108,13 +240,40 @@ public class VoiceManager implements Serializable, AssetConsumer {
 
 	@Override
 	public void dispose() {
+		disposeVoice();
+
+		for (AsyncResult<Music> r : prefetched.values())
+			dispose(r);
+
+		prefetched.clear();
+
+		for (int i = 0; i < released.size(); i++)
+			dispose(released.get(i));
+
+		released.clear();
+	}
+
+	private void disposeVoice() {
+		backgroundLoadingTask.cancel();
+		playWhenLoaded = false;
+
+		if (loadingVoice != null) {
+			EngineLogger.debug("DISPOSING LOADING VOICE: " + fileName);
+			dispose(loadingVoice);
+
+			loadingVoice = null;
+			fileName = null;
+			isPlayingSer = false;
+			voicePosSer = 0;
+		}
+
 		if (voice != null) {
 
 			if (voice.isPlaying())
 				voice.stop();
 
 			EngineLogger.debug("DISPOSING VOICE: " + fileName);
-			EngineAssetManager.getInstance().unload(EngineAssetManager.VOICE_DIR + fileName);
+			voice.dispose();
 
 			voice = null;
 			fileName = null;
@@ -125,9 +284,9 @@ public class VoiceManager implements Serializable, AssetConsumer {
 
 	@Override
 	public void loadAssets() {
-		if (voice == null && fileName != null) {
+		if (voice == null && loadingVoice == null && fileName != null) {
 			EngineLogger.debug("LOADING VOICE: " + fileName);
-			EngineAssetManager.getInstance().load(EngineAssetManager.VOICE_DIR + fileName, Music.class);
+			loadingVoice = load(fileName);
 		}
 	}
 
@@ -137,7 +296,32 @@ public class VoiceManager implements Serializable, AssetConsumer {
 
 			EngineLogger.debug("RETRIEVING VOICE: " + fileName);
 
-			voice = EngineAssetManager.getInstance().get(EngineAssetManager.VOICE_DIR + fileName, Music.class);
+			loadAssets();
+
+			// the GL thread is not blocked, retrieved from the task when loaded
+			if (!loadingVoice.isDone()) {
+				if (!backgroundLoadingTask.isScheduled())
+					Timer.schedule(backgroundLoadingTask, 0, 0);
+
+				return;
+			}
+
+			AsyncResult<Music> result = loadingVoice;
+			loadingVoice = null;
+
+			try {
+				voice = result.get();
+			} catch (GdxRuntimeException e) {
+				// go on without the voice
+				EngineLogger.error("Error loading voice: " + fileName + " - " + e.getMessage());
+
+				fileName = null;
+				playWhenLoaded = false;
+				isPlayingSer = false;
+				voicePosSer = 0;
+
+				return;
+			}
 
 			voice.setOnCompletionListener(new OnCompletionListener() {
 				@Override
@@ -16,8 +16,7 @@
 package com.bladecoder.engine.model;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.IntBuffer;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,23 +26,16 @@ import javax.xml.parsers.ParserConfigurationException;
 import org.minimalcode.beans.ObjectWrapper;
 import org.xml.sax.SAXException;
 
-import com.badlogic.gdx.Application.ApplicationType;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.graphics.GL20;
-import com.badlogic.gdx.graphics.Pixmap;
-import com.badlogic.gdx.graphics.Pixmap.Format;
-import com.badlogic.gdx.graphics.PixmapIO;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.BufferUtils;
-import com.badlogic.gdx.utils.ScreenUtils;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import com.bladecoder.engine.assets.AssetConsumer;
 import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.ink.InkManager;
+import com.bladecoder.engine.serialization.SaveSlotIndex;
 import com.bladecoder.engine.serialization.WorldSerialization;
 import com.bladecoder.engine.util.EngineLogger;
 import com.bladecoder.engine.util.FileUtils;
@@ -52,6 +44,8 @@ public class World implements AssetConsumer {
 
 	private static final String GAMESTATE_FILENAME = "default" + WorldSerialization.GAMESTATE_EXT;
 	private static final String DEFAULT_INVENTORY = "DEFAULT";
+	private static final int MAX_PROPERTY_PATHS = 256;
+	private static final int MAX_CATCHUP_STEPS = 5;
 
 	public static enum AssetState {
 		LOADED, LOADING, LOADING_AND_INIT_SCENE, LOAD_ASSETS, LOAD_ASSETS_AND_INIT_SCENE
@@ -103,6 +97,11 @@ public class World implements AssetConsumer {
 	// ------------ LAZY CREATED OBJECTS ------------
 	private InkManager inkManager;
 	private ObjectWrapper wrapper;
+	private HashMap<String, PropertyPath> propertyPaths;
+
+	// incremented when scenes or actors are added or removed, invalidates the
+	// targets cached by the model property paths and the registered callbacks.
+	private int modelVersion;
 
 	// ------------ TRANSIENT OBJECTS ------------
 	private AssetState assetState;
@@ -122,6 +121,13 @@ public class World implements AssetConsumer {
 	// If true call 'initNewGame' or 'initSavedGame' verbs.
 	private boolean initGame;
 
+	// ------------ FIXED TIMESTEP ------------
+	// duration of the fixed update step. 0 for variable timestep.
+	transient private float fixedStep;
+	transient private float accumulator;
+	transient private int stepCount;
+	transient private float stepAlpha = 1;
+
 	private final WorldSerialization serialization = new WorldSerialization(this);
 
 	public World() {
@@ -135,6 +141,8 @@ public class World implements AssetConsumer {
 		setCurrentInventory(DEFAULT_INVENTORY);
 
 		scenes.clear();
+		serialization.releaseIndex();
+		modelChanged();
 		sounds.clear();
 
 		uiActors = new UIActors(this);
@@ -145,7 +153,9 @@ public class World implements AssetConsumer {
 
 		customProperties.clear();
 
-		spriteBatch = new SpriteBatch();
+		// The batch is created lazily in draw() so the world can be updated
+		// without a GL context.
+		spriteBatch = null;
 
 		transition = new Transition();
 
@@ -222,11 +232,41 @@ public class World implements AssetConsumer {
 
 	public void draw() {
 		if (assetState == AssetState.LOADED) {
+			if (spriteBatch == null)
+				spriteBatch = new SpriteBatch();
+
 			getCurrentScene().draw(spriteBatch);
 			uiActors.draw(spriteBatch);
 		}
 	}
 
+	/**
+	 * @return true if nothing changes when the world is updated, so the screen
+	 *         doesn't need to be rendered until there is input.
+	 */
+	public boolean isIdle() {
+		if (paused)
+			return true;
+
+		if (assetState != AssetState.LOADED || !transition.isIdle() || !musicManager.isIdle()
+				|| !getCurrentScene().isIdle())
+			return false;
+
+		for (InteractiveActor a : uiActors.getActors()) {
+			if (a instanceof SpriteActor && !((SpriteActor) a).isIdle())
+				return false;
+		}
+
+		Inventory inventory = getInventory();
+
+		for (int i = 0; i < inventory.getNumItems(); i++) {
+			if (!inventory.get(i).isIdle())
+				return false;
+		}
+
+		return true;
+	}
+
 	public void update(float delta) {
 		if (assetState == AssetState.LOAD_ASSETS || assetState == AssetState.LOAD_ASSETS_AND_INIT_SCENE) {
 			loadAssets();
@@ -295,6 +335,79 @@ public class World implements AssetConsumer {
 		musicManager.update(delta);
 	}
 
+	/**
+	 * Sets the duration of the fixed update step. With a fixed timestep the world
+	 * is updated in steps of the same duration, so the game is deterministic and
+	 * the recorded games are played back exactly. The actors are drawn
+	 * interpolating between the two last steps.
+	 * 
+	 * @param step the step duration in seconds. 0 to update with the frame delta.
+	 */
+	public void setFixedTimestep(float step) {
+		fixedStep = step;
+		accumulator = 0;
+	}
+
+	public float getFixedTimestep() {
+		return fixedStep;
+	}
+
+	/**
+	 * @return true if the world must be updated using accumulateSteps() and
+	 *         step(). False if the frame delta must be passed to update().
+	 */
+	public boolean isFixedTimestep() {
+		return fixedStep > 0 && !paused && assetState == AssetState.LOADED;
+	}
+
+	/**
+	 * Adds the frame time to the accumulator.
+	 * 
+	 * @return the number of steps to update in this frame.
+	 */
+	public int accumulateSteps(float delta) {
+		accumulator += delta;
+
+		int steps = (int) (accumulator / fixedStep);
+
+		if (steps > MAX_CATCHUP_STEPS) {
+			// the remaining time is dropped to not fall behind forever when the
+			// device can not update at the step rate.
+			steps = MAX_CATCHUP_STEPS;
+			accumulator = 0;
+		} else {
+			accumulator -= steps * fixedStep;
+		}
+
+		stepAlpha = Math.min(1, accumulator / fixedStep);
+
+		return steps;
+	}
+
+	/**
+	 * Updates the world a fixed step.
+	 */
+	public void step() {
+		stepCount++;
+		update(fixedStep);
+	}
+
+	/**
+	 * @return the number of fixed steps updated. Used by the actors to know if
+	 *         its previous position is from the last step.
+	 */
+	public int getStepCount() {
+		return stepCount;
+	}
+
+	/**
+	 * @return the elapsed fraction of the next step to interpolate the positions
+	 *         when drawing. 1 when not using a fixed timestep.
+	 */
+	public float getStepAlpha() {
+		return isFixedTimestep() ? stepAlpha : 1;
+	}
+
 	@Override
 	public void loadAssets() {
 		currentScene.loadAssets();
@@ -410,6 +523,8 @@ public class World implements AssetConsumer {
 		currentScene = scene;
 
 		musicManager.leaveScene(currentScene.getMusicDesc());
+
+		serialization.releaseScenes();
 	}
 
 	public Inventory getInventory() {
@@ -430,16 +545,91 @@ public class World implements AssetConsumer {
 
 	public void addScene(Scene scene) {
 		scenes.put(scene.getId(), scene);
+		modelChanged();
 	}
 
+	/**
+	 * Replaces a scene with a new instance with the same id. Used to reload the
+	 * model while playing.
+	 * 
+	 * If it is the current scene, the new scene assets are loaded before
+	 * disposing the old scene so the shared assets are not reloaded.
+	 */
+	public void replaceScene(Scene scene) {
+		Scene old = scenes.put(scene.getId(), scene);
+		modelChanged();
+
+		if (old == null)
+			return;
+
+		if (old == cachedScene) {
+			cachedScene.dispose();
+			cachedScene = null;
+		} else if (old == currentScene) {
+			scene.loadAssets();
+
+			old.getSoundManager().stop();
+			old.dispose();
+
+			currentScene = scene;
+			assetState = AssetState.LOADING;
+		}
+	}
+
+	/**
+	 * Removes a scene that is not the current scene. Used to reload the model
+	 * while playing.
+	 */
+	public void removeScene(String id) {
+		Scene old = scenes.get(id);
+
+		if (old == null)
+			return;
+
+		if (old == currentScene) {
+			EngineLogger.error("The current scene can not be removed: " + id);
+			return;
+		}
+
+		scenes.remove(id);
+		modelChanged();
+
+		if (old == cachedScene) {
+			cachedScene.dispose();
+			cachedScene = null;
+		}
+	}
+
+	/**
+	 * Returns a scene of the current chapter. With lazy scenes, the scene is
+	 * loaded from the chapter if it is not loaded yet.
+	 */
 	public Scene getScene(String id) {
-		return scenes.get(id);
+		Scene s = scenes.get(id);
+
+		if (s == null)
+			s = serialization.loadScene(id);
+
+		return s;
 	}
 
+	/**
+	 * Returns the loaded scenes. With lazy scenes, this doesn't include the
+	 * scenes not used yet, see getSceneIds().
+	 */
 	public Map<String, Scene> getScenes() {
 		return scenes;
 	}
 
+	/**
+	 * @return the ids of all the scenes of the current chapter, loaded or not.
+	 */
+	public Collection<String> getSceneIds() {
+		Collection<String> ids = serialization.getChapterSceneIds();
+
+		return ids != null ? ids : scenes.keySet();
+	}
+
 	public void setCutMode(boolean v) {
 		cutMode = v;
 
@@ -451,7 +641,7 @@ public class World implements AssetConsumer {
 		if (id.equals("$" + WorldProperties.PREVIOUS_SCENE.toString()))
 			id = getCustomProperty(WorldProperties.PREVIOUS_SCENE.toString());
 
-		Scene s = scenes.get(id);
+		Scene s = getScene(id);
 
 		if (s != null) {
 			setCurrentScene(s, init);
@@ -593,9 +783,11 @@ public class World implements AssetConsumer {
 			getInventory().dispose();
 			uiActors.dispose();
 
-			spriteBatch.dispose();
+			if (spriteBatch != null)
+				spriteBatch.dispose();
 
 			Sprite3DRenderer.disposeBatchs();
+			ScreenshotCapture.dispose();
 
 			assetState = null;
 
@@ -701,18 +893,21 @@ public class World implements AssetConsumer {
 	// ********** SERIALIZATION **********
 
 	public void saveGameState() throws IOException {
-		boolean takeScreenshot = false;
-
-		// Only take screenshot for desktop. For iOs or Android is slow.
-		if (Gdx.app.getType() == ApplicationType.Desktop)
-			takeScreenshot = true;
-
-		serialization.saveGameState(GAMESTATE_FILENAME, takeScreenshot);
+		serialization.saveGameState(GAMESTATE_FILENAME, true);
 	}
 
 	public void removeGameState(String filename) throws IOException {
 		EngineAssetManager.getInstance().getUserFile(filename).delete();
-		EngineAssetManager.getInstance().getUserFile(filename + ".png").delete();
+		ScreenshotCapture.delete(EngineAssetManager.getInstance().getUserFile(filename + ".png"));
+
+		String slot = SaveSlotIndex.getSlotName(filename);
+
+		if (slot != null) {
+			SaveSlotIndex index = SaveSlotIndex.load();
+
+			if (index.remove(slot))
+				index.save();
+		}
 	}
 
 	/**
@@ -746,14 +941,89 @@ public class World implements AssetConsumer {
 		return wrapper;
 	}
 
+	/**
+	 * Must be called when scenes or actors are added or removed from the model.
+	 */
+	public void modelChanged() {
+		modelVersion++;
+	}
+
+	public int getModelVersion() {
+		return modelVersion;
+	}
+
+	/**
+	 * @return the compiled path or null if the path must be resolved by the
+	 *         ObjectWrapper.
+	 */
+	private PropertyPath getPropertyPath(String prop) {
+		if (propertyPaths == null)
+			propertyPaths = new HashMap<>();
+
+		PropertyPath p = propertyPaths.get(prop);
+
+		if (p == null && !propertyPaths.containsKey(prop)) {
+			// the paths can be generated by the scripts
+			if (propertyPaths.size() >= MAX_PROPERTY_PATHS)
+				propertyPaths.clear();
+
+			p = PropertyPath.compile(prop);
+			propertyPaths.put(prop, p);
+		}
+
+		return p;
+	}
+
 	public void setModelProp(String prop, String value) {
+		PropertyPath p = getPropertyPath(prop);
+
+		try {
+			if (p != null && p.setValue(this, value))
+				return;
+		} catch (IllegalArgumentException e) {
+			// not resolved by the compiled path, try with the ObjectWrapper
+		}
+
+		loadPathScene(prop);
 		getObjectWrapper().setValue(prop, value);
 	}
 
 	public Object getModelProp(String prop) {
+		PropertyPath p = getPropertyPath(prop);
+
+		if (p != null) {
+			try {
+				return p.getValue(this);
+			} catch (IllegalArgumentException e) {
+				// not resolved by the compiled path, try with the ObjectWrapper
+			}
+		}
+
+		loadPathScene(prop);
 		return getObjectWrapper().getValue(prop);
 	}
 
+	/**
+	 * The ObjectWrapper reads the scenes map, so a lazy scene in the path must be
+	 * loaded before.
+	 */
+	private void loadPathScene(String prop) {
+		if (!prop.startsWith("scenes["))
+			return;
+
+		int end = prop.indexOf(']');
+
+		if (end == -1)
+			return;
+
+		String id = prop.substring("scenes[".length(), end).trim();
+
+		if (id.length() >= 2 && (id.charAt(0) == '\'' || id.charAt(0) == '"'))
+			id = id.substring(1, id.length() - 1);
+
+		getScene(id);
+	}
+
 	public void loadChapter(String chapter, String scene, boolean test) throws Exception {
 		if (test)
 			this.testScene = scene;
@@ -806,39 +1076,13 @@ public class World implements AssetConsumer {
 		assetState = AssetState.LOAD_ASSETS;
 	}
 
+	/**
+	 * Draws the current scene in a screenshot. The PNG file is written in
+	 * background.
+	 */
 	public void takeScreenshot(String filename, int w) {
-
-		// get viewport
-		IntBuffer results = BufferUtils.newIntBuffer(16);
-		Gdx.gl20.glGetIntegerv(GL20.GL_VIEWPORT, results);
-
 		int h = (int) (w * getSceneCamera().viewportHeight / getSceneCamera().viewportWidth);
 
-		FrameBuffer fbo = new FrameBuffer(Format.RGB565, w, h, false);
-
-		fbo.begin();
-		Gdx.gl.glClearColor(0, 0, 0, 1);
-		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
-		draw();
-		Pixmap pixmap = ScreenUtils.getFrameBufferPixmap(0, 0, w, h);
-
-		// restore viewport
-		fbo.end(results.get(0), results.get(1), results.get(2), results.get(3));
-
-		// Flip the pixmap upside down
-		ByteBuffer pixels = pixmap.getPixels();
-		int numBytes = w * h * 4;
-		byte[] lines = new byte[numBytes];
-		int numBytesPerLine = w * 4;
-		for (int i = 0; i < h; i++) {
-			pixels.position((h - i - 1) * numBytesPerLine);
-			pixels.get(lines, i * numBytesPerLine, numBytesPerLine);
-		}
-		pixels.clear();
-		pixels.put(lines);
-
-		PixmapIO.writePNG(EngineAssetManager.getInstance().getUserFile(filename), pixmap);
-
-		fbo.dispose();
+		ScreenshotCapture.capture(this, EngineAssetManager.getInstance().getUserFile(filename), w, h);
 	}
 }
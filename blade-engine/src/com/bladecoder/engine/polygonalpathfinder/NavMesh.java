@@ -0,0 +1,692 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.polygonalpathfinder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.badlogic.gdx.math.GeometryUtils;
+import com.badlogic.gdx.math.Intersector;
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.FloatArray;
+import com.bladecoder.engine.util.EngineLogger;
+import com.bladecoder.engine.util.PolygonUtils;
+
+/**
+ * Navigation mesh of a walkzone with obstacles.
+ *
+ * The walkzone minus the obstacles is triangulated. Paths are searched with A*
+ * over the adjacent triangles and the resulting corridor is straightened with
+ * the funnel algorithm.
+ *
+ * The search cost depends on the number of triangles crossed and not on the
+ * number of visible vertex pairs like the visibility graph, so it scales
+ * better with complex walkzones.
+ *
+ * Obstacles must be inside the walkzone and must not overlap. Other obstacles
+ * are ignored.
+ *
+ * @author rgarcia
+ */
+public class NavMesh {
+	private static final float EPSILON = 0.001f;
+
+	// 3 vertices per triangle, 2 floats per vertex, in counterclockwise order
+	private float[] verts = new float[0];
+
+	// adjacent triangle for every triangle edge or -1 if it is a border. Edge i
+	// goes from vertex i to vertex (i + 1) % 3
+	private int[] adjacency = new int[0];
+	private int numTriangles = 0;
+
+	// A* data by triangle
+	private float[] cost = new float[0];
+	private float[] posX = new float[0];
+	private float[] posY = new float[0];
+	private int[] parent = new int[0];
+	private int[] parentEdge = new int[0];
+	private int[] visited = new int[0];
+	private int[] closed = new int[0];
+	private int searchId = 0;
+
+	// open list, binary heap
+	private int[] heap = new int[16];
+	private float[] heapF = new float[16];
+	private int heapSize = 0;
+
+	// corridor and funnel portals
+	private int[] corridor = new int[16];
+	private final FloatArray portals = new FloatArray();
+
+	private final Vector2 tmp = new Vector2();
+	private final Vector2 source = new Vector2();
+	private final Vector2 target = new Vector2();
+
+	/**
+	 * Triangulates the walkzone and the obstacles inside it.
+	 */
+	public void build(Polygon walkZone, ArrayList<Polygon> obstacles) {
+		FloatArray poly = new FloatArray(walkZone.getTransformedVertices());
+
+		if (GeometryUtils.isClockwise(poly.items, 0, poly.size))
+			reverse(poly);
+
+		// the holes must be in the opposite order of the walkzone
+		ArrayList<FloatArray> holes = new ArrayList<FloatArray>();
+
+		for (int i = 0; i < obstacles.size(); i++) {
+			Polygon o = obstacles.get(i);
+
+			if (!isInside(walkZone, o, obstacles)) {
+				EngineLogger.debug("NavMesh: Obstacle not inside the walkzone or overlapped. Ignored.");
+				continue;
+			}
+
+			FloatArray h = new FloatArray(o.getTransformedVertices());
+
+			if (!GeometryUtils.isClockwise(h.items, 0, h.size))
+				reverse(h);
+
+			holes.add(h);
+		}
+
+		// join the holes to the walkzone by a bridge to get a single polygon
+		while (!holes.isEmpty()) {
+			FloatArray h = holes.remove(holes.size() - 1);
+
+			if (!bridge(poly, h, holes))
+				EngineLogger.debug("NavMesh: Bridge not found for obstacle. Ignored.");
+		}
+
+		triangulate(poly);
+		calcAdjacency();
+
+		cost = new float[numTriangles];
+		posX = new float[numTriangles];
+		posY = new float[numTriangles];
+		parent = new int[numTriangles];
+		parentEdge = new int[numTriangles];
+		visited = new int[numTriangles];
+		closed = new int[numTriangles];
+		searchId = 0;
+	}
+
+	/**
+	 * Ear clipping of a counterclockwise polygon.
+	 * 
+	 * The EarClippingTriangulator of libgdx only checks the concave vertices
+	 * inside the ears. The bridge vertices of the holes are duplicated and
+	 * every copy can be convex, so they are also checked here.
+	 */
+	private void triangulate(FloatArray poly) {
+		float[] p = poly.items;
+		int n = poly.size / 2;
+		int[] prev = new int[n];
+		int[] next = new int[n];
+		boolean[] duplicated = new boolean[n];
+		HashMap<Long, Integer> positions = new HashMap<Long, Integer>();
+
+		for (int i = 0; i < n; i++) {
+			prev[i] = i == 0 ? n - 1 : i - 1;
+			next[i] = i == n - 1 ? 0 : i + 1;
+
+			Integer other = positions.put(positionKey(p[i * 2], p[i * 2 + 1]), i);
+
+			if (other != null)
+				duplicated[i] = duplicated[other] = true;
+		}
+
+		FloatArray triangles = new FloatArray(n * 6);
+		int remaining = n;
+		int i = 0;
+		int tries = 0;
+
+		while (remaining > 3) {
+			int a = prev[i];
+			int c = next[i];
+			float area = area2(p[a * 2], p[a * 2 + 1], p[i * 2], p[i * 2 + 1], p[c * 2], p[c * 2 + 1]);
+
+			if (area > EPSILON) {
+				if (isEarBlocked(p, prev, next, duplicated, a, i, c)) {
+					area = -1;
+				} else {
+					triangles.add(p[a * 2], p[a * 2 + 1], p[i * 2], p[i * 2 + 1]);
+					triangles.add(p[c * 2], p[c * 2 + 1]);
+				}
+			}
+
+			if (area < -EPSILON) {
+				// not an ear, try the next vertex
+				if (++tries == remaining)
+					break;
+
+				i = c;
+				continue;
+			}
+
+			// remove the ear or the collinear vertex
+			next[a] = c;
+			prev[c] = a;
+			remaining--;
+			tries = 0;
+			i = a;
+		}
+
+		if (remaining == 3) {
+			int a = prev[i];
+			int c = next[i];
+
+			if (area2(p[a * 2], p[a * 2 + 1], p[i * 2], p[i * 2 + 1], p[c * 2], p[c * 2 + 1]) > EPSILON) {
+				triangles.add(p[a * 2], p[a * 2 + 1], p[i * 2], p[i * 2 + 1]);
+				triangles.add(p[c * 2], p[c * 2 + 1]);
+			}
+		} else if (remaining > 3) {
+			EngineLogger.debug("NavMesh: Walkzone not simple. Triangulation incomplete.");
+		}
+
+		verts = triangles.toArray();
+		numTriangles = verts.length / 6;
+	}
+
+	/**
+	 * @return true if a vertex that can block the ear is inside the triangle.
+	 */
+	private static boolean isEarBlocked(float[] p, int[] prev, int[] next, boolean[] duplicated, int a, int b,
+			int c) {
+		float ax = p[a * 2], ay = p[a * 2 + 1];
+		float bx = p[b * 2], by = p[b * 2 + 1];
+		float cx = p[c * 2], cy = p[c * 2 + 1];
+
+		for (int j = next[c]; j != a; j = next[j]) {
+			float x = p[j * 2], y = p[j * 2 + 1];
+
+			// only concave and duplicated vertices can be inside an ear
+			if (!duplicated[j]
+					&& area2(p[prev[j] * 2], p[prev[j] * 2 + 1], x, y, p[next[j] * 2], p[next[j] * 2 + 1]) > 0)
+				continue;
+
+			if ((x == ax && y == ay) || (x == bx && y == by) || (x == cx && y == cy))
+				continue;
+
+			if (area2(ax, ay, bx, by, x, y) >= 0 && area2(bx, by, cx, cy, x, y) >= 0
+					&& area2(cx, cy, ax, ay, x, y) >= 0)
+				return true;
+		}
+
+		return false;
+	}
+
+	private static long positionKey(float x, float y) {
+		return ((long) Float.floatToIntBits(x) << 32) | (Float.floatToIntBits(y) & 0xffffffffL);
+	}
+
+	/**
+	 * Links the triangles that share an edge. The bridge vertices are
+	 * duplicated in the polygon so the vertices are compared by position.
+	 */
+	private void calcAdjacency() {
+		HashMap<Long, Integer> ids = new HashMap<Long, Integer>();
+		int[] vertexIds = new int[numTriangles * 3];
+
+		for (int i = 0; i < vertexIds.length; i++) {
+			long key = positionKey(verts[i * 2], verts[i * 2 + 1]);
+			Integer id = ids.get(key);
+
+			if (id == null) {
+				id = ids.size();
+				ids.put(key, id);
+			}
+
+			vertexIds[i] = id;
+		}
+
+		adjacency = new int[numTriangles * 3];
+		HashMap<Long, Integer> edges = new HashMap<Long, Integer>();
+
+		for (int i = 0; i < adjacency.length; i++) {
+			adjacency[i] = -1;
+
+			int v0 = vertexIds[i];
+			int v1 = vertexIds[i % 3 == 2 ? i - 2 : i + 1];
+			long key = ((long) Math.min(v0, v1) << 32) | Math.max(v0, v1);
+			Integer other = edges.remove(key);
+
+			if (other == null) {
+				edges.put(key, i);
+			} else {
+				adjacency[i] = other / 3;
+				adjacency[other] = i / 3;
+			}
+		}
+	}
+
+	private static boolean isInside(Polygon walkZone, Polygon o, ArrayList<Polygon> obstacles) {
+		float v[] = o.getTransformedVertices();
+
+		for (int i = 0; i < v.length; i += 2) {
+			if (!PolygonUtils.isPointInside(walkZone, v[i], v[i + 1], false))
+				return false;
+
+			for (int j = 0; j < obstacles.size(); j++) {
+				Polygon o2 = obstacles.get(j);
+
+				if (o2 != o && PolygonUtils.isPointInside(o2, v[i], v[i + 1], true))
+					return false;
+			}
+
+			int j = (i + 2) % v.length;
+
+			if (crosses(walkZone.getTransformedVertices(), v[i], v[i + 1], v[j], v[j + 1]))
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Joins the hole to the polygon by the shortest bridge that doesn't cross
+	 * the polygon or the pending holes.
+	 */
+	private static boolean bridge(FloatArray poly, FloatArray hole, ArrayList<FloatArray> holes) {
+		int bestP = -1;
+		int bestH = -1;
+		float bestDist = Float.MAX_VALUE;
+
+		for (int h = 0; h < hole.size; h += 2) {
+			float hx = hole.get(h);
+			float hy = hole.get(h + 1);
+
+			for (int p = 0; p < poly.size; p += 2) {
+				float px = poly.get(p);
+				float py = poly.get(p + 1);
+				float d = Vector2.dst2(hx, hy, px, py);
+
+				if (d >= bestDist || crosses(poly.items, poly.size, px, py, hx, hy)
+						|| crosses(hole.items, hole.size, px, py, hx, hy))
+					continue;
+
+				boolean free = true;
+
+				for (int i = 0; i < holes.size() && free; i++)
+					free = !crosses(holes.get(i).items, holes.get(i).size, px, py, hx, hy);
+
+				if (free && isInside(poly, (px + hx) / 2, (py + hy) / 2)) {
+					bestDist = d;
+					bestP = p;
+					bestH = h;
+				}
+			}
+		}
+
+		if (bestP == -1)
+			return false;
+
+		// poly[0..p], hole[h..], hole[..h], hole[h], poly[p..]
+		FloatArray merged = new FloatArray(poly.size + hole.size + 4);
+		merged.addAll(poly, 0, bestP + 2);
+		merged.addAll(hole, bestH, hole.size - bestH);
+		merged.addAll(hole, 0, bestH + 2);
+		merged.addAll(poly, bestP, poly.size - bestP);
+
+		poly.clear();
+		poly.addAll(merged);
+
+		return true;
+	}
+
+	private static boolean crosses(float[] v, float ax, float ay, float bx, float by) {
+		return crosses(v, v.length, ax, ay, bx, by);
+	}
+
+	private static boolean crosses(float[] v, int size, float ax, float ay, float bx, float by) {
+		for (int i = 0; i < size; i += 2) {
+			int j = (i + 2) % size;
+
+			if (PolygonUtils.lineSegmentsCross(ax, ay, bx, by, v[i], v[i + 1], v[j], v[j + 1]))
+				return true;
+		}
+
+		return false;
+	}
+
+	private static boolean isInside(FloatArray poly, float x, float y) {
+		boolean inside = false;
+
+		for (int i = 0, j = poly.size - 2; i < poly.size; j = i, i += 2) {
+			float xi = poly.get(i), yi = poly.get(i + 1);
+			float xj = poly.get(j), yj = poly.get(j + 1);
+
+			if (((yi > y) != (yj > y)) && (x < (xj - xi) * (y - yi) / (yj - yi) + xi))
+				inside = !inside;
+		}
+
+		return inside;
+	}
+
+	private static void reverse(FloatArray p) {
+		for (int i = 0, j = p.size - 2; i < j; i += 2, j -= 2) {
+			float x = p.get(i);
+			float y = p.get(i + 1);
+			p.set(i, p.get(j));
+			p.set(i + 1, p.get(j + 1));
+			p.set(j, x);
+			p.set(j + 1, y);
+		}
+	}
+
+	private static float area2(float ax, float ay, float bx, float by, float cx, float cy) {
+		return (bx - ax) * (cy - ay) - (cx - ax) * (by - ay);
+	}
+
+	/**
+	 * Searchs the path between the points. Points outside the mesh are moved
+	 * to the nearest triangle.
+	 *
+	 * @return false if the points are not connected.
+	 */
+	public boolean findPath(float sx, float sy, float tx, float ty, NavPathPolygonal path) {
+		path.clear();
+
+		if (numTriangles == 0)
+			return false;
+
+		source.set(sx, sy);
+		target.set(tx, ty);
+
+		int start = locate(source);
+		int end = locate(target);
+
+		if (start != end && !search(start, end))
+			return false;
+
+		stringPull(start, end, path);
+
+		return true;
+	}
+
+	/**
+	 * @return the triangle that contains the point. If no triangle contains
+	 *         it, the point is moved to the nearest triangle.
+	 */
+	private int locate(Vector2 p) {
+		for (int t = 0; t < numTriangles; t++) {
+			int i = t * 6;
+
+			if (area2(verts[i], verts[i + 1], verts[i + 2], verts[i + 3], p.x, p.y) >= -EPSILON
+					&& area2(verts[i + 2], verts[i + 3], verts[i + 4], verts[i + 5], p.x, p.y) >= -EPSILON
+					&& area2(verts[i + 4], verts[i + 5], verts[i], verts[i + 1], p.x, p.y) >= -EPSILON)
+				return t;
+		}
+
+		int nearest = 0;
+		float nearestX = p.x, nearestY = p.y;
+		float bestDist = Float.MAX_VALUE;
+
+		for (int t = 0; t < numTriangles; t++) {
+			for (int e = 0; e < 3; e++) {
+				int i = t * 6 + e * 2;
+				int j = t * 6 + (e + 1) % 3 * 2;
+
+				Intersector.nearestSegmentPoint(verts[i], verts[i + 1], verts[j], verts[j + 1], p.x, p.y, tmp);
+
+				float d = tmp.dst2(p);
+
+				if (d < bestDist) {
+					bestDist = d;
+					nearest = t;
+					nearestX = tmp.x;
+					nearestY = tmp.y;
+				}
+			}
+		}
+
+		p.set(nearestX, nearestY);
+
+		return nearest;
+	}
+
+	/**
+	 * A* over the triangles. The position of a triangle is the middle of the
+	 * edge used to reach it.
+	 */
+	private boolean search(int start, int end) {
+		searchId++;
+		heapSize = 0;
+
+		visited[start] = searchId;
+		cost[start] = 0;
+		posX[start] = source.x;
+		posY[start] = source.y;
+		parent[start] = -1;
+		push(start, source.dst(target));
+
+		while (heapSize > 0) {
+			int t = pop();
+
+			if (closed[t] == searchId)
+				continue;
+
+			if (t == end)
+				return true;
+
+			closed[t] = searchId;
+
+			for (int e = 0; e < 3; e++) {
+				int n = adjacency[t * 3 + e];
+
+				if (n == -1 || closed[n] == searchId)
+					continue;
+
+				int i = t * 6 + e * 2;
+				int j = t * 6 + (e + 1) % 3 * 2;
+				float mx, my;
+
+				if (n == end) {
+					mx = target.x;
+					my = target.y;
+				} else {
+					mx = (verts[i] + verts[j]) / 2;
+					my = (verts[i + 1] + verts[j + 1]) / 2;
+				}
+
+				float c = cost[t] + Vector2.dst(posX[t], posY[t], mx, my);
+
+				if (visited[n] != searchId || c < cost[n]) {
+					visited[n] = searchId;
+					cost[n] = c;
+					posX[n] = mx;
+					posY[n] = my;
+					parent[n] = t;
+					parentEdge[n] = e;
+					push(n, c + Vector2.dst(mx, my, target.x, target.y));
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private void push(int t, float f) {
+		if (heapSize == heap.length) {
+			int[] h = new int[heapSize * 2];
+			float[] hf = new float[heapSize * 2];
+			System.arraycopy(heap, 0, h, 0, heapSize);
+			System.arraycopy(heapF, 0, hf, 0, heapSize);
+			heap = h;
+			heapF = hf;
+		}
+
+		int i = heapSize++;
+
+		while (i > 0) {
+			int p = (i - 1) / 2;
+
+			if (heapF[p] <= f)
+				break;
+
+			heap[i] = heap[p];
+			heapF[i] = heapF[p];
+			i = p;
+		}
+
+		heap[i] = t;
+		heapF[i] = f;
+	}
+
+	private int pop() {
+		int result = heap[0];
+		int t = heap[--heapSize];
+		float f = heapF[heapSize];
+		int i = 0;
+
+		while (true) {
+			int c = i * 2 + 1;
+
+			if (c >= heapSize)
+				break;
+
+			if (c + 1 < heapSize && heapF[c + 1] < heapF[c])
+				c++;
+
+			if (f <= heapF[c])
+				break;
+
+			heap[i] = heap[c];
+			heapF[i] = heapF[c];
+			i = c;
+		}
+
+		heap[i] = t;
+		heapF[i] = f;
+
+		return result;
+	}
+
+	/**
+	 * Funnel algorithm. Calcs the shortest path inside the corridor of
+	 * triangles from the start to the end triangle.
+	 */
+	private void stringPull(int start, int end, NavPathPolygonal path) {
+		// corridor from the end to the start
+		int n = 0;
+
+		for (int t = end; t != start; t = parent[t]) {
+			if (n == corridor.length) {
+				int[] c = new int[n * 2];
+				System.arraycopy(corridor, 0, c, 0, n);
+				corridor = c;
+			}
+
+			corridor[n++] = t;
+		}
+
+		// portals: left and right points seen from the start
+		portals.clear();
+		portals.add(source.x, source.y, source.x, source.y);
+
+		for (int k = n - 1; k >= 0; k--) {
+			int t = corridor[k];
+			int i = parent[t] * 6 + parentEdge[t] * 2;
+			int j = parent[t] * 6 + (parentEdge[t] + 1) % 3 * 2;
+
+			// the triangles are counterclockwise, so the edge end is on the left
+			portals.add(verts[j], verts[j + 1], verts[i], verts[i + 1]);
+		}
+
+		portals.add(target.x, target.y, target.x, target.y);
+
+		float[] pt = portals.items;
+		int numPortals = portals.size / 4;
+
+		float apexX = pt[0], apexY = pt[1];
+		float leftX = pt[0], leftY = pt[1];
+		float rightX = pt[2], rightY = pt[3];
+		int leftIndex = 0, rightIndex = 0;
+
+		path.add(apexX, apexY);
+
+		for (int k = 1; k < numPortals; k++) {
+			float lx = pt[k * 4], ly = pt[k * 4 + 1];
+			float rx = pt[k * 4 + 2], ry = pt[k * 4 + 3];
+
+			// narrow the right side
+			if (area2(apexX, apexY, rightX, rightY, rx, ry) >= 0) {
+				if ((apexX == rightX && apexY == rightY) || area2(apexX, apexY, leftX, leftY, rx, ry) < 0) {
+					rightX = rx;
+					rightY = ry;
+					rightIndex = k;
+				} else {
+					// right over left, the left point is a corner of the path
+					apexX = leftX;
+					apexY = leftY;
+					addCorner(path, apexX, apexY);
+
+					rightX = leftX;
+					rightY = leftY;
+					rightIndex = k = leftIndex;
+					continue;
+				}
+			}
+
+			// narrow the left side
+			if (area2(apexX, apexY, leftX, leftY, lx, ly) <= 0) {
+				if ((apexX == leftX && apexY == leftY) || area2(apexX, apexY, rightX, rightY, lx, ly) > 0) {
+					leftX = lx;
+					leftY = ly;
+					leftIndex = k;
+				} else {
+					// left over right, the right point is a corner of the path
+					apexX = rightX;
+					apexY = rightY;
+					addCorner(path, apexX, apexY);
+
+					leftX = rightX;
+					leftY = rightY;
+					leftIndex = k = rightIndex;
+					continue;
+				}
+			}
+		}
+
+		if (path.getLength() == 1)
+			path.add(target.x, target.y);
+		else
+			addCorner(path, target.x, target.y);
+	}
+
+	/**
+	 * Adds the point if it is not the last point of the path. The funnel apex
+	 * is repeated when several portals share the same vertex.
+	 */
+	private static void addCorner(NavPathPolygonal path, float x, float y) {
+		Vector2 last = path.getPath().get(path.getLength() - 1);
+
+		if (last.x != x || last.y != y)
+			path.add(x, y);
+	}
+
+	public int getNumTriangles() {
+		return numTriangles;
+	}
+
+	/**
+	 * @return the triangle vertices. 6 floats per triangle.
+	 */
+	public float[] getTriangles() {
+		return verts;
+	}
+}
@@ -17,6 +17,7 @@
 package com.bladecoder.engine.polygonalpathfinder;
 
 import java.util.ArrayList;
+import java.util.Collections;
 
 import com.badlogic.gdx.math.Vector2;
 import com.bladecoder.engine.pathfinder.NavPath;
@@ -29,20 +30,34 @@ import com.bladecoder.engine.pathfinder.NavPath;
 public class NavPathPolygonal implements NavPath<NavNodePolygonal> {
 	private final ArrayList<Vector2> resultPath = new ArrayList<Vector2>();
 
+	// Point storage, reused between searchs to avoid allocations.
+	private final ArrayList<Vector2> points = new ArrayList<Vector2>();
+
 	@Override
 	public void fill (NavNodePolygonal startNode, NavNodePolygonal targetNode) {
-		
-		// TODO Ineficcient add in index 0 and new
-		
 		resultPath.clear();
 		
 		NavNodePolygonal current = targetNode;
 		while (current != startNode) {
-			resultPath.add(0, new Vector2(current.getX(), current.getY()));
+			add(current.getX(), current.getY());
 			current = (NavNodePolygonal)current.parent;
 		}
 		
-		resultPath.add(0, new Vector2(current.getX(), current.getY()));
+		add(current.getX(), current.getY());
+
+		Collections.reverse(resultPath);
+	}
+
+	/**
+	 * Adds a point to the end of the path.
+	 */
+	public void add(float x, float y) {
+		int i = resultPath.size();
+
+		if (i == points.size())
+			points.add(new Vector2());
+
+		resultPath.add(points.get(i).set(x, y));
 	}
 
 	@Override
@@ -55,6 +70,9 @@ public class NavPathPolygonal implements NavPath<NavNodePolygonal> {
 		return resultPath.size();
 	}
 	
+	/**
+	 * The returned path is valid until the next search. Copy it to keep it.
+	 */
 	public ArrayList<Vector2> getPath() {
 		return resultPath;
 	}
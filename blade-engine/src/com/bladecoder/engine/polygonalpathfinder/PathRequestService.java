@@ -0,0 +1,276 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.polygonalpathfinder;
+
+import java.util.ArrayList;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+import com.bladecoder.engine.actions.ActionCallback;
+import com.bladecoder.engine.model.CharacterActor;
+import com.bladecoder.engine.model.Scene;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Searchs the paths of the characters of a scene in background.
+ *
+ * The requests of a frame are searched together in a worker thread against a
+ * copy of the scene nav graph. The copy is only updated when the graph
+ * changes. The results are delivered in the next scene update and the
+ * characters start walking then.
+ *
+ * Intended for NPCs that walk around the scene. The player and the verb
+ * actions use the synchronous CharacterActor.goTo().
+ * 
+ * The pending requests are not saved, they must be flushed before saving the
+ * game. They are kept when the scene assets are disposed and delivered when
+ * the scene is updated again.
+ *
+ * @author rgarcia
+ */
+public class PathRequestService implements Disposable {
+	private final Scene scene;
+
+	private ArrayList<Request> queued = new ArrayList<Request>();
+	private ArrayList<Request> running = new ArrayList<Request>();
+	private final ArrayList<Request> freeRequests = new ArrayList<Request>();
+
+	private PolygonalNavGraph snapshot;
+	private AsyncExecutor executor;
+	private AsyncResult<Void> result;
+
+	private final AsyncTask<Void> searchTask = new AsyncTask<Void>() {
+		@Override
+		public Void call() throws Exception {
+			for (int i = 0; i < running.size(); i++) {
+				Request r = running.get(i);
+
+				r.setPath(snapshot.findPath(r.source.x, r.source.y, r.target.x, r.target.y));
+			}
+
+			return null;
+		}
+	};
+
+	public PathRequestService(Scene scene) {
+		this.scene = scene;
+	}
+
+	/**
+	 * Queues a path search for the character. A previous request for the same
+	 * character is replaced.
+	 */
+	public void request(CharacterActor actor, Vector2 target, ActionCallback cb, boolean avoidance) {
+		cancel(actor);
+
+		Request r = freeRequests.isEmpty() ? new Request() : freeRequests.remove(freeRequests.size() - 1);
+
+		r.actor = actor;
+		r.target.set(target);
+		r.cb = cb;
+		r.avoidance = avoidance;
+		r.cancelled = false;
+
+		queued.add(r);
+	}
+
+	/**
+	 * Cancels the pending requests for the character. The callback is not
+	 * called.
+	 */
+	public void cancel(CharacterActor actor) {
+		for (int i = 0; i < queued.size(); i++) {
+			if (queued.get(i).actor == actor) {
+				free(queued.remove(i));
+				i--;
+			}
+		}
+
+		for (int i = 0; i < running.size(); i++) {
+			if (running.get(i).actor == actor)
+				running.get(i).cancelled = true;
+		}
+	}
+
+	public boolean isPending(CharacterActor actor) {
+		for (int i = 0; i < queued.size(); i++) {
+			if (queued.get(i).actor == actor)
+				return true;
+		}
+
+		for (int i = 0; i < running.size(); i++) {
+			if (running.get(i).actor == actor && !running.get(i).cancelled)
+				return true;
+		}
+
+		return false;
+	}
+
+	public boolean isIdle() {
+		return result == null && queued.isEmpty();
+	}
+
+	public void update() {
+		if (result != null) {
+			// the results are delivered in a next frame
+			if (!result.isDone())
+				return;
+
+			waitResult();
+		}
+
+		if (queued.isEmpty())
+			return;
+
+		ArrayList<Request> tmp = running;
+		running = queued;
+		queued = tmp;
+
+		for (int i = 0; i < running.size(); i++) {
+			Request r = running.get(i);
+			r.source.set(r.actor.getX(), r.actor.getY());
+		}
+
+		if (scene.getWalkZone() == null) {
+			// no walkzone, walk directly
+			for (int i = 0; i < running.size(); i++) {
+				Request r = running.get(i);
+
+				r.path.clear();
+				r.path.add(r.source);
+				r.path.add(r.target);
+			}
+
+			deliver();
+			return;
+		}
+
+		PolygonalNavGraph graph = scene.getPolygonalNavGraph();
+
+		if (snapshot != null)
+			graph.updateMovedObstacles(snapshot);
+
+		if (snapshot == null || snapshot.getVersion() != graph.getVersion())
+			snapshot = graph.copy();
+
+		if (executor == null)
+			executor = new AsyncExecutor(1);
+
+		result = executor.submit(searchTask);
+	}
+
+	/**
+	 * Searchs the pending requests now and the characters start walking. Called
+	 * before saving the game.
+	 */
+	public void flush() {
+		if (result != null)
+			waitResult();
+
+		if (queued.isEmpty())
+			return;
+
+		update();
+
+		if (result != null)
+			waitResult();
+	}
+
+	private void waitResult() {
+		try {
+			result.get();
+		} catch (Exception e) {
+			EngineLogger.error("Error searching paths", e);
+		}
+
+		result = null;
+		deliver();
+	}
+
+	private void deliver() {
+		for (int i = 0; i < running.size(); i++) {
+			Request r = running.get(i);
+
+			if (!r.cancelled) {
+				if (r.actor.getScene() == scene) {
+					r.actor.walk(r.path, r.cb, r.avoidance);
+				} else if (r.cb != null) {
+					// the character has left the scene, the walk is finished
+					ActionCallback cb = r.cb;
+					free(r);
+					cb.resume();
+					continue;
+				}
+			}
+
+			free(r);
+		}
+
+		running.clear();
+	}
+
+	private void free(Request r) {
+		r.actor = null;
+		r.cb = null;
+		r.path.clear();
+		freeRequests.add(r);
+	}
+
+	/**
+	 * Releases the worker thread and the nav graph copy. The running requests
+	 * are delivered and the queued ones are kept, so their callbacks are
+	 * resumed.
+	 */
+	@Override
+	public void dispose() {
+		if (result != null)
+			waitResult();
+
+		snapshot = null;
+
+		if (executor != null) {
+			executor.dispose();
+			executor = null;
+		}
+	}
+
+	private static class Request {
+		CharacterActor actor;
+		final Vector2 source = new Vector2();
+		final Vector2 target = new Vector2();
+		ActionCallback cb;
+		boolean avoidance;
+		boolean cancelled;
+		final ArrayList<Vector2> path = new ArrayList<Vector2>();
+
+		// path points storage
+		private final ArrayList<Vector2> points = new ArrayList<Vector2>();
+
+		void setPath(ArrayList<Vector2> p) {
+			path.clear();
+
+			for (int i = 0; i < p.size(); i++) {
+				if (i == points.size())
+					points.add(new Vector2());
+
+				path.add(points.get(i).set(p.get(i)));
+			}
+		}
+	}
+}
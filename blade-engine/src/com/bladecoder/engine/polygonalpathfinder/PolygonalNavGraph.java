@@ -16,7 +16,9 @@
 package com.bladecoder.engine.polygonalpathfinder;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 
 import com.badlogic.gdx.math.Polygon;
 import com.badlogic.gdx.math.Vector2;
@@ -33,13 +35,24 @@ import com.bladecoder.engine.util.PolygonUtils;
  * Finds the shortest path between 2 points in a world defined by a walkzone and
  * several obstacles.
  * 
+ * By default, the path is searched in the graph of visible vertices. In nav
+ * mesh mode, the path is searched in a triangulation of the walkzone (see
+ * {@link NavMesh}), better for walkzones with lots of vertices.
+ * 
  * @author rgarcia
  */
 public class PolygonalNavGraph implements NavGraph<NavNodePolygonal> {
 	private static final int MAX_PATHFINDER_SEARCH_DISTANCE = 50;
 
-	private static final Vector2 tmp = new Vector2();
-	private static final Vector2 tmp2 = new Vector2();
+	private final Vector2 tmp = new Vector2();
+	private final Vector2 tmp2 = new Vector2();
+
+	// incremented every time the graph changes
+	private int version = 0;
+
+	private boolean navMeshMode = false;
+	private NavMesh navMesh;
+	private int navMeshVersion = -1;
 
 	private Polygon walkZone;
 	private final ArrayList<Polygon> obstacles = new ArrayList<Polygon>();
@@ -50,12 +63,17 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal> {
 	final private NavNodePolygonal startNode = new NavNodePolygonal();
 	final private NavNodePolygonal targetNode = new NavNodePolygonal();
 	final private ArrayList<NavNodePolygonal> graphNodes = new ArrayList<NavNodePolygonal>();
+	final private Vector2 source = new Vector2();
+	final private Vector2 target = new Vector2();
 
+	/**
+	 * The returned path is reused in the next search. Copy it to keep it.
+	 */
 	public ArrayList<Vector2> findPath(float sx, float sy, float tx, float ty) {
 		resultPath.clear();
 
-		Vector2 source = new Vector2(sx, sy);
-		Vector2 target = new Vector2(tx, ty);
+		source.set(sx, sy);
+		target.set(tx, ty);
 
 		// 1. First verify if both the start and target points of the path are
 		// inside the polygon. If the end point is outside the polygon clamp it
@@ -83,7 +101,9 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal> {
 			}
 		}
 
-		for (Polygon o : obstacles) {
+		for (int i = 0; i < obstacles.size(); i++) {
+			Polygon o = obstacles.get(i);
+
 			if (PolygonUtils.isPointInside(o, target.x, target.y, false)) {
 				PolygonUtils.getClampedPoint(o, target.x, target.y, target);
 
@@ -99,13 +119,21 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal> {
 			}
 		}
 
+		// The nav mesh doesn't need the line-of-sight checks, the funnel
+		// returns the direct path when possible.
+		if (navMeshMode) {
+			getNavMesh().findPath(source.x, source.y, target.x, target.y, resultPath);
+
+			return resultPath.getPath();
+		}
+
 		// 2. Then start by checking if both points are in line-of-sight. If
 		// they are, there’s no need for pathfinding, just walk there!
 		if (inLineOfSight(source.x, source.y, target.x, target.y)) {
 			EngineLogger.debug("PolygonalPathFinder: Direct path found");
 
-			resultPath.getPath().add(source);
-			resultPath.getPath().add(target);
+			resultPath.add(source.x, source.y);
+			resultPath.add(target.x, target.y);
 
 			return resultPath.getPath();
 		}
@@ -145,6 +173,7 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal> {
 
 	public void createInitialGraph(BaseActor wz, Collection<BaseActor> actors) {
 		graphNodes.clear();
+		version++;
 		
 		if(wz == null) {
 			walkZone = null;
@@ -153,6 +182,17 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal> {
 		
 		walkZone = wz.getBBox();
 
+		obstacles.clear();
+
+		for (BaseActor a : actors) {
+			if (a instanceof ObstacleActor && a.isVisible())
+				obstacles.add(a.getBBox());
+		}
+
+		// the nav mesh is created in the first search
+		if (navMeshMode)
+			return;
+
 		// 1.- Add WalkZone convex nodes
 		float verts[] = walkZone.getTransformedVertices();
 
@@ -163,13 +203,6 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal> {
 		}
 
 		// 2.- Add obstacles concave nodes
-		obstacles.clear();
-
-		for (BaseActor a : actors) {
-			if (a instanceof ObstacleActor && a.isVisible())
-				obstacles.add(a.getBBox());
-		}
-
 		for (Polygon o : obstacles) {
 			verts = o.getTransformedVertices();
 
@@ -205,8 +238,8 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal> {
 			return false;
 		}
 
-		for (Polygon o : obstacles) {
-			if (!PolygonUtils.inLineOfSight(tmp, tmp2, o, true)) {
+		for (int i = 0; i < obstacles.size(); i++) {
+			if (!PolygonUtils.inLineOfSight(tmp, tmp2, obstacles.get(i), true)) {
 				return false;
 			}
 		}
@@ -222,7 +255,8 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal> {
 
 		startNode.neighbors.clear();
 
-		for (NavNodePolygonal n : graphNodes) {
+		for (int i = 0; i < graphNodes.size(); i++) {
+			NavNodePolygonal n = graphNodes.get(i);
 
 			n.neighbors.removeValue(targetNode, true);
 
@@ -237,6 +271,118 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal> {
 
 	}
 
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Sets the nav mesh mode. Must be set before creating the graph.
+	 */
+	public void setNavMeshMode(boolean navMeshMode) {
+		this.navMeshMode = navMeshMode;
+	}
+
+	public boolean isNavMeshMode() {
+		return navMeshMode;
+	}
+
+	/**
+	 * The nav mesh is triangulated again when the walkzone or the obstacles
+	 * change.
+	 */
+	public NavMesh getNavMesh() {
+		if (navMesh == null)
+			navMesh = new NavMesh();
+
+		if (navMeshVersion != version) {
+			navMeshVersion = version;
+			navMesh.build(walkZone, obstacles);
+		}
+
+		return navMesh;
+	}
+
+	/**
+	 * Creates a copy of the graph. The copy doesn't share any object with this
+	 * graph so it can be used to search paths in other thread.
+	 */
+	public PolygonalNavGraph copy() {
+		PolygonalNavGraph g = new PolygonalNavGraph();
+		g.version = version;
+		g.navMeshMode = navMeshMode;
+
+		if (walkZone == null)
+			return g;
+
+		g.walkZone = new Polygon(walkZone.getTransformedVertices().clone());
+
+		for (int i = 0; i < obstacles.size(); i++)
+			g.obstacles.add(new Polygon(obstacles.get(i).getTransformedVertices().clone()));
+
+		IdentityHashMap<NavNodePolygonal, NavNodePolygonal> nodes = new IdentityHashMap<>();
+
+		for (int i = 0; i < graphNodes.size(); i++) {
+			NavNodePolygonal n = graphNodes.get(i);
+			NavNodePolygonal n2 = new NavNodePolygonal(n.x, n.y);
+
+			nodes.put(n, n2);
+			g.graphNodes.add(n2);
+		}
+
+		for (int i = 0; i < graphNodes.size(); i++) {
+			NavNodePolygonal n2 = g.graphNodes.get(i);
+
+			// the target node of the last search is not copied
+			for (NavNodePolygonal neighbor : graphNodes.get(i).neighbors) {
+				NavNodePolygonal neighbor2 = nodes.get(neighbor);
+
+				if (neighbor2 != null)
+					n2.neighbors.add(neighbor2);
+			}
+		}
+
+		// calc the transformed vertices now, they are calculated lazily
+		g.walkZone.getTransformedVertices();
+
+		for (Polygon o : g.obstacles)
+			o.getTransformedVertices();
+
+		return g;
+	}
+
+	/**
+	 * Obstacles moved without removing and adding them again to the graph are
+	 * updated. The copy has the obstacle positions when it was created.
+	 * 
+	 * @return true if some obstacle was moved. The version is incremented.
+	 */
+	public boolean updateMovedObstacles(PolygonalNavGraph copy) {
+		if (copy.version != version || walkZone == null || copy.walkZone == null
+				|| copy.obstacles.size() != obstacles.size())
+			return false;
+
+		ArrayList<Polygon> moved = null;
+
+		for (int i = 0; i < obstacles.size(); i++) {
+			if (!Arrays.equals(obstacles.get(i).getTransformedVertices(), copy.obstacles.get(i).getVertices())) {
+				if (moved == null)
+					moved = new ArrayList<Polygon>();
+
+				moved.add(obstacles.get(i));
+			}
+		}
+
+		if (moved == null)
+			return false;
+
+		for (Polygon p : moved) {
+			removeDinamicObstacle(p);
+			addDinamicObstacle(p);
+		}
+
+		return true;
+	}
+
 	public Polygon getWalkZone() {
 		return walkZone;
 	}
@@ -286,8 +432,11 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal> {
 
 		// CHECK TO AVOID ADDING THE ACTOR SEVERAL TIMES
 		if (idx == -1) {
+			version++;
 			obstacles.add(poly);
-			addObstacleToGrapth(poly);
+
+			if (!navMeshMode)
+				addObstacleToGrapth(poly);
 		}
 	}
 
@@ -297,6 +446,11 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal> {
 		if (!exists)
 			return false;
 
+		version++;
+
+		if (navMeshMode)
+			return true;
+
 		float verts[] = poly.getTransformedVertices();
 
 		for (int i = 0; i < verts.length; i += 2) {
@@ -15,6 +15,11 @@
  ******************************************************************************/
 package com.bladecoder.engine.serialization;
 
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
 import com.bladecoder.engine.actions.Action;
 import com.bladecoder.engine.actions.ActionCallback;
 import com.bladecoder.engine.ink.InkManager;
@@ -22,8 +27,8 @@ import com.bladecoder.engine.model.BaseActor;
 import com.bladecoder.engine.model.InteractiveActor;
 import com.bladecoder.engine.model.Inventory;
 import com.bladecoder.engine.model.Scene;
-import com.bladecoder.engine.model.UIActors;
 import com.bladecoder.engine.model.Verb;
+import com.bladecoder.engine.model.VerbManager;
 import com.bladecoder.engine.model.World;
 import com.bladecoder.engine.util.EngineLogger;
 
@@ -43,6 +48,11 @@ import com.bladecoder.engine.util.EngineLogger;
  * default verbs. If actorId == current scene ID the ActionCallback is searched
  * in the current scene verbs.
  * 
+ * The verbs and actions are registered the first time that they are needed
+ * with their owner and their position, so the location string of a callback
+ * is built without searching it. Every World has its own registry, cleared
+ * when the world model changes.
+ * 
  * @author rgarcia
  */
 public class ActionCallbackSerializer {
@@ -53,17 +63,18 @@ public class ActionCallbackSerializer {
 	private static final String INVENTORY_TAG = "INVENTORY";
 	private static final String DEFAULT_VERB_TAG = "DEFAULT_VERB";
 
-	private static String find(ActionCallback cb, Verb v) {
-		String id = v.getHashKey();
+	private static String find(ActionCallback cb, InkManager im) {
+		if (im == null)
+			return null;
 
-		if (cb == v)
-			return id;
+		if (cb instanceof InkManager)
+			return INK_MANAGER_TAG;
 
 		int pos = 0;
 
-		for (Action a : v.getActions()) {
+		for (Action a : im.getActions()) {
 			if (cb == a) {
-				StringBuilder stringBuilder = new StringBuilder(id);
+				StringBuilder stringBuilder = new StringBuilder(INK_MANAGER_TAG);
 				stringBuilder.append(SEPARATION_SYMBOL).append(pos);
 
 				return stringBuilder.toString();
@@ -75,167 +86,132 @@ public class ActionCallbackSerializer {
 		return null;
 	}
 
-	private static String find(ActionCallback cb, InteractiveActor a) {
-		if (a == null)
+	/**
+	 * Generates a String for serialization that allows locate the ActionCallback
+	 * 
+	 * @param cb
+	 *            The ActionCallback to serialize
+	 * @return The generated location string
+	 */
+	public static String find(World w, ActionCallback cb) {
+		if (cb == null)
 			return null;
 
-		String id = a.getId();
+		// the ink manager actions change in every line, they are not registered
+		String id = find(cb, w.getInkManager());
 
-		for (Verb v : a.getVerbManager().getVerbs().values()) {
-			String result = find(cb, v);
+		if (id != null)
+			return id;
 
-			if (result != null) {
-				StringBuilder stringBuilder = new StringBuilder(id);
-				stringBuilder.append(SEPARATION_SYMBOL).append(result);
+		Registry r = w.getSerializer().getCallbackRegistry();
 
-				return stringBuilder.toString();
+		synchronized (r) {
+			// scenes, actors or verbs added or removed
+			if (r.modelVersion != w.getModelVersion()) {
+				r.clear();
+				r.modelVersion = w.getModelVersion();
 			}
-		}
-
-		return null;
-	}
 
-	private static String find(ActionCallback cb, Scene s) {
-		if (s == null)
-			return null;
+			Entry e = r.entries.get(cb);
 
-		String id = s.getId();
+			if (e == null) {
+				index(r, w, false);
+				e = r.entries.get(cb);
 
-		for (Verb v : s.getVerbManager().getVerbs().values()) {
-			String result = find(cb, v);
-
-			if (result != null) {
-				StringBuilder stringBuilder = new StringBuilder(id);
-				stringBuilder.append(SEPARATION_SYMBOL).append(result);
+				// verbs added after the owner was registered
+				if (e == null) {
+					index(r, w, true);
+					e = r.entries.get(cb);
+				}
 
-				return stringBuilder.toString();
+				if (e == null)
+					return null;
 			}
-		}
 
-		return null;
+			return getId(w, e);
+		}
 	}
 
-	private static String find(ActionCallback cb, InkManager im) {
-		if (im == null)
-			return null;
+	/**
+	 * Registers the verbs and actions of the UI actors, inventory, current scene,
+	 * its actors and the world default verbs. The owners already registered are
+	 * skipped unless 'force' is true.
+	 */
+	private static void index(Registry r, World w, boolean force) {
+		if (force)
+			r.indexedOwners.clear();
 
-		if (cb instanceof InkManager)
-			return INK_MANAGER_TAG;
+		for (InteractiveActor a : w.getUIActors().getActors())
+			index(r, a, a.getVerbManager());
 
-		int pos = 0;
+		Inventory inv = w.getInventory();
 
-		for (Action a : im.getActions()) {
-			if (cb == a) {
-				StringBuilder stringBuilder = new StringBuilder(INK_MANAGER_TAG);
-				stringBuilder.append(SEPARATION_SYMBOL).append(pos);
+		for (int i = 0; i < inv.getNumItems(); i++)
+			index(r, inv.get(i), inv.get(i).getVerbManager());
 
-				return stringBuilder.toString();
-			}
+		Scene s = w.getCurrentScene();
 
-			pos++;
+		if (s != null) {
+			index(r, s, s.getVerbManager());
+
+			for (BaseActor a : s.getActors().values()) {
+				if (a instanceof InteractiveActor)
+					index(r, a, ((InteractiveActor) a).getVerbManager());
+			}
 		}
 
-		return null;
+		index(r, w, w.getVerbManager());
 	}
 
-	private static String find(ActionCallback cb, UIActors uia) {
-		if (uia == null)
-			return null;
+	private static void index(Registry r, Object owner, VerbManager vm) {
+		if (r.indexedOwners.containsKey(vm))
+			return;
 
-		for (InteractiveActor a : uia.getActors()) {
-			String id = find(cb, a);
+		r.indexedOwners.put(vm, Boolean.TRUE);
 
-			if (id != null) {
-				StringBuilder stringBuilder = new StringBuilder(UIACTORS_TAG);
-				stringBuilder.append(SEPARATION_SYMBOL).append(id);
+		for (Verb v : vm.getVerbs().values()) {
+			String verbId = v.getHashKey();
 
-				return stringBuilder.toString();
-			}
-		}
-
-		return null;
-	}
+			r.entries.put(v, new Entry(owner, verbId));
 
-	private static String find(ActionCallback cb, Inventory inv) {
-		for (int i = 0; i < inv.getNumItems(); i++) {
-			InteractiveActor a = inv.get(i);
-			String id = find(cb, a);
+			List<Action> actions = v.getActions();
 
-			if (id != null) {
-				StringBuilder stringBuilder = new StringBuilder(INVENTORY_TAG);
-				stringBuilder.append(SEPARATION_SYMBOL).append(id);
+			for (int i = 0; i < actions.size(); i++) {
+				Action a = actions.get(i);
 
-				return stringBuilder.toString();
+				if (a instanceof ActionCallback)
+					r.entries.put((ActionCallback) a, new Entry(owner, verbId + SEPARATION_SYMBOL + i));
 			}
 		}
-
-		return null;
 	}
 
 	/**
-	 * Generates a String for serialization that allows locate the ActionCallback
-	 * 
-	 * @param cb
-	 *            The ActionCallback to serialize
-	 * @return The generated location string
+	 * Builds the location string from the current place of the owner.
 	 */
-	public static String find(World w, ActionCallback cb) {
-		String id = null;
-
-		if (cb == null)
-			return null;
-
-		// search in UIActors
-		id = find(cb, w.getUIActors());
-
-		if (id != null)
-			return id;
-
-		// search in inventory
-		id = find(cb, w.getInventory());
-
-		if (id != null)
-			return id;
-
-		// search in inkManager actions
-		id = find(cb, w.getInkManager());
-
-		if (id != null)
-			return id;
-
-		// search in scene verbs
+	private static String getId(World w, Entry e) {
+		Object owner = e.owner.get();
 		Scene s = w.getCurrentScene();
 
-		id = find(cb, s);
+		if (owner == null)
+			return null;
 
-		if (id != null)
-			return id;
+		if (owner instanceof World)
+			return owner == w ? DEFAULT_VERB_TAG + SEPARATION_SYMBOL + e.id : null;
 
-		// search in player
-		id = find(cb, s.getPlayer());
-		if (id != null)
-			return id;
+		if (owner instanceof Scene)
+			return owner == s ? s.getId() + SEPARATION_SYMBOL + e.id : null;
 
-		// search in actors
-		for (BaseActor a : s.getActors().values()) {
-			if (!(a instanceof InteractiveActor))
-				continue;
+		InteractiveActor a = (InteractiveActor) owner;
+		String actorId = a.getId();
 
-			id = find(cb, (InteractiveActor) a);
-			if (id != null)
-				return id;
-		}
+		if (w.getUIActors().get(actorId) == a)
+			return UIACTORS_TAG + SEPARATION_SYMBOL + actorId + SEPARATION_SYMBOL + e.id;
 
-		// search in worldVerbs
-		for (Verb v : w.getVerbManager().getVerbs().values()) {
-			id = find(cb, v);
-			if (id != null) {
-				StringBuilder stringBuilder = new StringBuilder(DEFAULT_VERB_TAG);
-				stringBuilder.append(SEPARATION_SYMBOL).append(id);
+		if (w.getInventory().get(actorId) == a)
+			return INVENTORY_TAG + SEPARATION_SYMBOL + actorId + SEPARATION_SYMBOL + e.id;
 
-				return stringBuilder.toString();
-			}
-		}
+		if (s != null && s.getActor(actorId, false) == a)
+			return actorId + SEPARATION_SYMBOL + e.id;
 
 		return null;
 	}
@@ -327,4 +303,33 @@ public class ActionCallbackSerializer {
 
 		return null;
 	}
+
+	/**
+	 * The verbs and actions registered for a World.
+	 */
+	static final class Registry {
+		// The keys are weak to not retain the callbacks of the removed scenes.
+		private final Map<ActionCallback, Entry> entries = new WeakHashMap<ActionCallback, Entry>();
+		private final Map<VerbManager, Boolean> indexedOwners = new WeakHashMap<VerbManager, Boolean>();
+
+		// the world model version when registered
+		private int modelVersion = -1;
+
+		private void clear() {
+			entries.clear();
+			indexedOwners.clear();
+		}
+	}
+
+	private static final class Entry {
+		// InteractiveActor, Scene or World
+		final WeakReference<Object> owner;
+		// verbId or verbId#actionPos
+		final String id;
+
+		Entry(Object owner, String id) {
+			this.owner = new WeakReference<Object>(owner);
+			this.id = id;
+		}
+	}
 }
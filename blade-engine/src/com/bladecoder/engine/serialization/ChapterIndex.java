@@ -0,0 +1,386 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.serialization;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter.OutputType;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Byte offsets of the scenes inside a chapter file.
+ *
+ * The chapter is kept as raw bytes and every scene is parsed only when it is
+ * requested. The rest of the chapter (sounds, init scene, ink...) is parsed
+ * with an empty 'scenes' object.
+ *
+ * The offsets are saved by the editor in the '.chapter.index' file next to the
+ * chapter with the chapter CRC. If the index file doesn't exist or doesn't
+ * match the chapter, the offsets are found scanning the chapter bytes.
+ * Chapters with comments are not supported and must be loaded fully.
+ *
+ * @author rgarcia
+ */
+class ChapterIndex {
+
+	/**
+	 * The index file content.
+	 */
+	public static class IndexData {
+		/** chapter length in bytes */
+		public int length;
+
+		/** CRC32 of the chapter bytes */
+		public long crc;
+
+		/** start and end of the 'scenes' object */
+		public int scenesStart;
+		public int scenesEnd;
+
+		public String[] scenes;
+
+		/** start and end of every scene */
+		public int[] offsets;
+	}
+
+	private final byte[] data;
+	private int scenesStart;
+	private int scenesEnd;
+
+	// scene id -> {start, end}. In file order.
+	private final LinkedHashMap<String, int[]> scenes = new LinkedHashMap<>();
+
+	// scan position
+	private int pos;
+
+	private ChapterIndex(byte[] data) {
+		this.data = data;
+	}
+
+	/**
+	 * Loads the chapter bytes and its index.
+	 *
+	 * @return null if the chapter can not be indexed.
+	 */
+	public static ChapterIndex load(FileHandle chapterFile, FileHandle indexFile) {
+		ChapterIndex index = new ChapterIndex(chapterFile.readBytes());
+
+		if (indexFile.exists()) {
+			try {
+				IndexData d = new Json().fromJson(IndexData.class, indexFile.reader("UTF-8"));
+
+				if (index.set(d))
+					return index;
+
+				EngineLogger.debug("Chapter index outdated: " + indexFile.name());
+			} catch (Exception e) {
+				EngineLogger.error("ERROR LOADING CHAPTER INDEX: " + indexFile.name(), e);
+			}
+		}
+
+		return index.scan() ? index : null;
+	}
+
+	/**
+	 * Indexes the chapter bytes and saves the index.
+	 *
+	 * @return false if the chapter can not be indexed.
+	 */
+	public static boolean save(byte[] chapter, FileHandle indexFile) {
+		ChapterIndex index = new ChapterIndex(chapter);
+
+		if (!index.scan())
+			return false;
+
+		IndexData d = new IndexData();
+		d.length = chapter.length;
+		d.crc = index.crc();
+		d.scenesStart = index.scenesStart;
+		d.scenesEnd = index.scenesEnd;
+		d.scenes = index.scenes.keySet().toArray(new String[index.scenes.size()]);
+		d.offsets = new int[d.scenes.length * 2];
+
+		for (int i = 0; i < d.scenes.length; i++) {
+			int[] o = index.scenes.get(d.scenes[i]);
+			d.offsets[i * 2] = o[0];
+			d.offsets[i * 2 + 1] = o[1];
+		}
+
+		indexFile.writeString(new Json(OutputType.json).toJson(d), false, "UTF-8");
+
+		return true;
+	}
+
+	public Set<String> getSceneIds() {
+		return Collections.unmodifiableSet(scenes.keySet());
+	}
+
+	public boolean contains(String id) {
+		return scenes.containsKey(id);
+	}
+
+	/**
+	 * @return the chapter root without scenes.
+	 */
+	public JsonValue parseHeader() {
+		StringBuilder sb = new StringBuilder();
+
+		sb.append(string(0, scenesStart));
+		sb.append("{}");
+		sb.append(string(scenesEnd, data.length));
+
+		return new JsonReader().parse(sb.toString());
+	}
+
+	/**
+	 * @return the scene model or null if the scene is not in the chapter.
+	 */
+	public JsonValue parseScene(String id) {
+		int[] o = scenes.get(id);
+
+		if (o == null)
+			return null;
+
+		JsonValue v = new JsonReader().parse(string(o[0], o[1]));
+		v.name = id;
+
+		return v;
+	}
+
+	private String string(int start, int end) {
+		try {
+			return new String(data, start, end - start, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private boolean set(IndexData d) {
+		if (d.length != data.length || d.crc != crc() || d.scenes == null || d.offsets == null
+				|| d.offsets.length != d.scenes.length * 2 || !isObject(d.scenesStart, d.scenesEnd))
+			return false;
+
+		scenesStart = d.scenesStart;
+		scenesEnd = d.scenesEnd;
+
+		for (int i = 0; i < d.scenes.length; i++) {
+			int start = d.offsets[i * 2];
+			int end = d.offsets[i * 2 + 1];
+
+			if (start <= scenesStart || end >= scenesEnd || !isObject(start, end)) {
+				scenes.clear();
+				return false;
+			}
+
+			scenes.put(d.scenes[i], new int[] { start, end });
+		}
+
+		return true;
+	}
+
+	private long crc() {
+		CRC32 crc = new CRC32();
+		crc.update(data);
+
+		return crc.getValue();
+	}
+
+	private boolean isObject(int start, int end) {
+		return start >= 0 && end <= data.length && start < end && data[start] == '{' && data[end - 1] == '}';
+	}
+
+	/**
+	 * Finds the scene offsets in the chapter bytes. Only the structure is
+	 * scanned, values are not parsed. The structural chars are ASCII, so the
+	 * UTF-8 bytes can be scanned directly.
+	 *
+	 * @return false if the format is not supported.
+	 */
+	private boolean scan() {
+		scenes.clear();
+		scenesStart = scenesEnd = -1;
+		pos = 0;
+
+		try {
+			skipSpaces();
+
+			if (data[pos] != '{')
+				return false;
+
+			pos++;
+
+			while (true) {
+				skipSpaces();
+
+				if (data[pos] == '}')
+					break;
+
+				String name = readName();
+				int start = pos;
+				skipValue();
+
+				if (name.equals("scenes")) {
+					if (data[start] != '{')
+						return false;
+
+					scenesStart = start;
+					scenesEnd = pos;
+					scanScenes();
+				}
+
+				skipSpaces();
+
+				if (data[pos] == ',')
+					pos++;
+			}
+		} catch (ScanException | ArrayIndexOutOfBoundsException e) {
+			scenes.clear();
+			return false;
+		}
+
+		return scenesStart != -1;
+	}
+
+	private void scanScenes() {
+		int end = pos;
+		pos = scenesStart + 1;
+
+		while (true) {
+			skipSpaces();
+
+			if (data[pos] == '}')
+				break;
+
+			String name = readName();
+			int start = pos;
+
+			if (data[start] != '{')
+				throw new ScanException();
+
+			skipValue();
+			scenes.put(name, new int[] { start, pos });
+
+			skipSpaces();
+
+			if (data[pos] == ',')
+				pos++;
+		}
+
+		pos = end;
+	}
+
+	/**
+	 * Reads a name and the ':' separator.
+	 */
+	private String readName() {
+		String name;
+
+		if (data[pos] == '"') {
+			int start = pos + 1;
+			skipString();
+			name = new JsonReader().parse(string(start - 1, pos)).asString();
+		} else {
+			int start = pos;
+
+			while (data[pos] != ':')
+				checkChar(data[pos++]);
+
+			name = string(start, pos).trim();
+		}
+
+		skipSpaces();
+
+		if (data[pos] != ':')
+			throw new ScanException();
+
+		pos++;
+		skipSpaces();
+
+		return name;
+	}
+
+	private void skipValue() {
+		byte c = data[pos];
+
+		if (c == '"') {
+			skipString();
+		} else if (c == '{' || c == '[') {
+			int depth = 0;
+
+			do {
+				c = data[pos];
+
+				if (c == '"') {
+					skipString();
+					continue;
+				}
+
+				checkChar(c);
+
+				if (c == '{' || c == '[')
+					depth++;
+				else if (c == '}' || c == ']')
+					depth--;
+
+				pos++;
+			} while (depth > 0);
+		} else {
+			// unquoted value
+			while (c != ',' && c != '}' && c != ']' && c != '\n' && c != '\r') {
+				checkChar(c);
+				c = data[++pos];
+			}
+		}
+	}
+
+	private void skipString() {
+		pos++;
+
+		while (data[pos] != '"') {
+			if (data[pos] == '\\')
+				pos++;
+
+			pos++;
+		}
+
+		pos++;
+	}
+
+	private void skipSpaces() {
+		while (data[pos] == ' ' || data[pos] == '\t' || data[pos] == '\n' || data[pos] == '\r')
+			pos++;
+	}
+
+	/**
+	 * Comments and single quoted strings are not scanned.
+	 */
+	private static void checkChar(byte c) {
+		if (c == '/' || c == '\'')
+			throw new ScanException();
+	}
+
+	@SuppressWarnings("serial")
+	private static class ScanException extends RuntimeException {
+	}
+}
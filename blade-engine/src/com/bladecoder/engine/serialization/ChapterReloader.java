@@ -0,0 +1,388 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.serialization;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter.OutputType;
+import com.bladecoder.engine.actions.SceneActorRef;
+import com.bladecoder.engine.assets.AssetConsumer;
+import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.model.BaseActor;
+import com.bladecoder.engine.model.InteractiveActor;
+import com.bladecoder.engine.model.Scene;
+import com.bladecoder.engine.model.SoundDesc;
+import com.bladecoder.engine.model.Verb;
+import com.bladecoder.engine.model.VerbManager;
+import com.bladecoder.engine.model.World;
+import com.bladecoder.engine.serialization.BladeJson.Mode;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Reloads the chapter model and the Ink story while the game is running.
+ *
+ * The chapter and ink files are polled and, when changed, only the modified
+ * parts are patched into the world:
+ *
+ * - Verbs: the changed verbs are replaced in place. Running verbs finish with
+ * their old actions.
+ *
+ * - Scenes: a changed scene is read again from the model and the state of the
+ * actors that didn't change in the model is copied from the old scene. The
+ * assets of the new scene are loaded before disposing the old one, so only the
+ * new atlases are really loaded. The scenes removed from the model are removed
+ * from the world, except the current scene.
+ *
+ * - Ink: the story is reloaded keeping the current story state.
+ *
+ * The rest of the game state (inventories, other scenes, custom properties)
+ * is not touched. Intended for development, the files must be in the file
+ * system to get their modification time.
+ *
+ * @author rgarcia
+ */
+public class ChapterReloader {
+	/** Time between file checks in seconds */
+	public static final float POLL_INTERVAL = 1f;
+
+	private final World w;
+
+	private String chapter;
+	private JsonValue model;
+	private long chapterTime;
+
+	private String storyName;
+	private long inkTime;
+
+	private float pollTime = 0;
+
+	public ChapterReloader(World w) {
+		this.w = w;
+	}
+
+	public void update(float delta) {
+		pollTime += delta;
+
+		if (pollTime < POLL_INTERVAL || w.isDisposed())
+			return;
+
+		pollTime = 0;
+
+		try {
+			checkChapter();
+			checkInk();
+		} catch (Exception e) {
+			EngineLogger.error("ERROR RELOADING CHAPTER: " + chapter, e);
+
+			// don't try again until the file is modified again
+			if (chapter != null)
+				chapterTime = getChapterFile().lastModified();
+		}
+	}
+
+	private FileHandle getChapterFile() {
+		return EngineAssetManager.getInstance().getModelFile(chapter + EngineAssetManager.CHAPTER_EXT);
+	}
+
+	private void checkChapter() {
+		if (w.getCurrentChapter() == null)
+			return;
+
+		// new chapter loaded, only take the model
+		if (!w.getCurrentChapter().equals(chapter)) {
+			chapter = w.getCurrentChapter();
+			chapterTime = getChapterFile().lastModified();
+			model = parse(getChapterFile());
+			return;
+		}
+
+		long t = getChapterFile().lastModified();
+
+		if (t == chapterTime)
+			return;
+
+		chapterTime = t;
+
+		JsonValue newModel = parse(getChapterFile());
+
+		if (model != null && newModel != null)
+			reloadChapter(model, newModel);
+
+		model = newModel;
+	}
+
+	private void checkInk() {
+		String name = w.getInkManager().getStoryName();
+
+		if (name == null)
+			return;
+
+		FileHandle f = EngineAssetManager.getInstance()
+				.getAsset(EngineAssetManager.MODEL_DIR + name + EngineAssetManager.INK_EXT);
+
+		if (!name.equals(storyName)) {
+			storyName = name;
+			inkTime = f.lastModified();
+			return;
+		}
+
+		long t = f.lastModified();
+
+		if (t != inkTime) {
+			inkTime = t;
+
+			EngineLogger.debug("RELOADING INK STORY: " + name);
+			w.getInkManager().reloadStory();
+		}
+	}
+
+	private static JsonValue parse(FileHandle f) {
+		if (!f.exists())
+			return null;
+
+		return new JsonReader().parse(f.reader("UTF-8"));
+	}
+
+	private void reloadChapter(JsonValue oldModel, JsonValue newModel) {
+		long initTime = System.currentTimeMillis();
+		Json json = new BladeJson(w, Mode.MODEL, false);
+		json.setIgnoreUnknownFields(true);
+
+		// SOUNDS
+		JsonValue jsonSounds = newModel.get("sounds");
+
+		if (jsonSounds != null) {
+			for (JsonValue s = jsonSounds.child; s != null; s = s.next)
+				w.getSounds().put(s.name, json.readValue(SoundDesc.class, s));
+		}
+
+		// SCENES
+		JsonValue oldScenes = oldModel.get("scenes");
+		JsonValue newScenes = newModel.get("scenes");
+
+		for (JsonValue newScene = newScenes.child; newScene != null; newScene = newScene.next) {
+			JsonValue oldScene = oldScenes.get(newScene.name);
+			Scene s = w.getScenes().get(newScene.name);
+
+			// lazy scenes not loaded yet are read from the new chapter when used
+			if (s == null && w.getSerializer().getChapterSceneIds() != null)
+				continue;
+
+			if (oldScene == null || s == null) {
+				EngineLogger.debug("RELOAD: Adding scene " + newScene.name);
+
+				s = new Scene(w);
+				s.read(json, newScene);
+				s.resetCamera(w.getWidth(), w.getHeight());
+				w.addScene(s);
+				w.getSerializer().cacheSounds(s);
+
+				continue;
+			}
+
+			JsonValue delta = JsonDelta.diff(oldScene, newScene);
+
+			if (delta == null)
+				continue;
+
+			if (isVerbsOnly(delta)) {
+				EngineLogger.debug("RELOAD: Patching verbs of scene " + newScene.name);
+				patchVerbs(json, s.getVerbManager(), delta.get("verbs"), newScene.get("verbs"));
+				w.getSerializer().cacheSounds(s);
+
+				JsonValue actors = delta.get("actors");
+
+				for (JsonValue a = actors == null ? null : actors.child; a != null; a = a.next) {
+					Scene actorScene = getActorScene(a.name, newScene.name);
+
+					if (actorScene == null)
+						continue;
+
+					BaseActor actor = actorScene.getActor(a.name, false);
+
+					if (actor instanceof InteractiveActor) {
+						patchVerbs(json, ((InteractiveActor) actor).getVerbManager(), a.get("verbs"),
+								newScene.get("actors").get(a.name).get("verbs"));
+						w.getSerializer().cacheSounds(actorScene);
+					}
+				}
+
+				// the registered callback locations of the replaced verbs
+				w.modelChanged();
+			} else {
+				EngineLogger.debug("RELOAD: Reloading scene " + newScene.name);
+				reloadScene(json, s, oldScene, newScene, delta);
+			}
+		}
+
+		// REMOVED SCENES
+		for (JsonValue oldScene = oldScenes.child; oldScene != null; oldScene = oldScene.next) {
+			if (newScenes.get(oldScene.name) == null && w.getScenes().get(oldScene.name) != null) {
+				EngineLogger.debug("RELOAD: Removing scene " + oldScene.name);
+				w.removeScene(oldScene.name);
+			}
+		}
+
+		w.getSerializer().reloadIndex();
+		w.getSerializer().rebuildBaseline();
+
+		EngineLogger.debug("CHAPTER RELOADING TIME (ms): " + (System.currentTimeMillis() - initTime));
+	}
+
+	/**
+	 * Searchs the scene of an actor that belongs to the scene in the model. It
+	 * could have been moved to other scene in the game.
+	 */
+	private Scene getActorScene(String id, String initScene) {
+		for (Scene s : w.getScenes().values()) {
+			BaseActor a = s.getActor(id, false);
+
+			if (a != null && initScene.equals(a.getInitScene()))
+				return s;
+		}
+
+		return null;
+	}
+
+	/**
+	 * @return true if only the scene or actor verbs are modified.
+	 */
+	private static boolean isVerbsOnly(JsonValue delta) {
+		for (JsonValue d = delta.child; d != null; d = d.next) {
+			if (d.name.equals("verbs"))
+				continue;
+
+			if (!d.name.equals("actors") || !d.isObject())
+				return false;
+
+			for (JsonValue a = d.child; a != null; a = a.next) {
+				if (!a.isObject() || a.size != 1 || a.get("verbs") == null)
+					return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static void patchVerbs(Json json, VerbManager vm, JsonValue delta, JsonValue verbs) {
+		if (delta == null)
+			return;
+
+		for (JsonValue d = delta.child; d != null; d = d.next) {
+			if (d.name.equals(JsonDelta.REMOVED)) {
+				for (JsonValue r = d.child; r != null; r = r.next)
+					vm.getVerbs().remove(r.asString());
+			} else {
+				vm.getVerbs().put(d.name, json.readValue(Verb.class, verbs.get(d.name)));
+			}
+		}
+	}
+
+	private void reloadScene(Json json, Scene old, JsonValue oldScene, JsonValue newScene, JsonValue delta) {
+		boolean loaded = old == w.getCurrentScene();
+
+		// TAKE THE OLD SCENE STATE
+		Json stateJson = new BladeJson(w, Mode.STATE);
+		stateJson.setOutputType(OutputType.json);
+		JsonValue state = new JsonReader().parse(stateJson.toJson(old, Scene.class));
+
+		// READ THE NEW MODEL
+		Scene s = new Scene(w);
+		s.read(json, newScene);
+		s.resetCamera(w.getWidth(), w.getHeight());
+
+		JsonValue actorsDelta = delta.get("actors");
+		JsonValue oldActors = oldScene.get("actors");
+		JsonValue stateActors = state.get("actors");
+		List<BaseActor> moved = new ArrayList<>();
+
+		// Actors removed from the scene while playing stay removed.
+		for (BaseActor a : new ArrayList<>(s.getActors().values())) {
+			if (oldActors != null && oldActors.get(a.getId()) != null && old.getActor(a.getId(), false) == null)
+				s.removeActor(a);
+		}
+
+		for (JsonValue a = stateActors.child; a != null;) {
+			JsonValue next = a.next;
+			SceneActorRef ref = new SceneActorRef(a.name);
+			JsonValue actorDelta = actorsDelta == null ? null : actorsDelta.get(ref.getActorId());
+
+			if (!ref.getSceneId().equals(s.getId())) {
+				// Actors from other scenes are moved with their state.
+				moved.add(old.getActor(ref.getActorId(), false));
+				remove(stateActors, a);
+			} else if (s.getActor(ref.getActorId(), false) == null) {
+				remove(stateActors, a);
+			} else if (actorDelta != null) {
+				if (actorDelta.size == 1 && actorDelta.get("verbs") != null)
+					removeVerbs(a.get("verbs"), actorDelta.get("verbs"));
+				else
+					remove(stateActors, a); // modified actor, take it from the model
+			}
+
+			a = next;
+		}
+
+		removeVerbs(state.get("verbs"), delta.get("verbs"));
+
+		for (BaseActor a : moved) {
+			if (loaded && a instanceof AssetConsumer)
+				((AssetConsumer) a).dispose();
+
+			old.removeActor(a);
+			s.addActor(a);
+		}
+
+		s.read(new BladeJson(w, Mode.STATE), state);
+
+		// after reading the state, it replaces the scene sounds
+		w.getSerializer().cacheSounds(s);
+
+		w.replaceScene(s);
+	}
+
+	/**
+	 * Removes the state of the modified verbs.
+	 */
+	private static void removeVerbs(JsonValue stateVerbs, JsonValue verbsDelta) {
+		if (stateVerbs == null || verbsDelta == null)
+			return;
+
+		for (JsonValue d = verbsDelta.child; d != null; d = d.next) {
+			JsonValue v = stateVerbs.get(d.name);
+
+			if (v != null)
+				remove(stateVerbs, v);
+		}
+	}
+
+	private static void remove(JsonValue parent, JsonValue v) {
+		if (v.prev == null)
+			parent.child = v.next;
+		else
+			v.prev.next = v.next;
+
+		if (v.next != null)
+			v.next.prev = v.prev;
+
+		parent.size--;
+	}
+}
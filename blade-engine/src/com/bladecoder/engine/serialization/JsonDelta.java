@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.serialization;
+
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonValue.ValueType;
+
+/**
+ * Calcs and applies the differences between two JSON object trees.
+ *
+ * A delta only contains the children that differ from the base. Objects are
+ * compared recursively, arrays and values are replaced as a whole and the
+ * names of the removed children are stored in the REMOVED array.
+ *
+ * @author rgarcia
+ */
+public class JsonDelta {
+	public static final String REMOVED = "$removed";
+
+	/**
+	 * @return the delta object or null if both objects are equal.
+	 */
+	public static JsonValue diff(JsonValue base, JsonValue state) {
+		JsonValue delta = new JsonValue(ValueType.object);
+		JsonValue last = null;
+
+		for (JsonValue c = state.child; c != null; c = c.next) {
+			JsonValue b = base.get(c.name);
+
+			if (b == null) {
+				last = add(delta, last, c.name, copy(c));
+			} else if (b.isObject() && c.isObject()) {
+				JsonValue d = diff(b, c);
+
+				if (d != null)
+					last = add(delta, last, c.name, d);
+			} else if (!equals(b, c)) {
+				last = add(delta, last, c.name, copy(c));
+			}
+		}
+
+		JsonValue removed = null;
+		JsonValue lastRemoved = null;
+
+		for (JsonValue b = base.child; b != null; b = b.next) {
+			if (state.get(b.name) == null) {
+				if (removed == null)
+					removed = new JsonValue(ValueType.array);
+
+				lastRemoved = add(removed, lastRemoved, null, new JsonValue(b.name));
+			}
+		}
+
+		if (removed != null)
+			add(delta, last, REMOVED, removed);
+
+		return delta.size == 0 ? null : delta;
+	}
+
+	/**
+	 * Applies the delta to the base object.
+	 */
+	public static void merge(JsonValue base, JsonValue delta) {
+		for (JsonValue d = delta.child; d != null; d = d.next) {
+			if (REMOVED.equals(d.name)) {
+				for (JsonValue r = d.child; r != null; r = r.next)
+					remove(base, r.asString());
+
+				continue;
+			}
+
+			JsonValue b = base.get(d.name);
+
+			if (b != null && b.isObject() && d.isObject()) {
+				merge(b, d);
+			} else {
+				if (b != null)
+					remove(base, d.name);
+
+				add(base, null, d.name, copy(d));
+			}
+		}
+	}
+
+	public static boolean equals(JsonValue a, JsonValue b) {
+		if (a.type() != b.type() || a.size != b.size)
+			return false;
+
+		if (a.isValue())
+			return a.isNull() || a.asString().equals(b.asString());
+
+		for (JsonValue ca = a.child, cb = b.child; ca != null; ca = ca.next, cb = cb.next) {
+			if (ca.name == null ? cb.name != null : !ca.name.equals(cb.name))
+				return false;
+
+			if (!equals(ca, cb))
+				return false;
+		}
+
+		return true;
+	}
+
+	public static JsonValue copy(JsonValue v) {
+		JsonValue c;
+
+		switch (v.type()) {
+		case object:
+		case array:
+			c = new JsonValue(v.type());
+			JsonValue last = null;
+
+			for (JsonValue child = v.child; child != null; child = child.next)
+				last = add(c, last, child.name, copy(child));
+			break;
+		case stringValue:
+			c = new JsonValue(v.asString());
+			break;
+		case doubleValue:
+			c = new JsonValue(v.asDouble(), v.asString());
+			break;
+		case longValue:
+			c = new JsonValue(v.asLong(), v.asString());
+			break;
+		case booleanValue:
+			c = new JsonValue(v.asBoolean());
+			break;
+		default:
+			c = new JsonValue(ValueType.nullValue);
+		}
+
+		return c;
+	}
+
+	/**
+	 * Appends a child keeping the links and the size updated.
+	 * 
+	 * @param last the last child of the parent if known, null to search it.
+	 * @return the added child, the new last child.
+	 */
+	private static JsonValue add(JsonValue parent, JsonValue last, String name, JsonValue v) {
+		v.name = name;
+		v.parent = parent;
+		v.next = null;
+
+		if (parent.child == null) {
+			v.prev = null;
+			parent.child = v;
+		} else {
+			if (last == null) {
+				last = parent.child;
+
+				while (last.next != null)
+					last = last.next;
+			}
+
+			last.next = v;
+			v.prev = last;
+		}
+
+		parent.size++;
+
+		return v;
+	}
+
+	private static void remove(JsonValue parent, String name) {
+		JsonValue v = parent.get(name);
+
+		if (v == null)
+			return;
+
+		if (v.prev == null)
+			parent.child = v.next;
+		else
+			v.prev.next = v.next;
+
+		if (v.next != null)
+			v.next.prev = v.prev;
+
+		v.parent = v.next = v.prev = null;
+		parent.size--;
+	}
+}
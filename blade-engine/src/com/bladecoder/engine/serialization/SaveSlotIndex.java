@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.serialization;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonWriter.OutputType;
+import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Small index of the saved games in the user folder.
+ *
+ * It is updated when a game is saved or removed, so the load/save screen
+ * doesn't need to list the user folder or open the saved games.
+ *
+ * @author rgarcia
+ */
+public class SaveSlotIndex {
+	public static final String INDEX_FILENAME = "slots.index";
+
+	public static class SlotInfo {
+		public String name;
+
+		/** save time in ms */
+		public long timestamp;
+
+		public String chapter;
+		public String scene;
+
+		/** time of game in ms */
+		public long playtime;
+
+		/** screenshot file name in the user folder. null if no screenshot */
+		public String thumbnail;
+	}
+
+	private HashMap<String, SlotInfo> slots = new HashMap<>();
+
+	// the saved games folder
+	private final FileHandle folder;
+
+	private SaveSlotIndex(FileHandle folder) {
+		this.folder = folder;
+	}
+
+	/**
+	 * Loads the index from the user folder. If the index doesn't exists it is
+	 * rebuilt listing the saved games. The slots whose saved game has been
+	 * deleted out of the game are removed.
+	 */
+	public static SaveSlotIndex load() {
+		return load(EngineAssetManager.getInstance().getUserFolder());
+	}
+
+	@SuppressWarnings("unchecked")
+	static SaveSlotIndex load(FileHandle folder) {
+		SaveSlotIndex index = new SaveSlotIndex(folder);
+		FileHandle f = folder.child(INDEX_FILENAME);
+
+		if (f.exists()) {
+			try {
+				index.slots = new Json().fromJson(HashMap.class, SlotInfo.class, f.reader("UTF-8"));
+
+				if (index.slots == null)
+					index.slots = new HashMap<>();
+
+				if (index.validate())
+					index.save();
+
+				return index;
+			} catch (Exception e) {
+				EngineLogger.error("ERROR LOADING SLOT INDEX, rebuilding it.", e);
+				index.slots = new HashMap<>();
+			}
+		}
+
+		index.rebuild();
+
+		if (!index.slots.isEmpty())
+			index.save();
+
+		return index;
+	}
+
+	/**
+	 * Removes the slots without saved game file.
+	 * 
+	 * @return true if some slot was removed.
+	 */
+	private boolean validate() {
+		boolean removed = false;
+		Iterator<SlotInfo> it = slots.values().iterator();
+
+		while (it.hasNext()) {
+			SlotInfo info = it.next();
+
+			if (info == null || info.name == null
+					|| !folder.child(info.name + WorldSerialization.GAMESTATE_EXT).exists()) {
+				it.remove();
+				removed = true;
+			}
+		}
+
+		return removed;
+	}
+
+	private void rebuild() {
+		FileHandle[] list = folder.list();
+
+		for (FileHandle file : list) {
+			String name = getSlotName(file.name());
+
+			if (name != null) {
+				SlotInfo info = new SlotInfo();
+				info.name = name;
+				info.timestamp = file.lastModified();
+
+				if (folder.child(file.name() + ".png").exists())
+					info.thumbnail = file.name() + ".png";
+
+				slots.put(info.name, info);
+			}
+		}
+	}
+
+	public void save() {
+		Json json = new Json(OutputType.json);
+
+		try {
+			folder.child(INDEX_FILENAME).writeString(json.toJson(slots, HashMap.class, SlotInfo.class), false,
+					"UTF-8");
+		} catch (Exception e) {
+			EngineLogger.error("ERROR SAVING SLOT INDEX", e);
+		}
+	}
+
+	public SlotInfo get(String name) {
+		return slots.get(name);
+	}
+
+	/**
+	 * @return false if the slot info is equal to the current one, the index
+	 *         doesn't need to be saved.
+	 */
+	public boolean put(SlotInfo info) {
+		SlotInfo old = slots.put(info.name, info);
+
+		return old == null || !equals(old, info);
+	}
+
+	/**
+	 * @return false if the slot was not in the index.
+	 */
+	public boolean remove(String name) {
+		return slots.remove(name) != null;
+	}
+
+	private static boolean equals(SlotInfo a, SlotInfo b) {
+		return a.timestamp == b.timestamp && a.playtime == b.playtime && equals(a.chapter, b.chapter)
+				&& equals(a.scene, b.scene) && equals(a.thumbnail, b.thumbnail);
+	}
+
+	private static boolean equals(String a, String b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	public List<SlotInfo> getSlots() {
+		return new ArrayList<>(slots.values());
+	}
+
+	/**
+	 * @return the slot name for a game state file name or null if the file is
+	 *         not a saved game.
+	 */
+	public static String getSlotName(String filename) {
+		if (!filename.endsWith(WorldSerialization.GAMESTATE_EXT))
+			return null;
+
+		return filename.substring(0, filename.length() - WorldSerialization.GAMESTATE_EXT.length());
+	}
+}
@@ -4,7 +4,10 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 
 import com.badlogic.gdx.Gdx;
@@ -14,6 +17,7 @@ import com.badlogic.gdx.utils.Json.Serializable;
 import com.badlogic.gdx.utils.JsonReader;
 import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.JsonWriter.OutputType;
+import com.badlogic.gdx.utils.SerializationException;
 import com.badlogic.gdx.utils.reflect.ReflectionException;
 import com.bladecoder.engine.actions.Action;
 import com.bladecoder.engine.actions.ActionFactory;
@@ -34,6 +38,7 @@ import com.bladecoder.engine.model.Verb;
 import com.bladecoder.engine.model.World;
 import com.bladecoder.engine.model.World.WorldProperties;
 import com.bladecoder.engine.serialization.BladeJson.Mode;
+import com.bladecoder.engine.serialization.SaveSlotIndex.SlotInfo;
 import com.bladecoder.engine.util.ActionUtils;
 import com.bladecoder.engine.util.Config;
 import com.bladecoder.engine.util.EngineLogger;
@@ -44,12 +49,82 @@ public class WorldSerialization implements Serializable {
 
 	private static final int SCREENSHOT_DEFAULT_WIDTH = 300;
 
+	// Longer strings are usually texts that are not repeated in the model
+	private static final int MAX_INTERNED_LENGTH = 64;
+
 	private final World w;
 
+	// Scenes state of the current chapter just after loading it. Used as base
+	// for the delta saved games.
+	private String baseline;
+
+	// null until read from the config
+	private Boolean deltaState;
+
+	// null until read from the config
+	private Boolean lazyScenes;
+
+	// Scenes of the current chapter not loaded yet. null if all the scenes are
+	// loaded.
+	private ChapterIndex index;
+
+	// State of every lazy loaded scene just after loading it. Used to know if
+	// the scene was modified and as base for the delta saved games.
+	private final HashMap<String, String> sceneBaselines = new HashMap<>();
+
+	// Scenes that have been the current scene in the lazy loaded chapter
+	private final HashSet<String> visitedScenes = new HashSet<>();
+
+	// Lazy loaded scenes found modified, they are not checked again
+	private final HashSet<String> modifiedScenes = new HashSet<>();
+
+	// Locations of the verbs and actions to save the pending callbacks
+	private final ActionCallbackSerializer.Registry callbackRegistry = new ActionCallbackSerializer.Registry();
+
 	public WorldSerialization(World w) {
 		this.w = w;
 	}
 
+	ActionCallbackSerializer.Registry getCallbackRegistry() {
+		return callbackRegistry;
+	}
+
+	/**
+	 * In delta state mode, the saved games only contains the scenes properties
+	 * that differ from the chapter model. The base is taken when the chapter is
+	 * loaded, so full saved games are written until the next chapter load. Delta
+	 * saved games are always loaded.
+	 */
+	public void setDeltaState(boolean deltaState) {
+		this.deltaState = deltaState;
+	}
+
+	public boolean isDeltaState() {
+		if (deltaState == null)
+			deltaState = Config.getProperty(Config.DELTA_SAVEGAMES_PROP, false);
+
+		return deltaState;
+	}
+
+	/**
+	 * With lazy scenes, only the chapter header is read when loading a chapter
+	 * and every scene is read from the chapter file the first time it is used.
+	 * The scenes that have not been the current scene and are not modified are
+	 * released when changing the current scene. The saved games only contains
+	 * the loaded scenes. Disabled by default, enabled with the 'lazy_scenes'
+	 * config property.
+	 */
+	public void setLazyScenes(boolean lazyScenes) {
+		this.lazyScenes = lazyScenes;
+	}
+
+	public boolean isLazyScenes() {
+		if (lazyScenes == null)
+			lazyScenes = Config.getProperty(Config.LAZY_SCENES_PROP, false);
+
+		return lazyScenes;
+	}
+
 	/**
 	 * Load the world description in 'world.json'.
 	 * 
@@ -138,15 +213,26 @@ public class WorldSerialization implements Serializable {
 
 		long initTime = System.currentTimeMillis();
 
+		releaseIndex();
+
 		if (chapterName == null)
 			chapterName = w.getInitChapter();
 
 		w.setChapter(chapterName);
 
-		if (EngineAssetManager.getInstance().getModelFile(chapterName + EngineAssetManager.CHAPTER_EXT).exists()) {
+		FileHandle chapterFile = EngineAssetManager.getInstance()
+				.getModelFile(chapterName + EngineAssetManager.CHAPTER_EXT);
+
+		if (chapterFile.exists()) {
 
-			JsonValue root = new JsonReader().parse(EngineAssetManager.getInstance()
-					.getModelFile(chapterName + EngineAssetManager.CHAPTER_EXT).reader("UTF-8"));
+			if (isLazyScenes())
+				index = ChapterIndex.load(chapterFile, EngineAssetManager.getInstance()
+						.getModelFile(chapterName + EngineAssetManager.CHAPTER_INDEX_EXT));
+
+			JsonValue root = index != null ? index.parseHeader()
+					: new JsonReader().parse(chapterFile.reader("UTF-8"));
+
+			internStrings(root);
 
 			Json json = new BladeJson(w, Mode.MODEL, initScene);
 			json.setIgnoreUnknownFields(true);
@@ -154,12 +240,15 @@ public class WorldSerialization implements Serializable {
 			read(json, root);
 
 			if (scene == null)
-				w.setCurrentScene(w.getScenes().get(w.getInitScene()), initScene);
+				w.setCurrentScene(w.getScene(w.getInitScene()), initScene);
 			else
-				w.setCurrentScene(w.getScenes().get(scene), initScene);
+				w.setCurrentScene(w.getScene(scene), initScene);
 
 			I18N.loadChapter(EngineAssetManager.MODEL_DIR + chapterName);
 
+			// the lazy scenes take their base when loaded
+			baseline = isDeltaState() && index == null ? writeScenesState() : null;
+
 			w.getCustomProperties().put(WorldProperties.CURRENT_CHAPTER.toString(), chapterName);
 			w.getCustomProperties().put(WorldProperties.PLATFORM.toString(), Gdx.app.getType().toString());
 		} else {
@@ -179,6 +268,9 @@ public class WorldSerialization implements Serializable {
 		if (w.isDisposed())
 			return;
 
+		// all the scenes must be in the model
+		loadAllScenes();
+
 		Json json = new BladeJson(w, Mode.MODEL);
 		json.setOutputType(OutputType.javascript);
 
@@ -200,6 +292,177 @@ public class WorldSerialization implements Serializable {
 		} finally {
 			w.close();
 		}
+
+		FileHandle indexFile = EngineAssetManager.getInstance()
+				.getModelFile(chapterId + EngineAssetManager.CHAPTER_INDEX_EXT);
+
+		if (!ChapterIndex.save(s.getBytes("UTF-8"), indexFile) && indexFile.exists())
+			indexFile.delete();
+	}
+
+	/**
+	 * Returns a scene of the current chapter that is not loaded yet. The scene is
+	 * read from the chapter file and added to the world.
+	 * 
+	 * @return null if the scene is not in the chapter or all the scenes are
+	 *         already loaded.
+	 */
+	public Scene loadScene(String id) {
+		if (index == null || id == null || w.getScenes().containsKey(id))
+			return null;
+
+		JsonValue jsonValue = index.parseScene(id);
+
+		if (jsonValue == null)
+			return null;
+
+		long initTime = System.currentTimeMillis();
+
+		internStrings(jsonValue);
+
+		Scene s = readModelScene(jsonValue);
+		w.addScene(s);
+		cacheSounds(s);
+
+		sceneBaselines.put(id, writeSceneState(s));
+
+		EngineLogger.debug("SCENE LOADING TIME (ms): " + id + " " + (System.currentTimeMillis() - initTime));
+
+		return s;
+	}
+
+	/**
+	 * Loads the scenes of the current chapter that are not loaded yet.
+	 */
+	public void loadAllScenes() {
+		if (index == null)
+			return;
+
+		for (String id : index.getSceneIds())
+			w.getScene(id);
+	}
+
+	/**
+	 * @return the ids of all the scenes of the current chapter, loaded or not.
+	 *         null if all the scenes are loaded.
+	 */
+	public Collection<String> getChapterSceneIds() {
+		return index == null ? null : index.getSceneIds();
+	}
+
+	/**
+	 * Removes the loaded scenes that have not been the current scene and are not
+	 * modified. They are read again from the chapter when used.
+	 * 
+	 * Every scene is compared with its base only once: it is released or marked
+	 * as modified.
+	 */
+	public void releaseScenes() {
+		if (index == null || w.getCurrentScene() == null)
+			return;
+
+		visitedScenes.add(w.getCurrentScene().getId());
+
+		boolean removed = false;
+		Iterator<Scene> it = w.getScenes().values().iterator();
+
+		while (it.hasNext()) {
+			Scene s = it.next();
+			String base = sceneBaselines.get(s.getId());
+
+			if (visitedScenes.contains(s.getId()) || modifiedScenes.contains(s.getId()) || base == null)
+				continue;
+
+			if (!base.equals(writeSceneState(s))) {
+				modifiedScenes.add(s.getId());
+				continue;
+			}
+
+			it.remove();
+			sceneBaselines.remove(s.getId());
+			removed = true;
+
+			EngineLogger.debug("Releasing unmodified scene: " + s.getId());
+		}
+
+		if (removed)
+			w.modelChanged();
+	}
+
+	/**
+	 * Reads the scene index again from the chapter file. Used when the chapter
+	 * is modified while playing, the loaded scenes are not changed.
+	 */
+	public void reloadIndex() {
+		if (index == null)
+			return;
+
+		String chapterName = w.getCurrentChapter();
+
+		index = ChapterIndex.load(
+				EngineAssetManager.getInstance().getModelFile(chapterName + EngineAssetManager.CHAPTER_EXT),
+				EngineAssetManager.getInstance().getModelFile(chapterName + EngineAssetManager.CHAPTER_INDEX_EXT));
+
+		if (index == null)
+			EngineLogger.error("ERROR INDEXING CHAPTER: " + chapterName);
+	}
+
+	/**
+	 * Takes again the base of the delta saved games from the chapter model.
+	 * Used when the chapter is modified while playing, the old base would be
+	 * applied to the new model when loading a saved game. The current scenes
+	 * state can not be used as base, the scenes are read again from the model.
+	 */
+	public void rebuildBaseline() {
+		if (index != null) {
+			for (String id : new ArrayList<>(sceneBaselines.keySet())) {
+				JsonValue jsonValue = index.parseScene(id);
+
+				if (jsonValue == null)
+					sceneBaselines.remove(id);
+				else
+					sceneBaselines.put(id, writeSceneState(readModelScene(jsonValue)));
+			}
+
+			return;
+		}
+
+		if (baseline == null)
+			return;
+
+		FileHandle chapterFile = EngineAssetManager.getInstance()
+				.getModelFile(w.getCurrentChapter() + EngineAssetManager.CHAPTER_EXT);
+		JsonValue jsonScenes = new JsonReader().parse(chapterFile.reader("UTF-8")).get("scenes");
+		HashMap<String, Scene> scenes = new HashMap<>();
+
+		for (JsonValue jsonValue = jsonScenes.child; jsonValue != null; jsonValue = jsonValue.next)
+			scenes.put(jsonValue.name, readModelScene(jsonValue));
+
+		Json json = new BladeJson(w, Mode.STATE);
+		json.setOutputType(OutputType.json);
+
+		baseline = json.toJson(scenes, scenes.getClass(), Scene.class);
+	}
+
+	private Scene readModelScene(JsonValue jsonValue) {
+		Json json = new BladeJson(w, Mode.MODEL);
+		json.setIgnoreUnknownFields(true);
+
+		Scene s = new Scene(w);
+		s.read(json, jsonValue);
+		s.resetCamera(w.getWidth(), w.getHeight());
+
+		return s;
+	}
+
+	/**
+	 * Called when the world is disposed.
+	 */
+	public void releaseIndex() {
+		index = null;
+		sceneBaselines.clear();
+		visitedScenes.clear();
+		modifiedScenes.clear();
 	}
 
 	public void loadGameState(FileHandle savedFile) throws IOException {
@@ -209,6 +472,8 @@ public class WorldSerialization implements Serializable {
 
 			JsonValue root = new JsonReader().parse(savedFile.reader("UTF-8"));
 
+			internStrings(root);
+
 			Json json = new BladeJson(w, Mode.STATE);
 			json.setIgnoreUnknownFields(true);
 
@@ -225,6 +490,10 @@ public class WorldSerialization implements Serializable {
 		if (w.isDisposed())
 			return;
 
+		// the path requests are not saved, the characters start walking now
+		for (Scene s : w.getScenes().values())
+			s.getPathRequests().flush();
+
 		Json json = new BladeJson(w, Mode.STATE);
 		json.setOutputType(OutputType.javascript);
 
@@ -249,6 +518,31 @@ public class WorldSerialization implements Serializable {
 		// Save Screenshot
 		if (screenshot)
 			w.takeScreenshot(filename + ".png", SCREENSHOT_DEFAULT_WIDTH);
+
+		updateSlotIndex(filename, screenshot);
+	}
+
+	private void updateSlotIndex(String filename, boolean screenshot) {
+		String slot = SaveSlotIndex.getSlotName(filename);
+
+		// Only saved games, not records or other states
+		if (slot == null)
+			return;
+
+		SaveSlotIndex index = SaveSlotIndex.load();
+		SlotInfo info = new SlotInfo();
+
+		info.name = slot;
+		info.timestamp = System.currentTimeMillis();
+		info.chapter = w.getCurrentChapter();
+		info.scene = w.getCurrentScene().getId();
+		info.playtime = w.getTimeOfGame();
+
+		if (screenshot || EngineAssetManager.getInstance().getUserFile(filename + ".png").exists())
+			info.thumbnail = filename + ".png";
+
+		if (index.put(info))
+			index.save();
 	}
 
 	@Override
@@ -264,7 +558,16 @@ public class WorldSerialization implements Serializable {
 
 		} else {
 			json.writeValue(Config.VERSION_PROP, Config.getProperty(Config.VERSION_PROP, null));
-			json.writeValue("scenes", w.getScenes(), w.getScenes().getClass(), Scene.class);
+
+			String base = getBaseline();
+
+			if (isDeltaState() && base != null) {
+				json.writeValue("delta", true);
+				writeScenesDelta(json, base);
+			} else {
+				json.writeValue("scenes", w.getScenes(), w.getScenes().getClass(), Scene.class);
+			}
+
 			json.writeValue("currentScene", w.getCurrentScene().getId());
 			json.writeValue("inventories", w.getInvetories());
 			json.writeValue("currentInventory", w.getCurrentInventory());
@@ -329,10 +632,14 @@ public class WorldSerialization implements Serializable {
 				s.read(json, jsonValue);
 			}
 
+			w.modelChanged();
+
 			w.setInitScene(json.readValue("initScene", String.class, jsonData));
 
-			if (w.getInitScene() == null && w.getScenes().size() > 0) {
-				w.setInitScene(w.getScenes().keySet().toArray(new String[0])[0]);
+			Collection<String> ids = w.getSceneIds();
+
+			if (w.getInitScene() == null && ids.size() > 0) {
+				w.setInitScene(ids.iterator().next());
 			}
 
 			for (Scene s : w.getScenes().values()) {
@@ -345,7 +652,8 @@ public class WorldSerialization implements Serializable {
 			}
 
 			// Add sounds to cache
-			cacheSounds();
+			for (Scene s : w.getScenes().values())
+				cacheSounds(s);
 		} else {
 			if (bladeVersion != null
 					&& !bladeVersion.equals(Config.getProperty(Config.BLADE_ENGINE_VERSION_PROP, ""))) {
@@ -364,6 +672,12 @@ public class WorldSerialization implements Serializable {
 				return;
 			}
 
+			boolean delta = json.readValue("delta", boolean.class, false, jsonData);
+
+			// the base must be taken before reading any state
+			if (delta && index == null && baseline == null)
+				baseline = writeScenesState();
+
 			// read inkManager after setting he current scene but before reading
 			// scenes and verbs tweens
 			if (jsonData.get("inkManager") != null) {
@@ -387,13 +701,38 @@ public class WorldSerialization implements Serializable {
 				w.getUIActors().read(json, jsonData.get("uiActors"));
 			}
 
-			for (Scene s : w.getScenes().values()) {
-				JsonValue jsonValue = jsonData.get("scenes").get(s.getId());
+			JsonValue jsonScenes = jsonData.get("scenes");
 
-				if (jsonValue != null)
-					s.read(json, jsonValue);
-				else
-					EngineLogger.debug("LOAD WARNING: Scene not found in saved game: " + s.getId());
+			// the saved lazy scenes are loaded to take their base
+			if (index != null) {
+				for (JsonValue v = jsonScenes.child; v != null; v = v.next)
+					w.getScene(v.name);
+			}
+
+			if (delta) {
+				JsonValue base = new JsonReader().parse(getBaseline());
+				JsonDelta.merge(base, jsonScenes);
+				jsonScenes = base;
+			}
+
+			if (index != null) {
+				for (JsonValue v = jsonScenes.child; v != null; v = v.next) {
+					Scene s = w.getScene(v.name);
+
+					if (s != null)
+						s.read(json, v);
+					else
+						EngineLogger.debug("LOAD WARNING: Scene not found in chapter: " + v.name);
+				}
+			} else {
+				for (Scene s : w.getScenes().values()) {
+					JsonValue jsonValue = jsonScenes.get(s.getId());
+
+					if (jsonValue != null)
+						s.read(json, jsonValue);
+					else
+						EngineLogger.debug("LOAD WARNING: Scene not found in saved game: " + s.getId());
+				}
 			}
 
 			w.setTimeOfGame(json.readValue("timeOfGame", long.class, 0L, jsonData));
@@ -430,141 +769,220 @@ public class WorldSerialization implements Serializable {
 		}
 	}
 
-	private void cacheSounds() {
+	private String writeScenesState() {
+		Json json = new BladeJson(w, Mode.STATE);
+		json.setOutputType(OutputType.json);
+
+		return json.toJson(w.getScenes(), w.getScenes().getClass(), Scene.class);
+	}
+
+	/**
+	 * The JSON reader creates a new String for every name and value. The ids,
+	 * animations, sounds, verbs and action params are repeated many times along
+	 * the chapter and in the saved games, so they are replaced by the interned
+	 * instance and all the scenes share the same immutable strings.
+	 */
+	private static void internStrings(JsonValue v) {
+		for (JsonValue c = v.child; c != null; c = c.next) {
+			if (c.name != null)
+				c.name = c.name.intern();
+
+			if (c.isString()) {
+				String s = c.asString();
+
+				if (s.length() <= MAX_INTERNED_LENGTH)
+					c.set(s.intern());
+			} else if (c.child != null) {
+				internStrings(c);
+			}
+		}
+	}
+
+	private String writeSceneState(Scene s) {
+		Json json = new BladeJson(w, Mode.STATE);
+		json.setOutputType(OutputType.json);
+
+		return json.toJson(s, Scene.class);
+	}
+
+	/**
+	 * @return the scenes state used as base for the delta saved games. With lazy
+	 *         scenes, the base of every loaded scene.
+	 */
+	private String getBaseline() {
+		if (index == null)
+			return baseline;
+
+		StringBuilder sb = new StringBuilder("{");
+
 		for (Scene s : w.getScenes().values()) {
+			String base = sceneBaselines.get(s.getId());
 
-			HashMap<String, Verb> verbs = s.getVerbManager().getVerbs();
+			if (base == null)
+				continue;
 
-			// Search SoundAction and PlaySoundAction
-			for (Verb v : verbs.values()) {
-				ArrayList<Action> actions = v.getActions();
+			if (sb.length() > 1)
+				sb.append(',');
 
-				for (int i = 0; i < actions.size(); i++) {
+			sb.append(OutputType.json.quoteName(s.getId())).append(':').append(base);
+		}
+
+		return sb.append('}').toString();
+	}
 
-					Action act = actions.get(i);
+	private void writeScenesDelta(Json json, String base) {
+		JsonReader reader = new JsonReader();
+		JsonValue delta = JsonDelta.diff(reader.parse(base), reader.parse(writeScenesState()));
 
-					try {
-						if (act instanceof SoundAction) {
+		try {
+			json.getWriter().json("scenes", delta == null ? "{}" : delta.toJson(OutputType.json));
+		} catch (IOException e) {
+			throw new SerializationException(e);
+		}
+	}
 
-							String actor = ActionUtils.getStringValue(act, "actor");
-							String play = ActionUtils.getStringValue(act, "play");
-							if (play != null) {
-								SoundDesc sd = w.getSounds().get(actor + "_" + play);
+	/**
+	 * Searchs the sounds used in the scene verbs and actor animations. The
+	 * sounds marked as preload are loaded with the scene and the rest are loaded
+	 * in background when the scene is ready.
+	 */
+	void cacheSounds(Scene s) {
+		HashMap<String, Verb> verbs = s.getVerbManager().getVerbs();
 
-								if (sd != null)
-									s.getSoundManager().addSoundToLoad(sd);
+		// Search SoundAction and PlaySoundAction
+		for (Verb v : verbs.values()) {
+			ArrayList<Action> actions = v.getActions();
 
-								HashMap<String, String> params = new HashMap<>();
-								params.put("sound", sd.getId());
+			for (int i = 0; i < actions.size(); i++) {
 
-								try {
-									Action a2 = ActionFactory.createByClass(PlaySoundAction.class.getName(), params);
-									actions.set(i, a2);
-									a2.init(w);
-								} catch (ClassNotFoundException | ReflectionException e) {
-									e.printStackTrace();
-								}
-								EngineLogger.debug("Converting SoundAction:" + s.getId() + "." + v.getId());
-							} else {
-								EngineLogger
-										.debug("WARNING: Cannot convert SoundAction:" + s.getId() + "." + v.getId());
-							}
+				Action act = actions.get(i);
 
-						} else if (act instanceof PlaySoundAction) {
-							String sound = ActionUtils.getStringValue(act, "sound");
-							SoundDesc sd = w.getSounds().get(sound);
+				try {
+					if (act instanceof SoundAction) {
 
-							if (sd != null && sd.isPreload())
+						String actor = ActionUtils.getStringValue(act, "actor");
+						String play = ActionUtils.getStringValue(act, "play");
+						if (play != null) {
+							SoundDesc sd = w.getSounds().get(actor + "_" + play);
+
+							if (sd != null)
 								s.getSoundManager().addSoundToLoad(sd);
 
+							HashMap<String, String> params = new HashMap<>();
+							params.put("sound", sd.getId());
+
+							try {
+								Action a2 = ActionFactory.createByClass(PlaySoundAction.class.getName(), params);
+								actions.set(i, a2);
+								a2.init(w);
+							} catch (ClassNotFoundException | ReflectionException e) {
+								e.printStackTrace();
+							}
+							EngineLogger.debug("Converting SoundAction:" + s.getId() + "." + v.getId());
+						} else {
+							EngineLogger
+									.debug("WARNING: Cannot convert SoundAction:" + s.getId() + "." + v.getId());
 						}
-					} catch (NoSuchFieldException | IllegalArgumentException | IllegalAccessException e) {
+
+					} else if (act instanceof PlaySoundAction) {
+						String sound = ActionUtils.getStringValue(act, "sound");
+						SoundDesc sd = w.getSounds().get(sound);
+
+						if (sd != null && sd.isPreload())
+							s.getSoundManager().addSoundToLoad(sd);
+						else if (sd != null)
+							s.getSoundManager().addSoundToPrefetch(sd);
+
 					}
+				} catch (NoSuchFieldException | IllegalArgumentException | IllegalAccessException e) {
 				}
 			}
+		}
 
-			for (BaseActor a : s.getActors().values()) {
+		for (BaseActor a : s.getActors().values()) {
 
-				if (a instanceof InteractiveActor) {
-					HashMap<String, Verb> actorVerbs = ((InteractiveActor) a).getVerbManager().getVerbs();
+			if (a instanceof InteractiveActor) {
+				HashMap<String, Verb> actorVerbs = ((InteractiveActor) a).getVerbManager().getVerbs();
 
-					for (Verb v : actorVerbs.values()) {
-						ArrayList<Action> actions = v.getActions();
+				for (Verb v : actorVerbs.values()) {
+					ArrayList<Action> actions = v.getActions();
 
-						for (int i = 0; i < actions.size(); i++) {
+					for (int i = 0; i < actions.size(); i++) {
 
-							Action act = actions.get(i);
+						Action act = actions.get(i);
 
-							try {
-								if (act instanceof SoundAction) {
-
-									String actor = ActionUtils.getStringValue(act, "actor");
-									String play = ActionUtils.getStringValue(act, "play");
-									if (play != null) {
-										SoundDesc sd = w.getSounds().get(actor + "_" + play);
-
-										if (sd != null)
-											s.getSoundManager().addSoundToLoad(sd);
-
-										HashMap<String, String> params = new HashMap<>();
-										params.put("sound", sd.getId());
-
-										try {
-											Action a2 = ActionFactory.createByClass(PlaySoundAction.class.getName(),
-													params);
-											actions.set(i, a2);
-											a2.init(w);
-										} catch (ClassNotFoundException | ReflectionException e) {
-											e.printStackTrace();
-										}
-										EngineLogger.debug("Converting SoundAction in:" + s.getId() + "." + a.getId()
-												+ "." + v.getId());
-									} else {
-										EngineLogger.debug("WARNING: Cannot convert SoundAction:" + s.getId() + "."
-												+ a.getId() + "." + v.getId());
-									}
+						try {
+							if (act instanceof SoundAction) {
 
-								} else if (act instanceof PlaySoundAction) {
-									String sound = ActionUtils.getStringValue(act, "sound");
-									SoundDesc sd = w.getSounds().get(sound);
+								String actor = ActionUtils.getStringValue(act, "actor");
+								String play = ActionUtils.getStringValue(act, "play");
+								if (play != null) {
+									SoundDesc sd = w.getSounds().get(actor + "_" + play);
 
-									if (sd != null && sd.isPreload())
+									if (sd != null)
 										s.getSoundManager().addSoundToLoad(sd);
 
+									HashMap<String, String> params = new HashMap<>();
+									params.put("sound", sd.getId());
+
+									try {
+										Action a2 = ActionFactory.createByClass(PlaySoundAction.class.getName(),
+												params);
+										actions.set(i, a2);
+										a2.init(w);
+									} catch (ClassNotFoundException | ReflectionException e) {
+										e.printStackTrace();
+									}
+									EngineLogger.debug("Converting SoundAction in:" + s.getId() + "." + a.getId()
+											+ "." + v.getId());
+								} else {
+									EngineLogger.debug("WARNING: Cannot convert SoundAction:" + s.getId() + "."
+											+ a.getId() + "." + v.getId());
 								}
-							} catch (NoSuchFieldException | IllegalArgumentException | IllegalAccessException e) {
+
+							} else if (act instanceof PlaySoundAction) {
+								String sound = ActionUtils.getStringValue(act, "sound");
+								SoundDesc sd = w.getSounds().get(sound);
+
+								if (sd != null && sd.isPreload())
+									s.getSoundManager().addSoundToLoad(sd);
+								else if (sd != null)
+									s.getSoundManager().addSoundToPrefetch(sd);
+
 							}
+						} catch (NoSuchFieldException | IllegalArgumentException | IllegalAccessException e) {
 						}
 					}
 				}
+			}
 
-				if (a instanceof SpriteActor && ((SpriteActor) a).getRenderer() instanceof AnimationRenderer) {
-					HashMap<String, AnimationDesc> anims = ((AnimationRenderer) ((SpriteActor) a).getRenderer())
-							.getAnimations();
+			if (a instanceof SpriteActor && ((SpriteActor) a).getRenderer() instanceof AnimationRenderer) {
+				HashMap<String, AnimationDesc> anims = ((AnimationRenderer) ((SpriteActor) a).getRenderer())
+						.getAnimations();
 
-					for (AnimationDesc ad : anims.values()) {
-						if (ad.sound != null) {
-							String sid = ad.sound;
+				for (AnimationDesc ad : anims.values()) {
+					if (ad.sound != null) {
+						String sid = ad.sound;
 
-							SoundDesc sd = w.getSounds().get(sid);
+						SoundDesc sd = w.getSounds().get(sid);
 
-							if (sd == null)
-								sid = a.getId() + "_" + sid;
+						if (sd == null)
+							sid = a.getId() + "_" + sid;
 
-							sd = w.getSounds().get(sid);
+						sd = w.getSounds().get(sid);
 
-							if (sd != null) {
-								if (sd.isPreload())
-									s.getSoundManager().addSoundToLoad(sd);
-							} else
-								EngineLogger.error(
-										a.getId() + ": SOUND not found: " + ad.sound + " in animation: " + ad.id);
-						}
+						if (sd != null) {
+							if (sd.isPreload())
+								s.getSoundManager().addSoundToLoad(sd);
+							else
+								s.getSoundManager().addSoundToPrefetch(sd);
+						} else
+							EngineLogger.error(
+									a.getId() + ": SOUND not found: " + ad.sound + " in animation: " + ad.id);
 					}
 				}
-
 			}
-		}
 
+		}
 	}
 }
@@ -54,6 +54,7 @@ public class DebugScreen implements BladeScreen {
 	private SelectBox<String> scenes;
 	private TextField recFilename;
 	private TextButton rec;
+	private TextField checkpointText;
 
 	private TextField testerTimeConf;
 	private TextField inSceneTimeConf;
@@ -166,6 +167,16 @@ public class DebugScreen implements BladeScreen {
 				if (!r.isPlaying()) {
 					r.setFilename(recordings.getSelected());
 					r.load();
+
+					// play from the checkpoint if set
+					if (!checkpointText.getText().trim().isEmpty()) {
+						try {
+							r.seek(Integer.parseInt(checkpointText.getText().trim()));
+						} catch (NumberFormatException e) {
+							EngineLogger.error("Invalid checkpoint: " + checkpointText.getText());
+						}
+					}
+
 					r.setPlaying(true);
 					ui.setCurrentScreen(Screens.SCENE_SCREEN);
 				} else {
@@ -195,35 +206,51 @@ public class DebugScreen implements BladeScreen {
 			}
 		});
 
+		TextButton checkpoint = new TextButton("Checkpoint", ui.getSkin());
+		checkpoint.addListener(new ClickListener() {
+
+			public void clicked(InputEvent event, float x, float y) {
+				final Recorder r = ui.getRecorder();
+
+				if (r.isRecording()) {
+					r.checkpoint();
+					ui.setCurrentScreen(Screens.SCENE_SCREEN);
+				}
+			}
+		});
+
 		recordings = new SelectBox<String>(ui.getSkin());
 
 		String[] testFiles = EngineAssetManager.getInstance().listAssetFiles("tests");
 		ArrayList<String> al = new ArrayList<String>();
 
 		for (String file : testFiles)
-			if (file.endsWith(Recorder.RECORD_EXT))
-				al.add(file.substring(0, file.indexOf(Recorder.RECORD_EXT)));
+			addRecordName(al, file);
 
 		FileHandle[] testFiles2 = EngineAssetManager.getInstance().getUserFolder().list();
 
 		for (FileHandle file : testFiles2)
-			if (file.name().endsWith(Recorder.RECORD_EXT))
-				al.add(file.name().substring(0, file.name().indexOf(Recorder.RECORD_EXT)));
+			addRecordName(al, file.name());
 
 		recordings.setItems(al.toArray(new String[al.size()]));
 
 		play.pad(2, 3, 2, 3);
 		rec.pad(2, 3, 2, 3);
+		checkpoint.pad(2, 3, 2, 3);
 
 		recFilename = new TextField(r.getFileName(), ui.getSkin());
+		checkpointText = new TextField("", ui.getSkin());
+		checkpointText.setMessageText("From CP");
 
 		HorizontalGroup rGroup = new HorizontalGroup();
 		rGroup.space(10);
 		rGroup.addActor(recordings);
+		rGroup.addActor(checkpointText);
 		rGroup.addActor(play);
 		rGroup.addActor(new Label("Rec. Filename", ui.getSkin(), "debug"));
 		rGroup.addActor(recFilename);
 		rGroup.addActor(rec);
+		rGroup.addActor(checkpoint);
 
 		table.row().pad(5).align(Align.left);
 		table.add(new Label("Game Recording: ", ui.getSkin(), "debug"));
@@ -285,7 +312,7 @@ public class DebugScreen implements BladeScreen {
 
 		scenes = new SelectBox<String>(ui.getSkin());
 		scenes.setItems(
-				ui.getWorld().getScenes().keySet().toArray(new String[ui.getWorld().getScenes().size()]));
+				ui.getWorld().getSceneIds().toArray(new String[ui.getWorld().getSceneIds().size()]));
 
 		HorizontalGroup scGroup = new HorizontalGroup();
 		scGroup.space(10);
@@ -445,4 +472,16 @@ public class DebugScreen implements BladeScreen {
 	public void setUI(UI ui) {
 		this.ui = ui;
 	}
+
+	private void addRecordName(ArrayList<String> al, String file) {
+		String name = null;
+
+		if (file.endsWith(Recorder.RECORD_STREAM_EXT))
+			name = file.substring(0, file.indexOf(Recorder.RECORD_STREAM_EXT));
+		else if (file.endsWith(Recorder.RECORD_EXT))
+			name = file.substring(0, file.indexOf(Recorder.RECORD_EXT));
+
+		if (name != null && !al.contains(name))
+			al.add(name);
+	}
 }
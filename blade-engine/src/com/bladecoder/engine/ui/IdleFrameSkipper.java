@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.ui;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Group;
+import com.badlogic.gdx.utils.SnapshotArray;
+import com.bladecoder.engine.model.World;
+import com.bladecoder.engine.util.Config;
+
+/**
+ * Stops rendering when nothing changes in the scene screen.
+ * 
+ * The screen reports at the end of every frame if the world and the UI are
+ * idle. After some idle frames the continuous rendering is disabled and libGDX
+ * only renders when there is input or a runnable is posted. The first frame
+ * that is not idle enables the continuous rendering again.
+ * 
+ * Can be disabled with the 'idle_rendering' property.
+ * 
+ * @author rgarcia
+ */
+public class IdleFrameSkipper {
+	// the frame after the last change must be drawn
+	private static final int IDLE_FRAMES = 2;
+
+	private final boolean enabled;
+
+	private int idleFrames;
+	private boolean sleeping;
+	private float frameTime = 1 / 60f;
+	private long skippedFrames;
+
+	public IdleFrameSkipper() {
+		enabled = Config.getProperty(Config.IDLE_RENDERING_PROP, true);
+	}
+
+	/**
+	 * Must be called at the start of the frame.
+	 * 
+	 * @return the delta to update the world. The time while sleeping is only
+	 *         added to the game time, so the changes started by the input are
+	 *         not advanced.
+	 */
+	public float begin(World w, float delta) {
+		if (!sleeping || delta <= frameTime)
+			return delta;
+
+		skippedFrames += Math.round(delta / frameTime) - 1;
+		w.setTimeOfGame(w.getTimeOfGame() + (long) ((delta - frameTime) * 1000));
+
+		return frameTime;
+	}
+
+	/**
+	 * Must be called at the end of the frame.
+	 * 
+	 * @param idle true if nothing will change in the next frame without input.
+	 */
+	public void end(boolean idle) {
+		if (!enabled)
+			return;
+
+		if (!idle) {
+			wake();
+			return;
+		}
+
+		idleFrames++;
+
+		if (idleFrames >= IDLE_FRAMES && !sleeping) {
+			int refreshRate = Gdx.graphics.getDisplayMode().refreshRate;
+
+			frameTime = 1f / (refreshRate > 0 ? refreshRate : 60);
+			sleeping = true;
+			Gdx.graphics.setContinuousRendering(false);
+		}
+	}
+
+	/**
+	 * Enables the continuous rendering. Must be called when hiding the screen.
+	 */
+	public void wake() {
+		idleFrames = 0;
+
+		if (sleeping) {
+			sleeping = false;
+			Gdx.graphics.setContinuousRendering(true);
+		}
+	}
+
+	public boolean isSleeping() {
+		return sleeping;
+	}
+
+	/**
+	 * @return the estimated number of frames not rendered because the screen was
+	 *         idle.
+	 */
+	public long getSkippedFrames() {
+		return skippedFrames;
+	}
+
+	/**
+	 * @return true if the actor or any of its children has actions running.
+	 */
+	public static boolean hasActions(Actor a) {
+		if (a.hasActions())
+			return true;
+
+		if (a instanceof Group) {
+			SnapshotArray<Actor> children = ((Group) a).getChildren();
+
+			for (int i = 0; i < children.size; i++) {
+				if (hasActions(children.get(i)))
+					return true;
+			}
+		}
+
+		return false;
+	}
+}
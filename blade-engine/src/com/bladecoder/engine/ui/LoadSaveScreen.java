@@ -28,9 +28,11 @@ import com.badlogic.gdx.Input.Keys;
 import com.badlogic.gdx.ScreenAdapter;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.Texture.TextureFilter;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.InputListener;
@@ -48,12 +50,16 @@ import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncTask;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.i18n.I18N;
 import com.bladecoder.engine.model.Text;
 import com.bladecoder.engine.model.TextManager;
 import com.bladecoder.engine.model.World;
+import com.bladecoder.engine.serialization.SaveSlotIndex;
+import com.bladecoder.engine.serialization.SaveSlotIndex.SlotInfo;
 import com.bladecoder.engine.serialization.WorldSerialization;
 import com.bladecoder.engine.ui.UI.Screens;
 import com.bladecoder.engine.util.DPIUtils;
@@ -76,6 +82,13 @@ public class LoadSaveScreen extends ScreenAdapter implements BladeScreen {
 	// texture list for final dispose
 	private final ArrayList<Texture> textureList = new ArrayList<>();
 
+	// screenshots are loaded when their page is visible
+	private final ArrayList<Thumbnail> thumbnails = new ArrayList<>();
+	private SaveSlotIndex slotIndex;
+	private AsyncExecutor executor;
+	private PagedScrollPane scroll;
+	private final Vector2 tmpV2 = new Vector2();
+
 	private Pointer pointer;
 
 	public LoadSaveScreen() {
@@ -88,6 +101,9 @@ public class LoadSaveScreen extends ScreenAdapter implements BladeScreen {
 
 		stage.act(delta);
 		stage.draw();
+
+		// after draw() the layout is valid and we know the visible slots
+		loadVisibleThumbnails();
 	}
 
 	@Override
@@ -108,8 +124,17 @@ public class LoadSaveScreen extends ScreenAdapter implements BladeScreen {
 
 			bgTexFile = null;
 
+			if (executor != null) {
+				executor.dispose();
+				executor = null;
+			}
+
 			for (Texture t : textureList)
 				t.dispose();
+
+			textureList.clear();
+			thumbnails.clear();
+			scroll = null;
 		}
 	}
 
@@ -177,7 +202,9 @@ public class LoadSaveScreen extends ScreenAdapter implements BladeScreen {
 			}
 		});
 
-		final PagedScrollPane scroll = new PagedScrollPane();
+		executor = new AsyncExecutor(1);
+
+		scroll = new PagedScrollPane();
 		scroll.setFlingTime(0.1f);
 		scroll.setPageSpacing(0);
 
@@ -248,6 +275,9 @@ public class LoadSaveScreen extends ScreenAdapter implements BladeScreen {
 	}
 
 	private boolean slotExists(String slot) {
+		if (slotIndex.get(slot) != null)
+			return true;
+
 		String filename = slot + WorldSerialization.GAMESTATE_EXT;
 		return ui.getWorld().savedGameExists(filename);
 	}
@@ -301,14 +331,12 @@ public class LoadSaveScreen extends ScreenAdapter implements BladeScreen {
 	private List<String> getSlots() {
 		final List<String> al = new ArrayList<>();
 
-		FileHandle[] list = EngineAssetManager.getInstance().getUserFolder().list();
+		slotIndex = SaveSlotIndex.load();
 
-		for (FileHandle file : list)
-			if (file.name().endsWith(WorldSerialization.GAMESTATE_EXT)) {
-				String name = file.name().substring(0, file.name().indexOf(WorldSerialization.GAMESTATE_EXT));
-				if (!name.equals("default"))
-					al.add(name);
-			}
+		for (SlotInfo info : slotIndex.getSlots()) {
+			if (!info.name.equals("default"))
+				al.add(info.name);
+		}
 
 		// Add savedgames in '/tests' folder
 		if (EngineLogger.debugMode()) {
@@ -324,27 +352,124 @@ public class LoadSaveScreen extends ScreenAdapter implements BladeScreen {
 		return al;
 	}
 
+	/**
+	 * Returns an empty image for the slot. The screenshot is loaded when the slot
+	 * is visible.
+	 */
 	private Image getScreenshot(String slot) {
 		String filename = slot + WorldSerialization.GAMESTATE_EXT + ".png";
+		SlotInfo info = slotIndex.get(slot);
 
 		FileHandle savedFile = null;
+		Image image = new Image(ui.getSkin().getDrawable("black"));
 
-		if (EngineAssetManager.getInstance().getUserFile(filename).exists())
-			savedFile = EngineAssetManager.getInstance().getUserFile(filename);
-		else if (EngineAssetManager.getInstance().assetExists("tests/" + filename))
+		// the user folder slots are in the index, the rest are in the tests folder
+		if (info != null) {
+			if (info.thumbnail == null)
+				return image;
+
+			savedFile = EngineAssetManager.getInstance().getUserFile(info.thumbnail);
+
+			// written in background when saving, it could have failed
+			if (!savedFile.exists())
+				return image;
+		} else if (EngineAssetManager.getInstance().assetExists("tests/" + filename))
 			savedFile = EngineAssetManager.getInstance().getAsset("tests/" + filename);
 		else {
-			Drawable d = ui.getSkin().getDrawable("black");
+			return image;
+		}
+
+		thumbnails.add(new Thumbnail(image, savedFile));
+
+		return image;
+	}
 
-			return new Image(d);
+	private void loadVisibleThumbnails() {
+		if (scroll == null)
+			return;
+
+		float w = scroll.getWidth();
+
+		for (int i = thumbnails.size() - 1; i >= 0; i--) {
+			Thumbnail t = thumbnails.get(i);
+
+			tmpV2.set(0, 0);
+			t.image.localToAscendantCoordinates(scroll, tmpV2);
+
+			// visible page and the adjacent ones
+			if (tmpV2.x + t.image.getWidth() >= -w && tmpV2.x <= w * 2) {
+				thumbnails.remove(i);
+				loadThumbnail(t);
+			}
 		}
+	}
 
-		Texture t = new Texture(savedFile);
+	/**
+	 * Decodes and downscales the screenshot in the executor thread. The texture
+	 * is created in the GL thread.
+	 */
+	private void loadThumbnail(final Thumbnail t) {
+		final int maxWidth = (int) (slotWidth * .95f);
+		final Stage s = stage;
+
+		executor.submit(new AsyncTask<Void>() {
+			@Override
+			public Void call() throws Exception {
+				final Pixmap p;
+
+				// the executor doesn't report the errors
+				try {
+					p = downscale(new Pixmap(t.file), maxWidth);
+				} catch (Exception e) {
+					EngineLogger.error("Error loading thumbnail: " + t.file.name(), e);
+					return null;
+				}
+
+				Gdx.app.postRunnable(new Runnable() {
+					@Override
+					public void run() {
+						if (stage != s || stage == null) {
+							p.dispose();
+							return;
+						}
+
+						Texture tex = new Texture(p);
+						tex.setFilter(TextureFilter.Linear, TextureFilter.Linear);
+						p.dispose();
 
-		// add to the list for proper dispose when hide the screen
-		textureList.add(t);
+						// add to the list for proper dispose when hide the screen
+						textureList.add(tex);
 
-		return new Image(t);
+						t.image.setDrawable(new TextureRegionDrawable(new TextureRegion(tex)));
+					}
+				});
+
+				return null;
+			}
+		});
+	}
+
+	private static Pixmap downscale(Pixmap p, int maxWidth) {
+		if (maxWidth <= 0 || p.getWidth() <= maxWidth)
+			return p;
+
+		int h = p.getHeight() * maxWidth / p.getWidth();
+		Pixmap scaled = new Pixmap(maxWidth, h, p.getFormat());
+		scaled.setFilter(Pixmap.Filter.BiLinear);
+		scaled.drawPixmap(p, 0, 0, p.getWidth(), p.getHeight(), 0, 0, maxWidth, h);
+		p.dispose();
+
+		return scaled;
+	}
+
+	private static class Thumbnail {
+		final Image image;
+		final FileHandle file;
+
+		Thumbnail(Image image, FileHandle file) {
+			this.image = image;
+			this.file = file;
+		}
 	}
 
 	private ClickListener loadClickListener = new ClickListener() {
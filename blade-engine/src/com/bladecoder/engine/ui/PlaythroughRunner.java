@@ -0,0 +1,290 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.ui;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonWriter.OutputType;
+import com.bladecoder.engine.model.World;
+import com.bladecoder.engine.model.World.AssetState;
+import com.bladecoder.engine.serialization.BladeJson;
+import com.bladecoder.engine.serialization.BladeJson.Mode;
+import com.bladecoder.engine.util.HeadlessGL;
+
+/**
+ * Runs recorded games and tester bot sessions without rendering.
+ *
+ * The world is updated with a fixed timestep as fast as possible. Every job
+ * uses its own World instance.
+ *
+ * The application must be started with a backend that doesn't need a window,
+ * for example the libgdx HeadlessApplication. If there is not a GL context, a
+ * stub is installed so textures are loaded but never uploaded to the GPU.
+ *
+ * The jobs are run one after another in the calling thread. They can not run
+ * in parallel because the EngineAssetManager and the renderers static
+ * resources are shared and disposed by every job.
+ *
+ * @author rgarcia
+ */
+public class PlaythroughRunner {
+	public static final float DEFAULT_STEP = 1 / 60f;
+
+	/** Max. game time in seconds for every job */
+	public static final float DEFAULT_MAX_GAME_TIME = 60 * 60;
+
+	/** Max. real time in ms to load the assets of a scene */
+	public static final long DEFAULT_LOAD_TIMEOUT = 60 * 1000;
+
+	private float step = DEFAULT_STEP;
+	private float maxGameTime = DEFAULT_MAX_GAME_TIME;
+	private long loadTimeout = DEFAULT_LOAD_TIMEOUT;
+	private String chapter;
+
+	private final List<Job> jobs = new ArrayList<>();
+
+	/**
+	 * Adds a record to play. The record is searched as the Recorder does.
+	 */
+	public void addRecord(String recordName) {
+		Job j = new Job();
+		j.record = recordName;
+		jobs.add(j);
+	}
+
+	/**
+	 * Adds a tester bot session that starts a new game.
+	 */
+	public void addBot(long seed) {
+		Job j = new Job();
+		j.seed = seed;
+		jobs.add(j);
+	}
+
+	public void setStep(float step) {
+		this.step = step;
+	}
+
+	public void setMaxGameTime(float maxGameTime) {
+		this.maxGameTime = maxGameTime;
+	}
+
+	public void setLoadTimeout(long loadTimeout) {
+		this.loadTimeout = loadTimeout;
+	}
+
+	/**
+	 * The chapter to start the bot sessions. null to use the world init chapter.
+	 */
+	public void setChapter(String chapter) {
+		this.chapter = chapter;
+	}
+
+	/**
+	 * Runs all the jobs and waits for them to finish.
+	 *
+	 * @return the result of every job in the order that they were added.
+	 */
+	public List<Result> run() {
+		HeadlessGL.install();
+
+		List<Result> results = new ArrayList<>();
+
+		for (Job j : jobs)
+			results.add(runJob(j));
+
+		return results;
+	}
+
+	private Result runJob(Job j) {
+		Result r = new Result();
+		r.name = j.record != null ? j.record : "bot:" + j.seed;
+
+		long t0 = System.currentTimeMillis();
+		World w = new World();
+		Recorder recorder = null;
+		TesterBot bot = null;
+
+		try {
+			w.loadWorldDesc();
+			w.loadChapter(chapter, null, false);
+
+			if (j.record != null) {
+				recorder = new Recorder(w);
+				recorder.setFilename(j.record);
+				recorder.load();
+				recorder.setPlaying(true);
+			} else {
+				bot = new TesterBot(w);
+				bot.setSeed(j.seed);
+				bot.setEnabled(true);
+			}
+
+			float gameTime = 0;
+			int recorderPos = 0;
+			long loadDeadline = -1;
+
+			while (gameTime < maxGameTime && !w.isDisposed()) {
+				if (w.getAssetState() != AssetState.LOADED) {
+					if (loadDeadline == -1)
+						loadDeadline = System.currentTimeMillis() + loadTimeout;
+					else if (System.currentTimeMillis() > loadDeadline)
+						throw new GdxRuntimeException("Timeout loading the assets of scene: "
+								+ (w.getCurrentScene() != null ? w.getCurrentScene().getId() : null));
+
+					w.resize(w.getWidth(), w.getHeight());
+
+					// update(0) loads and retrieves the assets and runs the init verbs
+					w.update(0);
+					Thread.yield();
+					continue;
+				}
+
+				loadDeadline = -1;
+
+				w.update(step);
+
+				if (w.isDisposed())
+					break;
+
+				if (recorder != null) {
+					recorder.update(step);
+					recorderPos = Math.max(recorderPos, recorder.getPos());
+
+					if (!recorder.isPlaying()) {
+						recorderPos = recorder.getNumVerbs();
+						break;
+					}
+				} else {
+					bot.update(step);
+				}
+
+				gameTime += step;
+				r.frames++;
+			}
+
+			r.gameTime = gameTime;
+			r.verbs = recorder != null ? recorderPos : bot.getNumActions();
+			r.finished = w.isDisposed() || (recorder != null && !recorder.isPlaying());
+
+			if (!w.isDisposed()) {
+				r.scene = w.getCurrentScene().getId();
+				r.stateHash = stateHash(w);
+			}
+		} catch (Throwable e) {
+			r.crash = e;
+		} finally {
+			r.wallTime = System.currentTimeMillis() - t0;
+			w.dispose();
+		}
+
+		return r;
+	}
+
+	/**
+	 * Calcs a hash of the serialized game state. Two runs that end in the same
+	 * state have the same hash.
+	 */
+	public static String stateHash(World w) throws UnsupportedEncodingException {
+		Json json = new BladeJson(w, Mode.STATE);
+		json.setOutputType(OutputType.json);
+
+		CRC32 crc = new CRC32();
+		crc.update(json.toJson(w.getSerializer()).getBytes("UTF-8"));
+
+		return Long.toHexString(crc.getValue());
+	}
+
+	public static String report(List<Result> results) {
+		StringBuilder sb = new StringBuilder();
+		float totalGameTime = 0;
+		long totalWallTime = 0;
+		int totalVerbs = 0;
+		int crashes = 0;
+
+		for (Result r : results) {
+			sb.append(r.toString()).append('\n');
+
+			totalGameTime += r.gameTime;
+			totalWallTime += r.wallTime;
+			totalVerbs += r.verbs;
+
+			if (r.crash != null)
+				crashes++;
+		}
+
+		float wallSecs = Math.max(totalWallTime, 1) / 1000f;
+
+		sb.append("JOBS: ").append(results.size());
+		sb.append(" CRASHES: ").append(crashes);
+		sb.append(" GAME TIME/WALL TIME: ").append(totalGameTime / wallSecs);
+		sb.append(" VERBS/S: ").append(totalVerbs / wallSecs);
+
+		return sb.toString();
+	}
+
+	private static class Job {
+		String record;
+		long seed;
+	}
+
+	public static class Result {
+		public String name;
+
+		/** simulated time in seconds */
+		public float gameTime;
+
+		/** real time in ms */
+		public long wallTime;
+
+		public int frames;
+		public int verbs;
+
+		/** true if the record was played completely or the game ended */
+		public boolean finished;
+
+		public String scene;
+		public String stateHash;
+		public Throwable crash;
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+
+			sb.append(name).append(": ");
+
+			if (crash != null) {
+				sb.append("CRASH ").append(crash.toString()).append(' ');
+			} else if (!finished) {
+				sb.append("TIMEOUT ");
+			}
+
+			sb.append("GAME TIME: ").append(gameTime);
+			sb.append(" WALL TIME (ms): ").append(wallTime);
+			sb.append(" FRAMES: ").append(frames);
+			sb.append(" VERBS: ").append(verbs);
+			sb.append(" SCENE: ").append(scene);
+			sb.append(" HASH: ").append(stateHash);
+
+			return sb.toString();
+		}
+	}
+}
@@ -15,6 +15,7 @@
  ******************************************************************************/
 package com.bladecoder.engine.ui;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
@@ -24,6 +25,7 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonWriter.OutputType;
 import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.model.InteractiveActor;
 import com.bladecoder.engine.model.Scene;
@@ -35,14 +37,22 @@ import com.bladecoder.engine.util.RectangleRenderer;
  * Singleton class for recording verbs calls. This class can record and play a
  * game session.
  * 
+ * The verbs are written to a stream file, one JSON object by line, as they are
+ * recorded and the file is read line by line while playing. Checkpoints save
+ * the game state so the playback can start from them. Records saved in the old
+ * format (a JSON array) are still loaded.
+ * 
  * @author rgarcia
  */
 public class Recorder {
 	private static final String DEFAULT_RECORD_FILENAME = "record";
 	public static final String RECORD_EXT = ".verbs.rec";
+	public static final String RECORD_STREAM_EXT = ".verbs.recs";
 	public static final String GAMESTATE_REC_EXT = ".gamestate.rec";
+	private static final String CHECKPOINT_SUFFIX = ".cp";
 	private static final float WAITING_TIME = .5f;
 
+	/** Verbs loaded from the old format records */
 	private ArrayList<TimeVerb> list = new ArrayList<>();
 	private boolean playing = false;
 	private boolean recording = false;
@@ -51,6 +61,21 @@ public class Recorder {
 	private String fileName = DEFAULT_RECORD_FILENAME;
 	private final World w;
 
+	private final Json json = new Json(OutputType.json);
+
+	// stream where the verbs are written while recording
+	private Writer out;
+
+	// stream where the verbs are read while playing
+	private BufferedReader in;
+	private FileHandle inFile;
+
+	// next verb to play
+	private TimeVerb current;
+
+	private int numVerbs;
+	private int numCheckpoints;
+
 	public Recorder(World w) {
 		this.w = w;
 	}
@@ -65,13 +90,13 @@ public class Recorder {
 		} else if (playing) {
 			time += delta;
 
-			if (pos >= list.size()) {
+			TimeVerb v = peek();
+
+			if (v == null) {
 				setPlaying(false);
 				return;
 			}
 
-			TimeVerb v = list.get(pos);
-
 			Scene s = w.getCurrentScene();
 
 			StringBuilder stringBuilder = new StringBuilder();
@@ -123,11 +148,10 @@ public class Recorder {
 
 				time = 0;
 				pos++;
-				if (pos >= list.size()) {
+				current = null;
+
+				if (peek() == null)
 					setPlaying(false);
-				} else {
-					v = list.get(pos);
-				}
 			}
 		}
 	}
@@ -142,7 +166,7 @@ public class Recorder {
 			v.target = target;
 			v.actorId = actorId;
 
-			list.add(v);
+			write(v);
 			time = 0;
 		}
 	}
@@ -157,7 +181,7 @@ public class Recorder {
 				v.dialogOption = dialogOption;
 			}
 
-			list.add(v);
+			write(v);
 			time = 0;
 		}
 	}
@@ -170,11 +194,156 @@ public class Recorder {
 
 			v.pos = pos;
 
-			list.add(v);
+			write(v);
 			time = 0;
 		}
 	}
 
+	/**
+	 * Saves the game state and writes a checkpoint in the record. The playback
+	 * can start from a checkpoint with seek().
+	 */
+	public void checkpoint() {
+		if (!recording)
+			return;
+
+		TimeVerb v = new TimeVerb();
+		v.checkpoint = fileName + CHECKPOINT_SUFFIX + numCheckpoints + GAMESTATE_REC_EXT;
+
+		try {
+			w.getSerializer().saveGameState(v.checkpoint, false);
+			numCheckpoints++;
+			write(v);
+		} catch (IOException e) {
+			EngineLogger.error("ERROR SAVING CHECKPOINT", e);
+		}
+	}
+
+	private void write(TimeVerb v) {
+		if (out == null)
+			return;
+
+		try {
+			writeVerb(json, out, v);
+			out.flush();
+
+			if (v.checkpoint == null)
+				numVerbs++;
+		} catch (IOException e) {
+			EngineLogger.error("ERROR WRITING RECORD", e);
+		}
+	}
+
+	/**
+	 * Returns the next verb to play without consuming it. Checkpoints are
+	 * skipped.
+	 */
+	private TimeVerb peek() {
+		if (current != null)
+			return current;
+
+		if (in == null) {
+			if (pos < list.size())
+				current = list.get(pos);
+
+			return current;
+		}
+
+		try {
+			TimeVerb v;
+
+			while ((v = readVerb(json, in)) != null) {
+				if (v.checkpoint == null) {
+					current = v;
+					break;
+				}
+			}
+		} catch (IOException e) {
+			EngineLogger.error("ERROR READING RECORD", e);
+		}
+
+		return current;
+	}
+
+	/**
+	 * Writes a verb or checkpoint in the stream format: one JSON object by line.
+	 */
+	static void writeVerb(Json json, Writer out, TimeVerb v) throws IOException {
+		out.write(json.toJson(v, TimeVerb.class));
+		out.write('\n');
+	}
+
+	/**
+	 * Reads the next verb or checkpoint from a stream record.
+	 * 
+	 * @return null at the end of the record.
+	 */
+	static TimeVerb readVerb(Json json, BufferedReader in) throws IOException {
+		String line;
+
+		while ((line = in.readLine()) != null) {
+			if (!line.trim().isEmpty())
+				return json.fromJson(TimeVerb.class, line);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Loads the game state of a checkpoint and sets the playback position
+	 * after it.
+	 * 
+	 * @return false if the checkpoint doesn't exists in the loaded record.
+	 */
+	public boolean seek(int checkpoint) {
+		if (inFile == null)
+			return false;
+
+		closeInput();
+		in = new BufferedReader(inFile.reader("UTF-8"));
+		pos = 0;
+		time = 0;
+
+		int n = 0;
+
+		try {
+			TimeVerb v;
+
+			while ((v = readVerb(json, in)) != null) {
+				if (v.checkpoint == null) {
+					pos++;
+				} else if (n++ == checkpoint) {
+					FileHandle gameStateFile = EngineAssetManager.getInstance().getUserFile(v.checkpoint);
+
+					if (!gameStateFile.exists())
+						gameStateFile = EngineAssetManager.getInstance().getAsset("tests/" + v.checkpoint);
+
+					w.getSerializer().loadGameState(gameStateFile);
+
+					return true;
+				}
+			}
+		} catch (IOException e) {
+			EngineLogger.error("ERROR SEEKING RECORD", e);
+		}
+
+		EngineLogger.error("SEEKING RECORD: checkpoint not found: " + checkpoint);
+		return false;
+	}
+
+	private void closeInput() {
+		current = null;
+
+		if (in != null) {
+			try {
+				in.close();
+			} catch (IOException e) {
+			}
+
+			in = null;
+		}
+	}
+
 	public boolean isRecording() {
 		return recording;
 	}
@@ -191,8 +360,19 @@ public class Recorder {
 			} catch (IOException e) {
 				EngineLogger.error(e.getMessage());
 			}
-		} else
-			save();
+
+			numVerbs = 0;
+			numCheckpoints = 0;
+			out = EngineAssetManager.getInstance().getUserFile(fileName + RECORD_STREAM_EXT).writer(false, "UTF-8");
+		} else if (out != null) {
+			try {
+				out.close();
+			} catch (IOException e) {
+				EngineLogger.error("ERROR SAVING RECORD", e);
+			}
+
+			out = null;
+		}
 	}
 
 	public boolean isPlaying() {
@@ -205,10 +385,17 @@ public class Recorder {
 		else
 			EngineLogger.debug("STOP PLAYING...");
 
+		// closes the record stream
+		if (recording)
+			setRecording(false);
+
 		this.playing = p;
-		this.recording = false;
 		time = 0;
-		pos = 0;
+
+		if (!p) {
+			pos = 0;
+			closeInput();
+		}
 	}
 
 	public void draw(SpriteBatch batch) {
@@ -229,6 +416,24 @@ public class Recorder {
 		String actorId;
 		int dialogOption;
 		Vector2 pos;
+
+		/** game state file name for checkpoints */
+		String checkpoint;
+	}
+
+	/**
+	 * @return the index of the next verb to play.
+	 */
+	public int getPos() {
+		return pos;
+	}
+
+	/**
+	 * @return the number of verbs of the loaded record or the number of verbs
+	 *         written while recording. Checkpoints are not counted.
+	 */
+	public int getNumVerbs() {
+		return numVerbs;
 	}
 
 	public String getFileName() {
@@ -246,19 +451,22 @@ public class Recorder {
 	@SuppressWarnings("unchecked")
 	public void load() {
 		String gameStateFileName = fileName + GAMESTATE_REC_EXT;
-		String recordFileName = fileName + RECORD_EXT;
 
-		FileHandle verbsFile = EngineAssetManager.getInstance().getUserFile(recordFileName);
+		closeInput();
+		list.clear();
+		inFile = null;
+		pos = 0;
+		numVerbs = 0;
+
+		FileHandle verbsFile = getRecordFile(fileName + RECORD_STREAM_EXT);
+		boolean stream = verbsFile.exists();
 
-		if (!verbsFile.exists())
-			verbsFile = EngineAssetManager.getInstance().getAsset("tests/" + recordFileName);
+		if (!stream)
+			verbsFile = getRecordFile(fileName + RECORD_EXT);
 
 		if (verbsFile.exists()) {
 			// LOAD GAME STATE IF EXISTS
-			FileHandle gameStateFile = EngineAssetManager.getInstance().getUserFile(gameStateFileName);
-
-			if (!gameStateFile.exists())
-				gameStateFile = EngineAssetManager.getInstance().getAsset("tests/" + gameStateFileName);
+			FileHandle gameStateFile = getRecordFile(gameStateFileName);
 
 			if (gameStateFile.exists())
 				try {
@@ -270,27 +478,51 @@ public class Recorder {
 				EngineLogger.debug("LOADING RECORD: no saved file exists");
 
 			// LOAD VERBS
-			list = new Json().fromJson(ArrayList.class, TimeVerb.class, verbsFile.reader("UTF-8"));
+			if (stream) {
+				inFile = verbsFile;
+				in = new BufferedReader(verbsFile.reader("UTF-8"));
+				numVerbs = countVerbs(verbsFile);
+			} else {
+				list = new Json().fromJson(ArrayList.class, TimeVerb.class, verbsFile.reader("UTF-8"));
+				numVerbs = list.size();
+			}
 		} else {
 			EngineLogger.error("LOADING RECORD: no record file exists");
 		}
 	}
 
-	public void save() {
+	private FileHandle getRecordFile(String name) {
+		FileHandle f = EngineAssetManager.getInstance().getUserFile(name);
 
-		Json json = new Json();
+		if (!f.exists())
+			f = EngineAssetManager.getInstance().getAsset("tests/" + name);
 
-		// String s = json.prettyPrint(list);
-		String s = json.toJson(list, ArrayList.class, TimeVerb.class);
-		s = json.prettyPrint(s);
+		return f;
+	}
 
-		Writer w = EngineAssetManager.getInstance().getUserFile(fileName + RECORD_EXT).writer(false, "UTF-8");
+	/**
+	 * Counts the verbs in a stream record without parsing them.
+	 */
+	static int countVerbs(FileHandle f) {
+		int n = 0;
+		BufferedReader r = new BufferedReader(f.reader("UTF-8"));
 
 		try {
-			w.write(s);
-			w.close();
+			String line;
+
+			while ((line = r.readLine()) != null) {
+				if (!line.trim().isEmpty() && !line.contains("\"checkpoint\":"))
+					n++;
+			}
 		} catch (IOException e) {
-			EngineLogger.error("ERROR SAVING RECORD", e);
+			EngineLogger.error("ERROR READING RECORD", e);
+		} finally {
+			try {
+				r.close();
+			} catch (IOException e) {
+			}
 		}
+
+		return n;
 	}
 }
@@ -19,7 +19,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.math.Vector2;
 import com.bladecoder.engine.model.AnimationRenderer;
 import com.bladecoder.engine.model.BaseActor;
@@ -57,6 +57,14 @@ public class TesterBot {
 
 	private final ArrayList<String> excludeList = new ArrayList<>();
 
+	/**
+	 * Own random generator so a bot run can be reproduced from its seed.
+	 */
+	private final RandomXS128 rnd = new RandomXS128();
+
+	/** number of verbs, gotos and dialog options executed by the bot */
+	private int numActions = 0;
+
 	private final boolean inventoryAction;
 	private final World w;
 
@@ -78,7 +86,7 @@ public class TesterBot {
 
 		if (deltaTime > waitInverval && !w.inCutMode()) {
 			deltaTime = 0;
-			waitInverval = MathUtils.random(maxWaitInverval);
+			waitInverval = random(maxWaitInverval);
 
 			boolean isWalking = false;
 			SpriteActor player = w.getCurrentScene().getPlayer();
@@ -96,16 +104,16 @@ public class TesterBot {
 			if (!w.hasDialogOptions()) {
 
 				// Select actor or goto
-				boolean chooseActor = MathUtils.randomBoolean(.75f);
+				boolean chooseActor = randomBoolean(.75f);
 
 				if (!isRunGoto() || chooseActor) {
 
 					// Select scene or actor inventory
-					boolean chooseSceneActor = MathUtils.randomBoolean();
+					boolean chooseSceneActor = randomBoolean();
 
 					if (chooseSceneActor && s.getActors().size() > 0) {
 						// SCENE ACTOR
-						int pos = MathUtils.random(s.getActors().size() - 1);
+						int pos = random(s.getActors().size() - 1);
 						BaseActor a = (BaseActor) (s.getActors().values().toArray()[pos]);
 
 						if (!(a instanceof InteractiveActor))
@@ -120,7 +128,7 @@ public class TesterBot {
 
 						if (scnActor.getVerb(Verb.LEAVE_VERB) != null) {
 							verb = Verb.LEAVE_VERB;
-						} else if (MathUtils.randomBoolean(0.33f)) {
+						} else if (randomBoolean(0.33f)) {
 							// LOOKAT
 							verb = Verb.LOOKAT_VERB;
 						} else {
@@ -131,34 +139,37 @@ public class TesterBot {
 						if (!(verb.equals(Verb.LEAVE_VERB) && (!runLeaveVerbs || inSceneTime > inSceneTimeDelta))) {
 							EngineLogger.debug("<TESTERBOT>: " + scnActor.getId() + "::" + verb);
 							scnActor.runVerb(verb);
+							numActions++;
 
 							if (verb.equals(Verb.LEAVE_VERB))
 								inSceneTimeDelta = 0;
 						}
 					} else if (w.getInventory().getNumItems() > 0 && w.getInventory().isVisible()) {
 						// INVENTORY ACTOR
-						int pos = MathUtils.random(w.getInventory().getNumItems() - 1);
+						int pos = random(w.getInventory().getNumItems() - 1);
 						SpriteActor invActor = w.getInventory().get(pos);
 
 						if (excludeList.contains(invActor.getId()))
 							return;
 
 						// Select lookat, action or use
-						int choosedVerb = MathUtils.random(3);
+						int choosedVerb = random(3);
 
 						if (choosedVerb == 0) {
 							EngineLogger.debug("<TESTERBOT> INVENTORY: " + invActor.getId() + "::" + Verb.LOOKAT_VERB);
 							invActor.runVerb(Verb.LOOKAT_VERB);
+							numActions++;
 						} else if (choosedVerb == 1 && inventoryAction) {
 							EngineLogger.debug("<TESTERBOT> INVENTORY: " + invActor.getId() + "::" + Verb.PICKUP_VERB);
 							invActor.runVerb(Verb.PICKUP_VERB);
+							numActions++;
 						} else { // 2 and 3
 
 							InteractiveActor targetActor = null;
 
-							if (w.getInventory().getNumItems() > 1 && MathUtils.randomBoolean(0.33f)) {
+							if (w.getInventory().getNumItems() > 1 && randomBoolean(0.33f)) {
 								// CHOOSE TARGET FROM INVENTORY
-								int pos2 = MathUtils.random(w.getInventory().getNumItems() - 1);
+								int pos2 = random(w.getInventory().getNumItems() - 1);
 
 								if (pos2 == pos)
 									pos2 = (pos2 + 1) % w.getInventory().getNumItems();
@@ -175,8 +186,10 @@ public class TesterBot {
 									invActor.runVerb(Verb.USE_VERB, targetActor.getId());
 								else
 									targetActor.runVerb(Verb.USE_VERB, invActor.getId());
+
+								numActions++;
 							} else {
-								int pos2 = MathUtils.random(s.getActors().size() - 1);
+								int pos2 = random(s.getActors().size() - 1);
 
 								if (!(s.getActors().values().toArray()[pos2] instanceof InteractiveActor))
 									return;
@@ -192,14 +205,16 @@ public class TesterBot {
 										invActor.runVerb(Verb.USE_VERB, targetActor.getId());
 									else
 										targetActor.runVerb(Verb.USE_VERB, invActor.getId());
+
+									numActions++;
 								}
 							}
 						}
 					}
 
 				} else if (s.getPlayer() != null) {
-					gotoVector.x = MathUtils.random() * w.getCurrentScene().getCamera().getScrollingWidth();
-					gotoVector.y = MathUtils.random() * w.getCurrentScene().getCamera().getScrollingHeight();
+					gotoVector.x = random() * w.getCurrentScene().getCamera().getScrollingWidth();
+					gotoVector.y = random() * w.getCurrentScene().getCamera().getScrollingHeight();
 
 					if (s.getPlayer().getVerb(Verb.GOTO_VERB) != null) {
 						EngineLogger.debug("<TESTERBOT> GOTO: GOTO VERB");
@@ -208,15 +223,18 @@ public class TesterBot {
 						EngineLogger.debug("<TESTERBOT> GOTO: " + gotoVector);
 						s.getPlayer().goTo(gotoVector, null, false);
 					}
+
+					numActions++;
 				}
 			} else {
 				// DIALOG MODE
 				List<String> visibleOptions = w.getDialogOptions();
 
 				if (visibleOptions.size() > 0) {
-					int pos = MathUtils.random(visibleOptions.size() - 1);
+					int pos = random(visibleOptions.size() - 1);
 					EngineLogger.debug("<TESTERBOT> SELECT OPTION: " + pos);
 					w.selectDialogOption(pos);
+					numActions++;
 				}
 			}
 		}
@@ -241,6 +259,38 @@ public class TesterBot {
 			EngineLogger.debug("<TESTERBOT> BOT DISABLED...");
 	}
 
+	/**
+	 * Sets the seed of the bot random generator. Two runs with the same seed
+	 * over the same game state will choose the same actions.
+	 */
+	public void setSeed(long seed) {
+		rnd.setSeed(seed);
+	}
+
+	public int getNumActions() {
+		return numActions;
+	}
+
+	private int random(int range) {
+		return rnd.nextInt(range + 1);
+	}
+
+	private float random(float range) {
+		return rnd.nextFloat() * range;
+	}
+
+	private float random() {
+		return rnd.nextFloat();
+	}
+
+	private boolean randomBoolean() {
+		return rnd.nextBoolean();
+	}
+
+	private boolean randomBoolean(float chance) {
+		return rnd.nextFloat() < chance;
+	}
+
 	public boolean isRunLeaveVerbs() {
 		return runLeaveVerbs;
 	}
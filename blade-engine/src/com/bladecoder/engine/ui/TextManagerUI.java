@@ -33,6 +33,7 @@ import com.bladecoder.engine.model.TextManager;
 import com.bladecoder.engine.util.Config;
 import com.bladecoder.engine.util.DPIUtils;
 import com.bladecoder.engine.util.EngineLogger;
+import com.bladecoder.engine.util.TextLayoutCache;
 
 /**
  * TextManagerUI draws texts and dialogs on screen.
@@ -49,7 +50,7 @@ public class TextManagerUI extends Actor implements ITextManagerUI {
 
 	private ObjectMap<String, TextManagerUIStyle> styles;
 	private Text text;
-	private final GlyphLayout layout = new GlyphLayout();
+	private GlyphLayout layout;
 
 	private float fontX = 0;
 
@@ -93,7 +94,7 @@ public class TextManagerUI extends Actor implements ITextManagerUI {
 					style.font.getXHeight()
 							* (text.type == Text.Type.TALK ? style.maxTalkCharWidth : style.maxCharWidth));
 
-			layout.setText(style.font, text.str, color, maxWidth, Align.center, true);
+			layout = TextLayoutCache.get(style.font, text.str, color, maxWidth, Align.center, true);
 			setSize(layout.width + PADDING * 2, layout.height + PADDING * 2);
 
 			calcPos();
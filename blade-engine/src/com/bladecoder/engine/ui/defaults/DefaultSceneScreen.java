@@ -20,6 +20,7 @@ import static com.badlogic.gdx.scenes.scene2d.actions.Actions.sequence;
 
 import java.util.Locale;
 
+import com.badlogic.gdx.Application.ApplicationType;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input.Peripheral;
 import com.badlogic.gdx.InputMultiplexer;
@@ -62,8 +63,10 @@ import com.bladecoder.engine.model.Verb;
 import com.bladecoder.engine.model.World;
 import com.bladecoder.engine.model.World.AssetState;
 import com.bladecoder.engine.model.WorldListener;
+import com.bladecoder.engine.serialization.ChapterReloader;
 import com.bladecoder.engine.ui.DialogUI;
 import com.bladecoder.engine.ui.ITextManagerUI;
+import com.bladecoder.engine.ui.IdleFrameSkipper;
 import com.bladecoder.engine.ui.InventoryButton;
 import com.bladecoder.engine.ui.InventoryUI;
 import com.bladecoder.engine.ui.PieMenu;
@@ -87,6 +90,8 @@ public class DefaultSceneScreen implements SceneScreen {
 
 	private Stage stage;
 
+	private IdleFrameSkipper frameSkipper;
+
 	private PieMenu pie;
 	private InventoryUI inventoryUI;
 	private Actor dialogUI;
@@ -105,6 +110,9 @@ public class DefaultSceneScreen implements SceneScreen {
 	private Recorder recorder;
 	private TesterBot testerBot;
 
+	// only in debug mode
+	private ChapterReloader chapterReloader;
+
 	private final Viewport viewport;
 
 	private final Vector3 unprojectTmp = new Vector3();
@@ -269,9 +277,27 @@ public class DefaultSceneScreen implements SceneScreen {
 	private void update(float delta) {
 		final World world = ui.getWorld();
 		float deltaScaled = delta * speed;
+		boolean fixedTimestep = false;
 
 		if (!world.isDisposed()) {
-			world.update(deltaScaled);
+			if (world.isFixedTimestep()) {
+				fixedTimestep = true;
+				int steps = world.accumulateSteps(deltaScaled);
+
+				// the recorder and the bot are updated with the world to play
+				// the recorded games exactly
+				for (int i = 0; i < steps && world.isFixedTimestep(); i++) {
+					world.step();
+
+					if (world.isDisposed())
+						return;
+
+					recorder.update(world.getFixedTimestep());
+					testerBot.update(world.getFixedTimestep());
+				}
+			} else {
+				world.update(deltaScaled);
+			}
 
 			// if the game ends returns
 			if (world.isDisposed())
@@ -308,8 +334,13 @@ public class DefaultSceneScreen implements SceneScreen {
 		if (world.isPaused())
 			return;
 
-		recorder.update(deltaScaled);
-		testerBot.update(deltaScaled);
+		if (!fixedTimestep) {
+			recorder.update(deltaScaled);
+			testerBot.update(deltaScaled);
+		}
+
+		if (chapterReloader != null)
+			chapterReloader.update(delta);
 
 		InteractiveActor actorUnderCursor = null;
 
@@ -420,9 +451,10 @@ public class DefaultSceneScreen implements SceneScreen {
 	public void render(float delta) {
 		final World world = ui.getWorld();
 
-		update(delta);
+		update(frameSkipper.begin(world, delta));
 
 		if (world.getAssetState() != AssetState.LOADED) {
+			frameSkipper.wake();
 			return;
 		}
 
@@ -468,6 +500,18 @@ public class DefaultSceneScreen implements SceneScreen {
 		}
 
 		batch.end();
+
+		frameSkipper.end(isIdle());
+	}
+
+	/**
+	 * @return true if nothing changes in the next frame without input.
+	 */
+	private boolean isIdle() {
+		final World world = ui.getWorld();
+
+		return !world.isDisposed() && world.isIdle() && !recorder.isPlaying() && !recorder.isRecording()
+				&& !testerBot.isEnabled() && chapterReloader == null && !IdleFrameSkipper.hasActions(stage.getRoot());
 	}
 
 	private void drawDebugText(SpriteBatch batch) {
@@ -515,6 +559,8 @@ public class DefaultSceneScreen implements SceneScreen {
 				sbTmp.append((int) unprojectTmp.y);
 				sbTmp.append(") FPS:");
 				sbTmp.append(Gdx.graphics.getFramesPerSecond());
+				sbTmp.append(" Skipped:");
+				sbTmp.append(frameSkipper.getSkippedFrames());
 
 				if (w.getCurrentScene().getState() != null) {
 					sbTmp.append(" Scn State: ");
@@ -823,11 +869,13 @@ public class DefaultSceneScreen implements SceneScreen {
 
 	@Override
 	public void hide() {
+		frameSkipper.wake();
 		ui.getWorld().pause();
 	}
 
 	@Override
 	public void pause() {
+		frameSkipper.wake();
 		ui.getWorld().pause();
 	}
 
@@ -858,6 +906,11 @@ public class DefaultSceneScreen implements SceneScreen {
 
 		recorder = ui.getRecorder();
 		testerBot = ui.getTesterBot();
+		frameSkipper = new IdleFrameSkipper();
+
+		if (EngineLogger.debugMode() && Gdx.app.getType() == ApplicationType.Desktop
+				&& Config.getProperty(Config.HOT_RELOAD_PROP, true))
+			chapterReloader = new ChapterReloader(ui.getWorld());
 
 		pie = new PieMenu(this);
 		textManagerUI = new TextManagerUI(ui);
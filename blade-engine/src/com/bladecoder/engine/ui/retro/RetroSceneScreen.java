@@ -345,8 +345,27 @@ public class RetroSceneScreen implements SceneScreen {
 
 		currentActor = null;
 
+		boolean fixedTimestep = false;
+
 		if (!world.isDisposed()) {
-			world.update(delta * speed);
+			if (world.isFixedTimestep()) {
+				fixedTimestep = true;
+				int steps = world.accumulateSteps(delta * speed);
+
+				// the recorder and the bot are updated with the world to play
+				// the recorded games exactly
+				for (int i = 0; i < steps && world.isFixedTimestep(); i++) {
+					world.step();
+
+					if (world.isDisposed())
+						return;
+
+					recorder.update(world.getFixedTimestep());
+					testerBot.update(world.getFixedTimestep());
+				}
+			} else {
+				world.update(delta * speed);
+			}
 		}
 
 		AssetState assetState = world.getAssetState();
@@ -362,8 +381,10 @@ public class RetroSceneScreen implements SceneScreen {
 		if (world.isPaused())
 			return;
 
-		recorder.update(delta * speed);
-		testerBot.update(delta * speed);
+		if (!fixedTimestep) {
+			recorder.update(delta * speed);
+			testerBot.update(delta * speed);
+		}
 
 		if (uiEnabled && !world.hasDialogOptions()) {
 
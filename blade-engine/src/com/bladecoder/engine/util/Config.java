@@ -39,6 +39,16 @@ public class Config {
 	public static final String FAST_LEAVE = "fast_leave";
 	public static final String AUTO_HIDE_TEXTS = "auto_hide_texts";
 	public static final String RESOLUTIONS = "resolutions";
+	public static final String DELTA_SAVEGAMES_PROP = "delta_savegames";
+	public static final String HOT_RELOAD_PROP = "hot_reload";
+	public static final String PREFETCH_SOUNDS_PROP = "prefetch_sounds";
+	public static final String RENDER3D_FPS_PROP = "render3d_fps";
+	public static final String PARTICLE_BUDGET_PROP = "particle_budget";
+	public static final String MUSIC_CROSSFADE_PROP = "music_crossfade";
+	public static final String MUSIC_FADE_CURVE_PROP = "music_fade_curve";
+	public static final String FIXED_TIMESTEP_PROP = "fixed_timestep";
+	public static final String IDLE_RENDERING_PROP = "idle_rendering";
+	public static final String LAZY_SCENES_PROP = "lazy_scenes";
 
 	public static final String PROPERTIES_FILENAME = "BladeEngine.properties";
 
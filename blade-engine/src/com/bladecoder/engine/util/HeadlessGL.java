@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+
+/**
+ * Do nothing GL20 implementation to run the engine without a GL context.
+ *
+ * Textures, atlases and fonts can be loaded but nothing is uploaded to the GPU.
+ * Shader and framebuffer status queries always report success.
+ *
+ * @author rgarcia
+ */
+public class HeadlessGL implements InvocationHandler {
+
+	private HeadlessGL() {
+	}
+
+	/**
+	 * Sets the stub as 'Gdx.gl' if there is not a GL context.
+	 */
+	public static void install() {
+		if (Gdx.gl != null)
+			return;
+
+		GL20 gl = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[] { GL20.class },
+				new HeadlessGL());
+
+		Gdx.gl = gl;
+		Gdx.gl20 = gl;
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		String name = method.getName();
+		Class<?> type = method.getReturnType();
+
+		if (name.equals("glCheckFramebufferStatus"))
+			return GL20.GL_FRAMEBUFFER_COMPLETE;
+
+		if ((name.equals("glGetShaderiv") || name.equals("glGetProgramiv")) && args[2] instanceof IntBuffer) {
+			IntBuffer params = (IntBuffer) args[2];
+			int pname = (Integer) args[1];
+
+			// compile/link status OK and no attributes or uniforms
+			params.put(params.position(),
+					pname == GL20.GL_COMPILE_STATUS || pname == GL20.GL_LINK_STATUS ? 1 : 0);
+			return null;
+		}
+
+		if (type == int.class)
+			return 0;
+		else if (type == boolean.class)
+			return false;
+		else if (type == float.class)
+			return 0f;
+		else if (type == String.class)
+			return "";
+
+		return null;
+	}
+}
@@ -106,24 +106,23 @@ public class PolygonUtils {
 		float verts[] = poly.getTransformedVertices();
 		float dTmp;
 
-		Intersector.nearestSegmentPoint(verts[0], verts[1], verts[2], verts[3],
-				x, y, dest);
-
 		int nearest = 0;
-		float d = Vector2.dst(x, y, dest.x, dest.y);
+		float d = Intersector.distanceSegmentPoint(verts[0], verts[1], verts[2], verts[3], x, y);
 
 		for (int i = 2; i < verts.length; i += 2) {
-			Intersector.nearestSegmentPoint(verts[i], verts[i + 1],
+			dTmp = Intersector.distanceSegmentPoint(verts[i], verts[i + 1],
 					verts[(i + 2) % verts.length],
-					verts[(i + 3) % verts.length], x, y, tmp);
-			dTmp = Vector2.dst(x, y, tmp.x, tmp.y);
+					verts[(i + 3) % verts.length], x, y);
 
 			if (dTmp < d) {
 				d = dTmp;
 				nearest = i;
-				dest.set(tmp);
 			}
 		}
+
+		Intersector.nearestSegmentPoint(verts[nearest], verts[nearest + 1],
+				verts[(nearest + 2) % verts.length],
+				verts[(nearest + 3) % verts.length], x, y, dest);
 		
 		// ERROR CONTROL:
 		// If the clamped point is not in the walkzone 
@@ -131,21 +130,19 @@ public class PolygonUtils {
 		if (!PolygonUtils.isPointInside(poly, dest.x, dest.y, true)) {
 			EngineLogger.debug("> PolygonalPathFinder: CLAMPED FAILED!!");
 			
-			tmp.set(verts[0], verts[1]);
-			d = Vector2.dst(x, y, tmp.x, tmp.y);
+			d = Vector2.dst(x, y, verts[0], verts[1]);
 			nearest = 0;
-			dest.set(tmp);
 			
 			for (int i = 2; i < verts.length; i += 2) {
-				tmp.set(verts[i], verts[i + 1]);
-				dTmp = Vector2.dst(x, y, tmp.x, tmp.y);
+				dTmp = Vector2.dst(x, y, verts[i], verts[i + 1]);
 
 				if (dTmp < d) {
 					d = dTmp;
 					nearest = i;
-					dest.set(tmp);
 				}
 			}
+
+			dest.set(verts[nearest], verts[nearest + 1]);
 		}
 
 		return nearest;
@@ -233,24 +230,19 @@ public class PolygonUtils {
 		return inside;
 	}
 
+	// Doesn't use the static temporary vectors, it is called from the path
+	// request worker thread.
 	public static boolean inLineOfSight(Vector2 p1, Vector2 p2, Polygon polygon, boolean obstacle) {
-		tmp.set(p1);
-		tmp2.set(p2);
-
 		float verts[] = polygon.getTransformedVertices();
 
 		for (int i = 0; i < verts.length; i += 2) {
-			if (lineSegmentsCross(tmp.x, tmp.y, tmp2.x, tmp2.y, verts[i],
+			if (lineSegmentsCross(p1.x, p1.y, p2.x, p2.y, verts[i],
 					verts[i + 1], verts[(i + 2) % verts.length], verts[(i + 3)
 							% verts.length]))
 				return false;
 		}
 
-		tmp.add(tmp2);
-		tmp.x /= 2;
-		tmp.y /= 2;
-		
-		boolean result = PolygonUtils.isPointInside(polygon, tmp.x, tmp.y, !obstacle);
+		boolean result = PolygonUtils.isPointInside(polygon, (p1.x + p2.x) / 2, (p1.y + p2.y) / 2, !obstacle);
 		
 		return obstacle?!result:result;
 	}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+
+/**
+ * Cache of the text layouts. The layouts are shared, they must not be
+ * modified.
+ * 
+ * The least recently used layouts are evicted when the cache is full.
+ * 
+ * @author rgarcia
+ */
+public final class TextLayoutCache {
+	private static final int MAX_ENTRIES = 64;
+
+	private static final LinkedHashMap<Key, GlyphLayout> cache = new LinkedHashMap<Key, GlyphLayout>(16, 0.75f,
+			true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, GlyphLayout> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	private static final Key tmpKey = new Key();
+
+	/**
+	 * Returns the layout for the text. The color is part of the key because the
+	 * layouts store the color of the glyph runs.
+	 */
+	public static GlyphLayout get(BitmapFont font, String str, Color color, float targetWidth, int halign,
+			boolean wrap) {
+		tmpKey.set(font, str, Color.rgba8888(color), targetWidth, halign, wrap);
+
+		GlyphLayout layout = cache.get(tmpKey);
+
+		if (layout == null) {
+			layout = new GlyphLayout(font, str, color, targetWidth, halign, wrap);
+
+			Key key = new Key();
+			key.set(font, str, tmpKey.color, targetWidth, halign, wrap);
+			cache.put(key, layout);
+		}
+
+		return layout;
+	}
+
+	/**
+	 * Removes the layouts of the font. Must be called when the font is disposed.
+	 */
+	public static void remove(BitmapFont font) {
+		Iterator<Key> it = cache.keySet().iterator();
+
+		while (it.hasNext()) {
+			if (it.next().font == font)
+				it.remove();
+		}
+	}
+
+	public static void clear() {
+		cache.clear();
+	}
+
+	private static final class Key {
+		BitmapFont font;
+		String str;
+		int color;
+		float targetWidth;
+		int halign;
+		boolean wrap;
+
+		void set(BitmapFont font, String str, int color, float targetWidth, int halign, boolean wrap) {
+			this.font = font;
+			this.str = str;
+			this.color = color;
+			this.targetWidth = targetWidth;
+			this.halign = halign;
+			this.wrap = wrap;
+		}
+
+		@Override
+		public int hashCode() {
+			int h = System.identityHashCode(font);
+			h = 31 * h + str.hashCode();
+			h = 31 * h + color;
+			h = 31 * h + Float.floatToIntBits(targetWidth);
+			h = 31 * h + halign;
+			return 31 * h + (wrap ? 1 : 0);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key))
+				return false;
+
+			Key k = (Key) o;
+
+			return font == k.font && color == k.color && targetWidth == k.targetWidth && halign == k.halign
+					&& wrap == k.wrap && str.equals(k.str);
+		}
+	}
+}
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.bladecoder.engine.util.HeadlessGdx;
+
+/**
+ * @author rgarcia
+ */
+public class PropertyPathTest {
+	private World w;
+	private Scene scene;
+
+	@BeforeClass
+	public static void initGdx() {
+		HeadlessGdx.init();
+	}
+
+	@Before
+	public void createWorld() {
+		w = new World();
+
+		scene = new Scene(w);
+		scene.setId("lobby");
+		w.addScene(scene);
+
+		SceneLayer layer = new SceneLayer();
+		layer.setName("foreground");
+		scene.addLayer(layer);
+
+		scene.addActor(createActor("door"));
+	}
+
+	private static SpriteActor createActor(String id) {
+		SpriteActor a = new SpriteActor();
+		a.setId(id);
+		a.setLayer("foreground");
+
+		return a;
+	}
+
+	@Test
+	public void testUnsupportedSyntax() {
+		assertNull(PropertyPath.compile(""));
+		assertNull(PropertyPath.compile(".visible"));
+		assertNull(PropertyPath.compile("scenes[lobby"));
+		assertNull(PropertyPath.compile("scenes]lobby"));
+	}
+
+	@Test
+	public void testGetAndSet() {
+		PropertyPath p = PropertyPath.compile("scenes[lobby].actors[door].visible");
+
+		assertNotNull(p);
+		assertEquals(Boolean.TRUE, p.getValue(w));
+
+		assertTrue(p.setValue(w, "false"));
+		assertEquals(Boolean.FALSE, p.getValue(w));
+		assertFalse(scene.getActor("door", false).isVisible());
+	}
+
+	@Test
+	public void testQuotedKeys() {
+		PropertyPath p = PropertyPath.compile("scenes['lobby'].actors[\"door\"].id");
+
+		assertEquals("door", p.getValue(w));
+	}
+
+	@Test
+	public void testNumberConversion() {
+		PropertyPath p = PropertyPath.compile("scenes[lobby].actors[door].rot");
+
+		assertTrue(p.setValue(w, "45.5"));
+		assertEquals(45.5f, ((SpriteActor) scene.getActor("door", false)).getRot(), 0);
+	}
+
+	@Test
+	public void testNotConvertibleValue() {
+		// Color values are not supported, World.setModelProp() uses the
+		// ObjectWrapper for them.
+		PropertyPath p = PropertyPath.compile("scenes[lobby].actors[door].tint");
+
+		assertFalse(p.setValue(w, "1,1,1,1"));
+	}
+
+	@Test
+	public void testCachedTargetIsInvalidated() {
+		PropertyPath p = PropertyPath.compile("scenes[lobby].actors[door].visible");
+
+		assertEquals(Boolean.TRUE, p.getValue(w));
+
+		// replaces the actor, the model version changes
+		scene.removeActor(scene.getActor("door", false));
+		SpriteActor door = createActor("door");
+		door.setVisible(false);
+		scene.addActor(door);
+
+		assertEquals(Boolean.FALSE, p.getValue(w));
+	}
+
+	@Test
+	public void testMapKeys() {
+		w.setCustomProperty("points", "10");
+
+		PropertyPath p = PropertyPath.compile("customProperties[points]");
+
+		assertEquals("10", p.getValue(w));
+		assertTrue(p.setValue(w, "20"));
+		assertEquals("20", w.getCustomProperty("points"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testPropertyNotFound() {
+		PropertyPath.compile("scenes[lobby].actors[door].notAProperty").getValue(w);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNullInPath() {
+		PropertyPath.compile("scenes[lobby].actors[window].visible").getValue(w);
+	}
+
+	@Test
+	public void testWorldModelProp() {
+		w.setModelProp("scenes[lobby].actors[door].visible", "false");
+
+		assertEquals(Boolean.FALSE, w.getModelProp("scenes[lobby].actors[door].visible"));
+	}
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.serialization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.JsonValue;
+import com.bladecoder.engine.util.HeadlessGdx;
+
+/**
+ * @author rgarcia
+ */
+public class ChapterIndexTest {
+	private static final String CHAPTER = "{\n" + "\t\"sounds\": {\"door_open\": {\"id\": \"door_open\"}},\n"
+			+ "\t\"scenes\": {\n" + "\t\t\"lobby\": {\"id\": \"lobby\", \"desc\": \"a {brace} and \\\"quote\\\"\"},\n"
+			+ "\t\t\"street\": {\"id\": \"street\", \"actors\": {\"car\": {\"id\": \"car\", \"text\": \"café }\"}}}\n"
+			+ "\t},\n" + "\t\"initScene\": \"lobby\"\n" + "}";
+
+	private FileHandle chapterFile;
+	private FileHandle indexFile;
+
+	@BeforeClass
+	public static void initGdx() {
+		HeadlessGdx.init();
+	}
+
+	@Before
+	public void createFiles() throws IOException {
+		File f = File.createTempFile("test", ".chapter");
+		chapterFile = new FileHandle(f);
+		indexFile = new FileHandle(new File(f.getPath() + ".index"));
+
+		chapterFile.writeString(CHAPTER, false, "UTF-8");
+	}
+
+	@After
+	public void deleteFiles() {
+		chapterFile.delete();
+		indexFile.delete();
+	}
+
+	private static void checkIndex(ChapterIndex index) {
+		assertNotNull(index);
+		assertEquals(Arrays.asList("lobby", "street"), new ArrayList<String>(index.getSceneIds()));
+
+		JsonValue lobby = index.parseScene("lobby");
+		assertEquals("lobby", lobby.name);
+		assertEquals("a {brace} and \"quote\"", lobby.getString("desc"));
+
+		JsonValue street = index.parseScene("street");
+		assertEquals("café }", street.get("actors").get("car").getString("text"));
+
+		JsonValue header = index.parseHeader();
+		assertEquals("lobby", header.getString("initScene"));
+		assertNotNull(header.get("sounds").get("door_open"));
+		assertEquals(0, header.get("scenes").size);
+	}
+
+	@Test
+	public void testScan() {
+		ChapterIndex index = ChapterIndex.load(chapterFile, indexFile);
+
+		checkIndex(index);
+		assertNull(index.parseScene("garden"));
+		assertFalse(index.contains("garden"));
+	}
+
+	@Test
+	public void testSaveAndLoad() {
+		assertTrue(ChapterIndex.save(chapterFile.readBytes(), indexFile));
+		assertTrue(indexFile.exists());
+
+		checkIndex(ChapterIndex.load(chapterFile, indexFile));
+	}
+
+	@Test
+	public void testOutdatedIndex() {
+		assertTrue(ChapterIndex.save(chapterFile.readBytes(), indexFile));
+
+		// same length, different content
+		chapterFile.writeString(CHAPTER.replace("\"lobby\"", "\"lobbx\""), false, "UTF-8");
+
+		ChapterIndex index = ChapterIndex.load(chapterFile, indexFile);
+
+		assertTrue(index.contains("lobbx"));
+		assertFalse(index.contains("lobby"));
+		assertEquals("lobbx", index.parseScene("lobbx").getString("id"));
+	}
+
+	@Test
+	public void testCorruptedIndex() {
+		indexFile.writeString("not an index", false, "UTF-8");
+
+		checkIndex(ChapterIndex.load(chapterFile, indexFile));
+	}
+
+	@Test
+	public void testCommentsNotSupported() {
+		chapterFile.writeString("{\n// comment\n\"scenes\": {}\n}", false, "UTF-8");
+
+		assertNull(ChapterIndex.load(chapterFile, indexFile));
+	}
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.serialization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter.OutputType;
+
+/**
+ * @author rgarcia
+ */
+public class JsonDeltaTest {
+
+	private static JsonValue parse(String json) {
+		return new JsonReader().parse(json);
+	}
+
+	/**
+	 * The merged children are appended, the objects are compared without order.
+	 */
+	private static boolean sameContent(JsonValue a, JsonValue b) {
+		if (a.type() != b.type() || a.size != b.size)
+			return false;
+
+		if (!a.isObject()) {
+			if (a.isValue())
+				return JsonDelta.equals(a, b);
+
+			for (JsonValue ca = a.child, cb = b.child; ca != null; ca = ca.next, cb = cb.next) {
+				if (!sameContent(ca, cb))
+					return false;
+			}
+
+			return true;
+		}
+
+		for (JsonValue ca = a.child; ca != null; ca = ca.next) {
+			JsonValue cb = b.get(ca.name);
+
+			if (cb == null || !sameContent(ca, cb))
+				return false;
+		}
+
+		return true;
+	}
+
+	@Test
+	public void testEqualObjectsHaveNoDelta() {
+		JsonValue base = parse("{a:1,b:{c:\"x\",d:[1,2]}}");
+		JsonValue state = parse("{a:1,b:{c:\"x\",d:[1,2]}}");
+
+		assertNull(JsonDelta.diff(base, state));
+	}
+
+	@Test
+	public void testDiffOnlyContainsChanges() {
+		JsonValue base = parse("{a:1,b:{c:\"x\",d:true},e:[1,2]}");
+		JsonValue state = parse("{a:1,b:{c:\"y\",d:true},e:[1,2,3]}");
+
+		JsonValue delta = JsonDelta.diff(base, state);
+
+		assertNotNull(delta);
+		assertNull(delta.get("a"));
+		assertEquals("y", delta.get("b").getString("c"));
+		assertNull(delta.get("b").get("d"));
+
+		// arrays are replaced as a whole
+		assertEquals(3, delta.get("e").size);
+	}
+
+	@Test
+	public void testRemovedChildren() {
+		JsonValue base = parse("{a:1,b:{c:1,d:2}}");
+		JsonValue state = parse("{b:{c:1}}");
+
+		JsonValue delta = JsonDelta.diff(base, state);
+
+		assertEquals("a", delta.get(JsonDelta.REMOVED).getString(0));
+		assertEquals("d", delta.get("b").get(JsonDelta.REMOVED).getString(0));
+	}
+
+	@Test
+	public void testMergeRestoresState() {
+		String[][] cases = { { "{a:1,b:{c:\"x\",d:true},e:[1,2]}", "{a:2,b:{c:\"y\",f:null},e:[3],g:{h:1.5}}" },
+				{ "{a:{b:{c:{d:1}}}}", "{a:{b:{c:{d:2,e:\"new\"}}}}" }, { "{a:1,b:2}", "{}" },
+				{ "{}", "{a:[{b:1},{c:2}]}" }, { "{a:\"text\"}", "{a:{b:1}}" } };
+
+		for (String[] c : cases) {
+			JsonValue base = parse(c[0]);
+			JsonValue state = parse(c[1]);
+
+			JsonValue delta = JsonDelta.diff(base, state);
+
+			if (delta != null)
+				JsonDelta.merge(base, delta);
+
+			assertTrue(c[0] + " -> " + c[1] + ": " + base.toJson(OutputType.json), sameContent(state, base));
+		}
+	}
+
+	@Test
+	public void testCopyIsDetached() {
+		JsonValue v = parse("{a:{b:1},c:[1,2]}");
+		JsonValue c = JsonDelta.copy(v);
+
+		assertTrue(JsonDelta.equals(v, c));
+
+		v.get("a").get("b").set(2, null);
+
+		assertEquals(1, c.get("a").getInt("b"));
+	}
+
+	@Test
+	public void testEqualsComparesTypes() {
+		assertTrue(!JsonDelta.equals(parse("{a:1}"), parse("{a:\"1\"}")));
+		assertTrue(!JsonDelta.equals(parse("{a:1}"), parse("{b:1}")));
+		assertTrue(JsonDelta.equals(parse("{a:null}"), parse("{a:null}")));
+	}
+}
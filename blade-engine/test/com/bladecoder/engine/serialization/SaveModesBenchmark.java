@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.serialization;
+
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonWriter.OutputType;
+import com.bladecoder.engine.model.World;
+import com.bladecoder.engine.serialization.BladeJson.Mode;
+
+/**
+ * Compares the size and time of the full and delta saved games.
+ *
+ * @author rgarcia
+ */
+public class SaveModesBenchmark {
+
+	/**
+	 * Serializes the game state in memory with full and delta modes.
+	 *
+	 * @param w the world with the chapter loaded in delta state mode, so the
+	 *          delta base has been taken.
+	 * @return a report with the size and the mean time of both modes.
+	 */
+	public static String run(World w, int iterations) {
+		WorldSerialization ws = w.getSerializer();
+		boolean oldDeltaState = ws.isDeltaState();
+		StringBuilder sb = new StringBuilder();
+
+		for (int m = 0; m < 2; m++) {
+			ws.setDeltaState(m == 1);
+
+			Json json = new BladeJson(w, Mode.STATE);
+			json.setOutputType(OutputType.javascript);
+
+			int size = 0;
+			long t0 = System.nanoTime();
+
+			for (int i = 0; i < iterations; i++)
+				size = json.toJson(ws).length();
+
+			long t = (System.nanoTime() - t0) / Math.max(1, iterations);
+
+			sb.append(m == 1 ? "DELTA" : "FULL").append(" SIZE: ").append(size).append(" chars TIME: ")
+					.append(t / 1000).append(" us\n");
+		}
+
+		ws.setDeltaState(oldDeltaState);
+
+		return sb.toString();
+	}
+}
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.serialization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.bladecoder.engine.serialization.SaveSlotIndex.SlotInfo;
+import com.bladecoder.engine.util.HeadlessGdx;
+
+/**
+ * @author rgarcia
+ */
+public class SaveSlotIndexTest {
+	private FileHandle folder;
+
+	@BeforeClass
+	public static void initGdx() {
+		HeadlessGdx.init();
+	}
+
+	@Before
+	public void createFolder() throws IOException {
+		File f = File.createTempFile("slots", "");
+		f.delete();
+		f.mkdir();
+
+		folder = new FileHandle(f);
+	}
+
+	@After
+	public void deleteFolder() {
+		folder.deleteDirectory();
+	}
+
+	private void writeSave(String slot) {
+		folder.child(slot + WorldSerialization.GAMESTATE_EXT).writeString("{}", false);
+	}
+
+	private static SlotInfo slot(String name, long timestamp) {
+		SlotInfo info = new SlotInfo();
+		info.name = name;
+		info.timestamp = timestamp;
+		info.chapter = "chapter1";
+		info.scene = "lobby";
+		info.playtime = 1000;
+
+		return info;
+	}
+
+	@Test
+	public void testRebuild() {
+		writeSave("slot1");
+		writeSave("slot2");
+		folder.child("slot2" + WorldSerialization.GAMESTATE_EXT + ".png").writeString("", false);
+		folder.child("other.txt").writeString("", false);
+
+		SaveSlotIndex index = SaveSlotIndex.load(folder);
+
+		assertEquals(2, index.getSlots().size());
+		assertNull(index.get("slot1").thumbnail);
+		assertEquals("slot2" + WorldSerialization.GAMESTATE_EXT + ".png", index.get("slot2").thumbnail);
+		assertNull(index.get("other"));
+
+		// the rebuilt index is saved
+		assertTrue(folder.child(SaveSlotIndex.INDEX_FILENAME).exists());
+	}
+
+	@Test
+	public void testSaveAndLoad() {
+		writeSave("slot1");
+
+		SaveSlotIndex index = SaveSlotIndex.load(folder);
+		assertTrue(index.put(slot("slot1", 1234)));
+		index.save();
+
+		SlotInfo info = SaveSlotIndex.load(folder).get("slot1");
+
+		assertNotNull(info);
+		assertEquals(1234, info.timestamp);
+		assertEquals("chapter1", info.chapter);
+		assertEquals("lobby", info.scene);
+		assertEquals(1000, info.playtime);
+	}
+
+	@Test
+	public void testPutUnchanged() {
+		writeSave("slot1");
+
+		SaveSlotIndex index = SaveSlotIndex.load(folder);
+
+		assertTrue(index.put(slot("slot1", 1234)));
+		assertFalse(index.put(slot("slot1", 1234)));
+		assertTrue(index.put(slot("slot1", 5678)));
+	}
+
+	@Test
+	public void testRemove() {
+		writeSave("slot1");
+
+		SaveSlotIndex index = SaveSlotIndex.load(folder);
+
+		assertTrue(index.remove("slot1"));
+		assertFalse(index.remove("slot1"));
+		assertNull(index.get("slot1"));
+	}
+
+	@Test
+	public void testDeletedSavesAreRemoved() {
+		writeSave("slot1");
+		writeSave("slot2");
+
+		SaveSlotIndex.load(folder);
+
+		// deleted out of the game
+		folder.child("slot2" + WorldSerialization.GAMESTATE_EXT).delete();
+
+		SaveSlotIndex index = SaveSlotIndex.load(folder);
+
+		assertNotNull(index.get("slot1"));
+		assertNull(index.get("slot2"));
+
+		// the validated index is saved
+		assertNull(SaveSlotIndex.load(folder).get("slot2"));
+	}
+
+	@Test
+	public void testCorruptedIndexIsRebuilt() {
+		writeSave("slot1");
+		folder.child(SaveSlotIndex.INDEX_FILENAME).writeString("{corrupted", false);
+
+		assertNotNull(SaveSlotIndex.load(folder).get("slot1"));
+	}
+
+	@Test
+	public void testSlotName() {
+		assertEquals("slot1", SaveSlotIndex.getSlotName("slot1" + WorldSerialization.GAMESTATE_EXT));
+		assertNull(SaveSlotIndex.getSlotName("slot1.png"));
+	}
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonWriter.OutputType;
+import com.bladecoder.engine.ui.Recorder.TimeVerb;
+
+/**
+ * Checks that the recorded verbs are read back from the stream format.
+ * 
+ * @author rgarcia
+ */
+public class RecorderFormatTest {
+	private final Json json = new Json(OutputType.json);
+
+	private static TimeVerb verb(float time, String actorId, String verb, String target) {
+		TimeVerb v = new TimeVerb();
+		v.time = time;
+		v.actorId = actorId;
+		v.verb = verb;
+		v.target = target;
+
+		return v;
+	}
+
+	private static TimeVerb checkpoint(String file) {
+		TimeVerb v = new TimeVerb();
+		v.checkpoint = file;
+
+		return v;
+	}
+
+	private String write(TimeVerb... verbs) throws IOException {
+		StringWriter out = new StringWriter();
+
+		for (TimeVerb v : verbs)
+			Recorder.writeVerb(json, out, v);
+
+		return out.toString();
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		TimeVerb option = new TimeVerb();
+		option.time = 1.5f;
+		option.dialogOption = 2;
+
+		TimeVerb goTo = new TimeVerb();
+		goTo.time = 0.5f;
+		goTo.pos = new Vector2(100, 50.5f);
+
+		String record = write(verb(0.5f, "door", "lookat", null), checkpoint("record.cp0.gamestate.rec"),
+				verb(2f, "key", "use", "door \"main\"\n"), option, goTo);
+
+		// one JSON object by line
+		assertEquals(5, record.split("\n").length);
+
+		BufferedReader in = new BufferedReader(new StringReader(record));
+
+		TimeVerb v = Recorder.readVerb(json, in);
+		assertEquals(0.5f, v.time, 0);
+		assertEquals("door", v.actorId);
+		assertEquals("lookat", v.verb);
+		assertNull(v.target);
+		assertNull(v.checkpoint);
+
+		v = Recorder.readVerb(json, in);
+		assertEquals("record.cp0.gamestate.rec", v.checkpoint);
+		assertNull(v.verb);
+
+		v = Recorder.readVerb(json, in);
+		assertEquals("key", v.actorId);
+		assertEquals("use", v.verb);
+		assertEquals("door \"main\"\n", v.target);
+
+		v = Recorder.readVerb(json, in);
+		assertNull(v.verb);
+		assertNull(v.pos);
+		assertEquals(2, v.dialogOption);
+
+		v = Recorder.readVerb(json, in);
+		assertNull(v.verb);
+		assertEquals(100, v.pos.x, 0);
+		assertEquals(50.5f, v.pos.y, 0);
+
+		assertNull(Recorder.readVerb(json, in));
+	}
+
+	@Test
+	public void testEmptyLinesAreSkipped() throws IOException {
+		String record = "\n" + write(verb(1, "door", "open", null)) + "\n  \n";
+		BufferedReader in = new BufferedReader(new StringReader(record));
+
+		assertEquals("open", Recorder.readVerb(json, in).verb);
+		assertNull(Recorder.readVerb(json, in));
+	}
+
+	@Test
+	public void testCountVerbs() throws IOException {
+		File f = File.createTempFile("record", Recorder.RECORD_STREAM_EXT);
+		FileHandle file = new FileHandle(f);
+
+		try {
+			file.writeString(write(verb(1, "door", "open", null), checkpoint("record.cp0.gamestate.rec"),
+					verb(1, "door", "close", null)), false, "UTF-8");
+
+			// checkpoints are not counted
+			assertEquals(2, Recorder.countVerbs(file));
+		} finally {
+			file.delete();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testOldFormat() {
+		String record = "[" + json.toJson(verb(1, "door", "open", null), TimeVerb.class) + ","
+				+ json.toJson(verb(2, "door", "close", null), TimeVerb.class) + "]";
+
+		ArrayList<TimeVerb> list = new Json().fromJson(ArrayList.class, TimeVerb.class, record);
+
+		assertEquals(2, list.size());
+		assertEquals("close", list.get(1).verb);
+	}
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.util;
+
+import java.util.ArrayList;
+
+import com.bladecoder.engine.actions.Action;
+import com.bladecoder.engine.actions.ActionCallback;
+import com.bladecoder.engine.model.BaseActor;
+import com.bladecoder.engine.model.InteractiveActor;
+import com.bladecoder.engine.model.Scene;
+import com.bladecoder.engine.model.Verb;
+import com.bladecoder.engine.model.VerbManager;
+import com.bladecoder.engine.model.World;
+import com.bladecoder.engine.serialization.ActionCallbackSerializer;
+
+/**
+ * Measures the serialization of the pending ActionCallbacks in a savegame.
+ *
+ * The verbs and actions of the current scene, its actors and the world are
+ * used as pending callbacks, repeated until the requested number. Every
+ * callback is converted to its location string and located again, like when
+ * saving and loading the game.
+ *
+ * @author rgarcia
+ */
+public class CallbackBenchmark {
+
+	/**
+	 * @param w         a world with the current scene loaded.
+	 * @param callbacks number of pending callbacks in every save.
+	 * @param saves     number of saves to measure.
+	 */
+	public static String run(World w, int callbacks, int saves) {
+		ArrayList<ActionCallback> all = new ArrayList<ActionCallback>();
+		Scene s = w.getCurrentScene();
+
+		add(s.getVerbManager(), all);
+
+		for (BaseActor a : s.getActors().values()) {
+			if (a instanceof InteractiveActor)
+				add(((InteractiveActor) a).getVerbManager(), all);
+		}
+
+		add(w.getVerbManager(), all);
+
+		if (all.isEmpty())
+			return "CALLBACK BENCHMARK: no verbs found in the current scene\n";
+
+		ActionCallback[] pending = new ActionCallback[callbacks];
+		String[] ids = new String[callbacks];
+
+		for (int i = 0; i < callbacks; i++)
+			pending[i] = all.get(i % all.size());
+
+		// warm up, the callbacks are registered here
+		save(w, pending, ids);
+
+		long t0 = System.nanoTime();
+
+		for (int i = 0; i < saves; i++)
+			save(w, pending, ids);
+
+		long saveTime = System.nanoTime() - t0;
+
+		t0 = System.nanoTime();
+		int errors = 0;
+
+		for (int i = 0; i < saves; i++)
+			errors += load(w, pending, ids);
+
+		long loadTime = System.nanoTime() - t0;
+		int refs = callbacks * saves;
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("CALLBACK BENCHMARK: ").append(callbacks).append(" callbacks, ").append(saves).append(" saves\n");
+		sb.append("  save time/callback (ns): ").append(saveTime / refs).append('\n');
+		sb.append("  load time/callback (ns): ").append(loadTime / refs).append('\n');
+		sb.append("  not found: ").append(errors / saves).append('\n');
+
+		return sb.toString();
+	}
+
+	private static void add(VerbManager vm, ArrayList<ActionCallback> all) {
+		for (Verb v : vm.getVerbs().values()) {
+			all.add(v);
+
+			for (Action a : v.getActions()) {
+				if (a instanceof ActionCallback)
+					all.add((ActionCallback) a);
+			}
+		}
+	}
+
+	private static void save(World w, ActionCallback[] pending, String[] ids) {
+		for (int i = 0; i < pending.length; i++)
+			ids[i] = ActionCallbackSerializer.find(w, pending[i]);
+	}
+
+	private static int load(World w, ActionCallback[] pending, String[] ids) {
+		int errors = 0;
+
+		for (int i = 0; i < pending.length; i++) {
+			if (ActionCallbackSerializer.find(w, ids[i]) != pending[i])
+				errors++;
+		}
+
+		return errors;
+	}
+}
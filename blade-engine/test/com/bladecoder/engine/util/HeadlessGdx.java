@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.util;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+
+/**
+ * Creates a headless application for the tests that need Gdx.app and
+ * Gdx.files. The tested code doesn't use native code, so the natives are not
+ * loaded.
+ * 
+ * @author rgarcia
+ */
+public class HeadlessGdx {
+
+	public static void init() {
+		if (Gdx.app != null)
+			return;
+
+		GdxNativesLoader.disableNativesLoading = true;
+		new HeadlessApplication(new ApplicationAdapter() {
+		});
+	}
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.util;
+
+import org.minimalcode.beans.ObjectWrapper;
+
+import com.bladecoder.engine.model.World;
+
+/**
+ * Compares the compiled model property paths used by World.setModelProp() and
+ * World.getModelProp() with the ObjectWrapper.
+ * 
+ * @author rgarcia
+ */
+public class ModelPropBenchmark {
+
+	/**
+	 * @param w     the world with the model loaded.
+	 * @param prop  the property path, ex: 'scenes[lobby].actors[door].visible'.
+	 * @param value the value to set, it must be the current value to not change
+	 *              the model.
+	 * @param n     number of reads and writes to measure.
+	 */
+	public static String run(World w, String prop, String value, int n) {
+		ObjectWrapper wrapper = new ObjectWrapper(w);
+
+		// warm up, the path is compiled here
+		for (int i = 0; i < Math.min(n, 1000); i++) {
+			w.setModelProp(prop, value);
+			w.getModelProp(prop);
+			wrapper.setValue(prop, value);
+			wrapper.getValue(prop);
+		}
+
+		long t0 = System.nanoTime();
+
+		for (int i = 0; i < n; i++)
+			w.setModelProp(prop, value);
+
+		long setTime = System.nanoTime() - t0;
+
+		t0 = System.nanoTime();
+
+		for (int i = 0; i < n; i++)
+			w.getModelProp(prop);
+
+		long getTime = System.nanoTime() - t0;
+
+		t0 = System.nanoTime();
+
+		for (int i = 0; i < n; i++)
+			wrapper.setValue(prop, value);
+
+		long wrapperSetTime = System.nanoTime() - t0;
+
+		t0 = System.nanoTime();
+
+		for (int i = 0; i < n; i++)
+			wrapper.getValue(prop);
+
+		long wrapperGetTime = System.nanoTime() - t0;
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("MODEL PROP BENCHMARK: ").append(prop).append(", ").append(n).append(" calls\n");
+		sb.append("  set time (ns): ").append(setTime / n).append(" - ObjectWrapper: ").append(wrapperSetTime / n)
+				.append('\n');
+		sb.append("  get time (ns): ").append(getTime / n).append(" - ObjectWrapper: ").append(wrapperGetTime / n)
+				.append('\n');
+
+		return sb.toString();
+	}
+}
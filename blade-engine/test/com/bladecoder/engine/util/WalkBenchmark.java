@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.util;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.bladecoder.engine.model.BaseActor;
+import com.bladecoder.engine.model.CharacterActor;
+import com.bladecoder.engine.model.ObstacleActor;
+import com.bladecoder.engine.model.Scene;
+import com.bladecoder.engine.model.WalkZoneActor;
+import com.bladecoder.engine.polygonalpathfinder.PolygonalNavGraph;
+
+/**
+ * Measures the time and memory allocated by the characters walking in a scene.
+ *
+ * The characters are sent to random points of the walkzone and the scene is
+ * updated with a fixed step. The allocated memory is read from the JVM thread
+ * allocation counter. When the counter is not available, like in Android, only
+ * the time is reported.
+ *
+ * @author rgarcia
+ */
+public class WalkBenchmark {
+	private static final float STEP = 1 / 60f;
+
+	private static Object threadBean;
+	private static Method allocatedBytes;
+
+	/**
+	 * @param s          a scene with its assets loaded.
+	 * @param actors     the characters to move.
+	 * @param goTos      number of goTo orders for every character.
+	 * @param repathTime seconds between goTo orders.
+	 */
+	public static String run(Scene s, CharacterActor[] actors, int goTos, float repathTime, long seed) {
+		RandomXS128 rnd = new RandomXS128(seed);
+		Vector2 target = new Vector2();
+		Polygon walkZone = s.getWalkZone() != null ? s.getPolygonalNavGraph().getWalkZone() : null;
+		Rectangle bounds = walkZone != null ? walkZone.getBoundingRectangle()
+				: new Rectangle(0, 0, s.getCamera().getScrollingWidth(), s.getCamera().getScrollingHeight());
+
+		// warm up, the pools and buffers are filled here
+		walk(s, actors, Math.min(goTos, 10), repathTime, rnd, target, bounds);
+
+		long bytes0 = getAllocatedBytes();
+		long t0 = System.nanoTime();
+
+		walk(s, actors, goTos, repathTime, rnd, target, bounds);
+
+		long time = System.nanoTime() - t0;
+		long bytes = getAllocatedBytes() - bytes0;
+		int orders = goTos * actors.length;
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("WALK BENCHMARK: ").append(actors.length).append(" actors, ").append(orders).append(" goTo\n");
+		sb.append("  time/goTo (µs): ").append(time / 1000 / orders).append('\n');
+
+		if (bytes0 >= 0)
+			sb.append("  allocated bytes/goTo: ").append(bytes / orders).append('\n');
+		else
+			sb.append("  allocated bytes: not available\n");
+
+		return sb.toString();
+	}
+
+	private static void walk(Scene s, CharacterActor[] actors, int goTos, float repathTime, RandomXS128 rnd,
+			Vector2 target, Rectangle bounds) {
+		int steps = Math.max(1, (int) (repathTime / STEP));
+
+		for (int i = 0; i < goTos; i++) {
+			for (CharacterActor a : actors) {
+				target.set(bounds.x + rnd.nextFloat() * bounds.width, bounds.y + rnd.nextFloat() * bounds.height);
+				a.goTo(target, null, false);
+			}
+
+			for (int j = 0; j < steps; j++) {
+				for (CharacterActor a : actors)
+					a.update(STEP);
+			}
+		}
+	}
+
+	/**
+	 * Compares the visibility graph and the nav mesh modes of the
+	 * PolygonalNavGraph in a synthetic walkzone.
+	 * 
+	 * The walkzone is a zigzag corridor made of walls that come alternately
+	 * from the bottom and the top, with an obstacle between every pair of
+	 * walls. The path length is also reported to compare the quality of the
+	 * paths.
+	 * 
+	 * @param walls    number of walls of the walkzone. Every wall adds 4
+	 *                 vertices.
+	 * @param searches number of paths searched between random points.
+	 */
+	public static String compareNavGraphs(int walls, int searches, long seed) {
+		final float wallWidth = 4, cellWidth = 60, height = 400, wallHeight = 300;
+
+		float width = (walls + 1) * cellWidth;
+		float[] verts = new float[walls * 8 + (walls + 1) * 4 + 8];
+		int n = 0;
+
+		// bottom walls from left to right
+		verts[n++] = 0;
+		verts[n++] = 0;
+
+		for (int i = 0; i <= walls; i++) {
+			// a vertex in the middle of the cell to avoid collinear edges
+			verts[n++] = i * cellWidth + cellWidth / 2;
+			verts[n++] = -20;
+
+			if (i < walls && i % 2 == 0) {
+				float x = (i + 1) * cellWidth;
+
+				verts[n++] = x;
+				verts[n++] = 0;
+				verts[n++] = x;
+				verts[n++] = wallHeight;
+				verts[n++] = x + wallWidth;
+				verts[n++] = wallHeight;
+				verts[n++] = x + wallWidth;
+				verts[n++] = 0;
+			}
+		}
+
+		verts[n++] = width;
+		verts[n++] = 0;
+		verts[n++] = width;
+		verts[n++] = height;
+
+		// top walls from right to left
+		for (int i = walls; i >= 0; i--) {
+			if (i < walls && i % 2 == 1) {
+				float x = (i + 1) * cellWidth;
+
+				verts[n++] = x + wallWidth;
+				verts[n++] = height;
+				verts[n++] = x + wallWidth;
+				verts[n++] = height - wallHeight;
+				verts[n++] = x;
+				verts[n++] = height - wallHeight;
+				verts[n++] = x;
+				verts[n++] = height;
+			}
+
+			verts[n++] = i * cellWidth + cellWidth / 2;
+			verts[n++] = height + 20;
+		}
+
+		verts[n++] = 0;
+		verts[n++] = height;
+
+		WalkZoneActor wz = new WalkZoneActor();
+		wz.getBBox().setVertices(verts);
+
+		ArrayList<BaseActor> obstacles = new ArrayList<BaseActor>();
+
+		for (int i = 0; i <= walls; i++) {
+			float x = i * cellWidth + cellWidth / 2;
+			ObstacleActor o = new ObstacleActor();
+
+			o.getBBox().setVertices(new float[] { x - 8, 190, x - 8, 210, x + 8, 210, x + 8, 190 });
+			obstacles.add(o);
+		}
+
+		RandomXS128 rnd = new RandomXS128(seed);
+		float[] points = new float[searches * 4];
+
+		for (int i = 0; i < points.length; i += 2) {
+			do {
+				points[i] = rnd.nextFloat() * width;
+				points[i + 1] = rnd.nextFloat() * height;
+			} while (!PolygonUtils.isPointInside(wz.getBBox(), points[i], points[i + 1], false));
+		}
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("NAV GRAPH BENCHMARK: ").append(verts.length / 2).append(" walkzone vertices, ")
+				.append(obstacles.size()).append(" obstacles, ").append(searches).append(" searches\n");
+
+		for (int mode = 0; mode < 2; mode++) {
+			PolygonalNavGraph g = new PolygonalNavGraph();
+			g.setNavMeshMode(mode == 1);
+
+			long t0 = System.nanoTime();
+
+			g.createInitialGraph(wz, obstacles);
+
+			if (g.isNavMeshMode())
+				g.getNavMesh();
+
+			long buildTime = System.nanoTime() - t0;
+
+			t0 = System.nanoTime();
+
+			float length = 0;
+			int notFound = 0;
+
+			for (int i = 0; i < points.length; i += 4) {
+				ArrayList<Vector2> path = g.findPath(points[i], points[i + 1], points[i + 2], points[i + 3]);
+
+				if (path.size() < 2)
+					notFound++;
+
+				for (int j = 1; j < path.size(); j++)
+					length += path.get(j - 1).dst(path.get(j));
+			}
+
+			long time = System.nanoTime() - t0;
+
+			sb.append(g.isNavMeshMode() ? "  NAV MESH" : "  VISIBILITY GRAPH").append('\n');
+			sb.append("    build time (ms): ").append(buildTime / 1000000f).append('\n');
+			sb.append("    time/search (µs): ").append(time / 1000 / searches).append('\n');
+			sb.append("    average path length: ").append(length / (searches - notFound)).append('\n');
+			sb.append("    paths not found: ").append(notFound).append('\n');
+		}
+
+		return sb.toString();
+	}
+
+	/**
+	 * @return the bytes allocated by the current thread or -1 if not supported.
+	 */
+	public static long getAllocatedBytes() {
+		try {
+			if (allocatedBytes == null) {
+				threadBean = Class.forName("java.lang.management.ManagementFactory").getMethod("getThreadMXBean")
+						.invoke(null);
+				allocatedBytes = Class.forName("com.sun.management.ThreadMXBean")
+						.getMethod("getThreadAllocatedBytes", long.class);
+			}
+
+			return (Long) allocatedBytes.invoke(threadBean, Thread.currentThread().getId());
+		} catch (Exception e) {
+			return -1;
+		}
+	}
+}